@@ -17,20 +17,5 @@ package io.openchaos.common;
 public enum InvokeResult {
     SUCCESS,
     FAILURE,
-    UNKNOWN;
-
-    private String extraInfo;
-
-    public String getExtraInfo() {
-        return extraInfo;
-    }
-
-    public void setExtraInfo(String extraInfo) {
-        this.extraInfo = extraInfo;
-    }
-
-    public InvokeResult setExtraInfoAndReturnSelf(String extraInfo) {
-        this.extraInfo = extraInfo;
-        return this;
-    }
+    UNKNOWN
 }
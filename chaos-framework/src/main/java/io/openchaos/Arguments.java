@@ -37,6 +37,21 @@ public class Arguments {
         "--concurrency"}, description = "The number of clients. eg: 5", validateWith = PositiveInteger.class)
     public int concurrency = 4;
 
+    @Parameter(names = {
+        "--consumer-concurrency"
+        }, description = "The number of queue clients which consume only, the clients of concurrency then enqueue only. 0 means every client both enqueues and consumes. eg: 2", validateWith = PositiveInteger.class)
+    public int consumerConcurrency = 0;
+
+    @Parameter(names = {
+        "--topic-count"
+        }, description = "The number of topics of queue model, producer clients are spread across topics and consumers subscribe across them. eg: 4", validateWith = PositiveInteger.class)
+    public int topicCount = 1;
+
+    @Parameter(names = {
+        "--partition-count"
+        }, description = "The number of partitions of every topic of queue model. eg: 16", validateWith = PositiveInteger.class)
+    public int partitionCount = 8;
+
     @Parameter(names = {
         "-r",
         "--rate"}, description = "Approximate number of requests per second. eg: 20", validateWith = PositiveInteger.class)
@@ -130,4 +145,64 @@ public class Arguments {
         "--recovery-time"
         }, description = "Recovery time after stop (the unit is second).")
     public long recoveryTime  = 30;
+
+    @Parameter(names = {
+        "--async-recorder"
+        }, description = "Record history through a lock-free ring buffer drained by a background writer thread.")
+    public boolean asyncRecorder = false;
+
+    @Parameter(names = {
+        "--recorder-buffer-size"
+        }, description = "The ring buffer size of async recorder. eg: 65536", validateWith = PositiveInteger.class)
+    public int recorderBufferSize = 64 * 1024;
+
+    @Parameter(names = {
+        "--history-format"
+        }, description = "The format of history file, text or binary. Binary history is smaller and faster to record and check.", validateWith = HistoryFormatValidator.class)
+    public String historyFormat = "text";
+
+    @Parameter(names = {
+        "--history-segment-size"
+        }, description = "Record history to a directory of memory-mapped segments of this size in MB (at most 1024) instead of a single file, 0 means a single file. eg: 256", validateWith = PositiveInteger.class)
+    public int historySegmentSize = 0;
+
+    @Parameter(names = {
+        "--checker-threads"
+        }, description = "The number of threads to run checkers concurrently, 1 means checking in the scanning thread. eg: 4", validateWith = PositiveInteger.class)
+    public int checkerThreads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(names = {
+        "--live-check"
+        }, description = "Check queue model while recording history, the running state is available by GET /live of agent, and the final result needs no second pass over history file.")
+    public boolean liveCheck = false;
+
+    @Parameter(names = {
+        "--off-heap-checker"
+        }, description = "Keep the message tables of queue checker in direct memory instead of java heap, for runs with a huge number of messages.")
+    public boolean offHeapChecker = false;
+
+    @Parameter(names = {
+        "--spill-checker"
+        }, description = "Partition the state of order and kv checkers into temp files, so checking holds one of 64 partitions in memory at a time instead of the whole history.")
+    public boolean spillChecker = false;
+
+    @Parameter(names = {
+        "--perf-window"
+        }, description = "The window in milliseconds of the throughput time series of perf checker. eg: 1000", validateWith = PositiveInteger.class)
+    public int perfWindow = 1000;
+
+    @Parameter(names = {
+        "--max-in-flight"
+        }, description = "The max number of enqueue requests in flight of each queue client, more than 1 means enqueue asynchronously. eg: 64", validateWith = PositiveInteger.class)
+    public int maxInFlight = 1;
+
+    @Parameter(names = {
+        "--open-loop"
+        }, description = "Schedule requests at the fixed rate regardless of outstanding requests, and measure latency from the scheduled time, so stalls are not hidden by waiting clients. Use it with --max-in-flight to keep queue clients sending during stalls.")
+    public boolean openLoop = false;
+
+    @Parameter(names = {
+        "--batch-size"
+        }, description = "The number of messages enqueued with one batch by each queue client, every message is still recorded and checked on its own. eg: 32", validateWith = PositiveInteger.class)
+    public int batchSize = 1;
 }
@@ -20,6 +20,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.common.util.concurrent.RateLimiter;
 import io.openchaos.checker.KVChecker;
+import io.openchaos.checker.LatencyChecker;
+import io.openchaos.checker.LiveQueueChecker;
 import io.openchaos.checker.QueueChecker;
 import io.openchaos.checker.PerfChecker;
 import io.openchaos.checker.result.TestResult;
@@ -27,6 +29,7 @@ import io.openchaos.fault.*;
 import io.openchaos.http.Agent;
 import io.openchaos.checker.Checker;
 import io.openchaos.checker.EndToEndLatencyChecker;
+import io.openchaos.checker.HistoryScanner;
 import io.openchaos.checker.OrderChecker;
 import io.openchaos.checker.RTOChecker;
 import io.openchaos.checker.RecoveryChecker;
@@ -35,8 +38,15 @@ import io.openchaos.driver.ChaosNode;
 import io.openchaos.model.KVModel;
 import io.openchaos.model.Model;
 import io.openchaos.model.QueueModel;
+import io.openchaos.recorder.HistoryFormat;
 import io.openchaos.recorder.Recorder;
+import io.openchaos.recorder.RecorderConfig;
 import io.openchaos.worker.FaultWorker;
+import io.openchaos.worker.OpenLoopSchedule;
+import io.openchaos.worker.RateShapeWorker;
+import io.openchaos.workload.KVOperationMix;
+import io.openchaos.workload.RateShape;
+import io.openchaos.workload.WorkloadConfiguration;
 import java.io.File;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -46,6 +56,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
@@ -70,8 +81,12 @@ public class ChaosControl {
 
     private static Recorder recorder;
 
+    private static LiveQueueChecker liveQueueChecker;
+
     private static FaultWorker faultWorker;
 
+    private static RateShapeWorker rateShapeWorker;
+
     private static long testStartTimeStamp;
 
     private static long testEndTimestamp;
@@ -121,6 +136,11 @@ public class ChaosControl {
             System.exit(-1);
         }
 
+        if (arguments.batchSize > 1 && arguments.maxInFlight > 1) {
+            System.err.println("--batch-size and --max-in-flight can not be used together");
+            System.exit(-1);
+        }
+
         if (arguments.outputDir != null && !arguments.outputDir.isEmpty()) {
             if (!judgeOrCreateDir(arguments.outputDir)) {
                 System.err.println("output-dir is not a standard directory name or failed to create directory");
@@ -254,12 +274,28 @@ public class ChaosControl {
 
             historyFile = String.format("%s-%s-chaos-history-file", DATE_FORMAT.format(new Date()), driverConfiguration.name);
 
-            RateLimiter rateLimiter = RateLimiter.create(arguments.rate);
+            //Queue clients invoke once per batch, the rate is still the number of messages
+            double invokeRate = QueueModel.MODEL_NAME.equals(arguments.model) ? (double) arguments.rate / arguments.batchSize : arguments.rate;
+            WorkloadConfiguration workload = driverConfiguration.workload;
+            RateShape rateShape = RateShape.create(workload != null ? workload.rateShape : null);
+            RateLimiter rateLimiter = RateLimiter.create(invokeRate);
+            OpenLoopSchedule openLoopSchedule = arguments.openLoop ? new OpenLoopSchedule(invokeRate, rateShape) : null;
+            rateShapeWorker = !arguments.openLoop && !rateShape.isConstant() ? new RateShapeWorker(rateLimiter, invokeRate, rateShape, log) : null;
+
+            RecorderConfig recorderConfig = new RecorderConfig();
+            recorderConfig.async = arguments.asyncRecorder;
+            recorderConfig.bufferSize = arguments.recorderBufferSize;
+            recorderConfig.format = HistoryFormat.valueOf(arguments.historyFormat.toUpperCase());
+            recorderConfig.segmentSize = Math.min(arguments.historySegmentSize, 1024) * 1024 * 1024;
+
+            if (arguments.liveCheck && QueueModel.MODEL_NAME.equals(arguments.model)) {
+                liveQueueChecker = new LiveQueueChecker(arguments.outputDir, historyFile, arguments.offHeapChecker);
+            }
 
             if (arguments.outputDir != null && !arguments.outputDir.isEmpty()) {
-                recorder = Recorder.newRecorder(arguments.outputDir + File.separator + historyFile);
+                recorder = Recorder.newRecorder(arguments.outputDir + File.separator + historyFile, recorderConfig, liveQueueChecker);
             } else {
-                recorder = Recorder.newRecorder(historyFile);
+                recorder = Recorder.newRecorder(historyFile, recorderConfig, liveQueueChecker);
             }
 
             if (recorder == null) {
@@ -267,18 +303,24 @@ public class ChaosControl {
                 System.exit(-1);
             }
 
+            int keyCount = workload != null && workload.shardingKey != null && workload.shardingKey.keyCount > 0
+                ? workload.shardingKey.keyCount : 2 * arguments.concurrency;
+            if (isOrderTest && keyCount < arguments.concurrency) {
+                throw new IllegalArgumentException("Sharding key count should not be less than concurrency in order test");
+            }
             shardingKeys = new ArrayList<>();
-            for (int i = 0; i < 2 * arguments.concurrency; i++) {
+            for (int i = 0; i < keyCount; i++) {
                 shardingKeys.add("shardingKey" + i);
             }
 
             //Currently only queue model is supported
             switch (arguments.model) {
                 case QueueModel.MODEL_NAME:
-                    model = new QueueModel(arguments.concurrency, rateLimiter, recorder, driverConfigFile, isOrderTest, pull, shardingKeys);
+                    model = new QueueModel(arguments.concurrency, arguments.consumerConcurrency, arguments.topicCount, arguments.partitionCount, rateLimiter, recorder, driverConfigFile, isOrderTest, pull, shardingKeys, arguments.maxInFlight, arguments.batchSize, openLoopSchedule, workload);
                     break;
                 case KVModel.MODEL_NAME:
-                    model = new KVModel(arguments.concurrency, rateLimiter, recorder, driverConfigFile);
+                    model = new KVModel(arguments.concurrency, rateLimiter, recorder, driverConfigFile, openLoopSchedule,
+                        KVOperationMix.create(workload != null ? workload.kvOperation : null));
                     break;
                 default:
                     throw new RuntimeException("model not recognized.");
@@ -393,6 +435,11 @@ public class ChaosControl {
 
         testStartTimeStamp = System.currentTimeMillis();
 
+        //Start rate shape worker
+        if (rateShapeWorker != null) {
+            rateShapeWorker.start();
+        }
+
         //Start model
         model.start();
 
@@ -407,6 +454,10 @@ public class ChaosControl {
         //Interrupt fault worker
         faultWorker.breakLoop();
 
+        if (rateShapeWorker != null) {
+            rateShapeWorker.breakLoop();
+        }
+
         //Recovery fault
         fault.recover();
 
@@ -424,6 +475,8 @@ public class ChaosControl {
 
         recorder.flush();
 
+        log.info("Recorder metrics: {}", recorder.getMetrics());
+
         testEndTimestamp = System.currentTimeMillis();
     }
 
@@ -438,18 +491,21 @@ public class ChaosControl {
 
         switch (arguments.model) {
             case QueueModel.MODEL_NAME:
-                checkerList.add(new QueueChecker(arguments.outputDir, historyFile));
+                //The live checker has seen the whole history while recording
+                checkerList.add(liveQueueChecker != null ? liveQueueChecker : new QueueChecker(arguments.outputDir, historyFile, arguments.offHeapChecker));
                 points = Collections.singletonList("enqueue");
-                checkerList.add(new PerfChecker(points, arguments.outputDir, historyFile, testStartTimeStamp, testEndTimestamp, isUploadImage, ossConfig));
+                checkerList.add(new PerfChecker(points, arguments.outputDir, historyFile, testStartTimeStamp, testEndTimestamp, isUploadImage, ossConfig, arguments.perfWindow));
                 break;
             case KVModel.MODEL_NAME:
-                checkerList.add(new KVChecker(arguments.outputDir, historyFile));
-                points = Collections.singletonList("put");
-                checkerList.add(new PerfChecker(points, arguments.outputDir, historyFile, testStartTimeStamp, testEndTimestamp, isUploadImage, ossConfig));
+                checkerList.add(new KVChecker(arguments.outputDir, historyFile, arguments.spillChecker));
+                WorkloadConfiguration workload = driverConfiguration.workload;
+                points = KVOperationMix.create(workload != null ? workload.kvOperation : null).operations();
+                checkerList.add(new PerfChecker(points, arguments.outputDir, historyFile, testStartTimeStamp, testEndTimestamp, isUploadImage, ossConfig, arguments.perfWindow));
                 break;
             default:
                 break;
         }
+        checkerList.add(new LatencyChecker(arguments.outputDir, historyFile));
 
         if (arguments.rto) {
             checkerList.add(new RTOChecker(arguments.outputDir, historyFile, arguments.model));
@@ -458,15 +514,24 @@ public class ChaosControl {
             checkerList.add(new RecoveryChecker(arguments.outputDir, historyFile, arguments.model));
         }
         if (isOrderTest) {
-            checkerList.add(new OrderChecker(arguments.outputDir, historyFile, shardingKeys));
+            checkerList.add(new OrderChecker(arguments.outputDir, historyFile, shardingKeys, arguments.spillChecker));
         }
 
         if (endToEndLatencyCheck) {
             checkerList.add(new EndToEndLatencyChecker(arguments.outputDir, historyFile));
         }
 
-        resultList = new ArrayList<>();
-        checkerList.forEach(checker -> resultList.add(checker.check()));
+        String historyFilePath;
+        if (arguments.outputDir != null && !arguments.outputDir.isEmpty()) {
+            historyFilePath = arguments.outputDir + File.separator + historyFile;
+        } else {
+            historyFilePath = historyFile;
+        }
+
+        //All checkers share one sequential read of the history file, and consume it concurrently
+        HistoryScanner historyScanner = new HistoryScanner(historyFilePath, arguments.checkerThreads);
+        checkerList.forEach(historyScanner::subscribe);
+        resultList = historyScanner.scan();
 
         log.info("Check complete.");
 
@@ -477,7 +542,10 @@ public class ChaosControl {
 
         if (resultList.size() != 0) {
             log.info("--------------- CHAOS TEST RESULT --- DRIVER : {}---------------", driverConfiguration.name);
-            resultList.forEach(testResult -> log.info(testResult.toString()));
+            resultList.stream().filter(Objects::nonNull).forEach(testResult -> {
+                log.info(testResult.toString());
+                log.info("{} check time is {} ms", testResult.name, testResult.checkTime);
+            });
             log.info("--------------- CHAOS TEST RESULT --- DRIVER : {}---------------", driverConfiguration.name);
         }
     }
@@ -490,6 +558,11 @@ public class ChaosControl {
             recorder = null;
         }
 
+        if (liveQueueChecker != null) {
+            liveQueueChecker.stop();
+            liveQueueChecker = null;
+        }
+
         if (model != null) {
             model.shutdown();
             model = null;
@@ -518,6 +591,10 @@ public class ChaosControl {
         return recorder;
     }
 
+    public static LiveQueueChecker getLiveQueueChecker() {
+        return liveQueueChecker;
+    }
+
     public static void clear() {
 
         if (recorder != null) {
@@ -531,8 +608,13 @@ public class ChaosControl {
             model = null;
         }
 
+        if (liveQueueChecker != null) {
+            liveQueueChecker.stop();
+            liveQueueChecker = null;
+        }
         fault = null;
         faultWorker = null;
+        rateShapeWorker = null;
         testStartTimeStamp = 0;
         testEndTimestamp = 0;
         historyFile = null;
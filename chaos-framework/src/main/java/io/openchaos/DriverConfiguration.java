@@ -14,6 +14,7 @@
 
 package io.openchaos;
 
+import io.openchaos.workload.WorkloadConfiguration;
 import java.util.List;
 
 public class DriverConfiguration {
@@ -43,4 +44,6 @@ public class DriverConfiguration {
     public String ossAccessKeySecret;
 
     public String bucketName;
+
+    public WorkloadConfiguration workload;
 }
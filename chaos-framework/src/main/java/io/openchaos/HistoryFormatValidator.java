@@ -0,0 +1,32 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos;
+
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.ParameterException;
+import io.openchaos.recorder.HistoryFormat;
+import java.util.Arrays;
+
+public class HistoryFormatValidator implements IParameterValidator {
+
+    @Override
+    public void validate(String name, String value) throws ParameterException {
+        try {
+            HistoryFormat.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ParameterException("History format must be one of " + Arrays.toString(HistoryFormat.values()).toLowerCase());
+        }
+    }
+}
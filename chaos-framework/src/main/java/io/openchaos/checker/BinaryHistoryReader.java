@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import io.openchaos.recorder.BinaryHistoryFormat;
+import io.openchaos.recorder.LogEntryType;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read a history file written in {@link BinaryHistoryFormat}, the magic must have been consumed already
+ */
+public class BinaryHistoryReader implements HistoryReader {
+
+    private final InputStream in;
+    private byte[] buffer = new byte[256];
+    private long lastTimestamp = 0;
+
+    public BinaryHistoryReader(InputStream in) throws IOException {
+        this.in = in;
+        int version = in.read();
+        if (version != BinaryHistoryFormat.VERSION) {
+            throw new IOException("Unsupported binary history version " + version);
+        }
+    }
+
+    @Override
+    public HistoryRecord next() throws IOException {
+        int kind = in.read();
+        if (kind < 0 || kind == BinaryHistoryFormat.KIND_END) {
+            return null;
+        }
+        byte operationCode = readByte();
+        byte resultCode = readByte();
+
+        HistoryRecord record = new HistoryRecord();
+        record.operation = operationCode == BinaryHistoryFormat.OPERATION_CUSTOM ? readString() : BinaryHistoryFormat.operation(operationCode);
+        switch (kind) {
+            case BinaryHistoryFormat.KIND_REQUEST:
+                record.type = LogEntryType.REQUEST;
+                record.clientId = (int) BinaryHistoryFormat.unzigzag(readVarLong());
+                record.timestamp = readTimestamp();
+                record.value = readString();
+                record.shardingKey = readString();
+                record.extraInfo = readString();
+                long scheduledDelay = readVarLong();
+                if (scheduledDelay != 0) {
+                    record.scheduledTimestamp = record.timestamp - BinaryHistoryFormat.unzigzag(scheduledDelay - 1);
+                }
+                readTopic(record);
+                break;
+            case BinaryHistoryFormat.KIND_RESPONSE:
+                record.type = LogEntryType.RESPONSE;
+                record.result = BinaryHistoryFormat.result(resultCode);
+                record.clientId = (int) BinaryHistoryFormat.unzigzag(readVarLong());
+                record.timestamp = readTimestamp();
+                record.value = readString();
+                record.shardingKey = readString();
+                record.sendLatency = BinaryHistoryFormat.unzigzag(readVarLong());
+                record.extraInfo = readString();
+                record.endToEndLatency = BinaryHistoryFormat.unzigzag(readVarLong());
+                readTopic(record);
+                break;
+            case BinaryHistoryFormat.KIND_FAULT:
+                record.type = LogEntryType.FAULT;
+                record.clientId = -1;
+                record.timestamp = readTimestamp();
+                record.faultName = readString();
+                break;
+            default:
+                throw new IOException("Unknown record kind " + kind);
+        }
+        return record;
+    }
+
+    private void readTopic(HistoryRecord record) throws IOException {
+        String topic = readString();
+        record.topic = HistoryRecord.NULL_VALUE.equals(topic) ? null : topic;
+    }
+
+    private byte readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated binary history record");
+        }
+        return (byte) b;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary history");
+    }
+
+    private long readTimestamp() throws IOException {
+        lastTimestamp += BinaryHistoryFormat.unzigzag(readVarLong());
+        return lastTimestamp;
+    }
+
+    private String readString() throws IOException {
+        int length = (int) readVarLong() - 1;
+        if (length < 0) {
+            return HistoryRecord.NULL_VALUE;
+        }
+        if (length > buffer.length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        int read = 0;
+        while (read < length) {
+            int n = in.read(buffer, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Truncated binary history record");
+            }
+            read += n;
+        }
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -16,10 +16,11 @@ package io.openchaos.checker;
 
 import io.openchaos.checker.result.TestResult;
 
-public interface Checker {
+public interface Checker extends HistorySubscriber {
 
     /**
-     * Check the history file to get test result
+     * Check the history file to get test result. To check several checkers with one read of the history file,
+     * subscribe them to a {@link HistoryScanner} instead
      *
      * @return
      */
@@ -21,8 +21,6 @@ import io.openchaos.checker.result.EndToEndLatencyResult;
 import io.openchaos.checker.result.TestResult;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,13 +46,12 @@ public class EndToEndLatencyChecker implements Checker {
     private String outputDir;
     private String originFilePath;
     private String filePath;
+    private boolean failed;
 
     public EndToEndLatencyChecker(String outputDir, String fileName) {
         this.outputDir = outputDir;
         this.fileName = fileName;
-    }
 
-    @Override public TestResult check() {
         if (outputDir != null && !outputDir.isEmpty()) {
             originFilePath = outputDir + File.separator + fileName;
             filePath = outputDir + File.separator + fileName.replace("history", "endToEndLatency-result");
@@ -62,18 +59,54 @@ public class EndToEndLatencyChecker implements Checker {
             originFilePath = fileName;
             filePath = fileName.replace("history", "endToEndLatency-result");
         }
+    }
 
+    @Override public TestResult check() {
         if (!new File(originFilePath).exists()) {
             System.err.println("File not exist.");
             System.exit(0);
         }
 
+        return new HistoryScanner(originFilePath).subscribe(this).scan().get(0);
+    }
+
+    @Override public void onRecord(HistoryRecord record) {
+        if (!record.isResponse() || !record.operation.equals("dequeue") || record.endToEndLatency < 0) {
+            return;
+        }
+        long latency = record.endToEndLatency;
+        e2eAllCount++;
+        if (latency <= 1) {
+            e2eIn1msLatencyCount++;
+        } else if (latency <= 5) {
+            e2eIn5msLatencyCount++;
+        } else if (latency <= 10) {
+            e2eIn10msLatencyCount++;
+        } else if (latency <= 100) {
+            e2eIn100msLatencyCount++;
+        } else if (latency <= 1000) {
+            e2eIn1000msLatencyCount++;
+        } else if (latency <= 3000) {
+            e2eIn3000msLatencyCount++;
+        } else {
+            e2eExceed3000msLatencyCount++;
+        }
+    }
+
+    @Override public void onError(Exception e) {
+        log.error("Failed to check", e);
+        failed = true;
+    }
+
+    @Override public TestResult onComplete() {
+        if (failed) {
+            return null;
+        }
+
         EndToEndLatencyResult endToEndLatency = null;
 
         try {
-            checkInner();
             endToEndLatency = generateResult();
-            MAPPER.writeValue(new File(filePath), endToEndLatency);
         } catch (Exception e) {
             log.error("Failed to check", e);
         }
@@ -81,28 +114,8 @@ public class EndToEndLatencyChecker implements Checker {
         return endToEndLatency;
     }
 
-    private void checkInner() throws IOException {
-        Files.lines(Paths.get(originFilePath)).map(x -> x.split("\t")).filter(x -> !x[0].equals("fault")).
-            filter(x -> x[2].equals("RESPONSE") && x[1].equals("dequeue")).filter(x -> Long.parseLong(x[9]) >= 0).
-            map(x -> x[9]).forEach(x -> {
-                long latency = Long.parseLong(x.trim());
-                e2eAllCount++;
-                if (latency <= 1) {
-                    e2eIn1msLatencyCount++;
-                } else if (latency <= 5) {
-                    e2eIn5msLatencyCount++;
-                } else if (latency <= 10) {
-                    e2eIn10msLatencyCount++;
-                } else if (latency <= 100) {
-                    e2eIn100msLatencyCount++;
-                } else if (latency <= 1000) {
-                    e2eIn1000msLatencyCount++;
-                } else if (latency <= 3000) {
-                    e2eIn3000msLatencyCount++;
-                } else {
-                    e2eExceed3000msLatencyCount++;
-                }
-            });
+    @Override public void writeResult(TestResult result) throws IOException {
+        MAPPER.writeValue(new File(filePath), result);
     }
 
     private EndToEndLatencyResult generateResult() {
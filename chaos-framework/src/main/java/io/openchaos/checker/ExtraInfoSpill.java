@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Append-only side file for the bulky extraInfo strings, so a checker only keeps a long offset per message and reads
+ * back the few strings it reports. The literal "null" is not spilled.
+ */
+public class ExtraInfoSpill implements Closeable {
+
+    public static final long NONE = -1;
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private final File file;
+    private final DataOutputStream out;
+    private RandomAccessFile in;
+    private long position;
+    private long flushedPosition;
+
+    public ExtraInfoSpill(String prefix) throws IOException {
+        this.file = File.createTempFile(prefix, ".extra-info");
+        this.file.deleteOnExit();
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), WRITE_BUFFER_SIZE));
+    }
+
+    /**
+     * @return offset to read the extraInfo back
+     */
+    public long append(String extraInfo) throws IOException {
+        if (extraInfo == null || HistoryRecord.NULL_VALUE.equals(extraInfo)) {
+            return NONE;
+        }
+        byte[] bytes = extraInfo.getBytes(StandardCharsets.UTF_8);
+        long offset = position;
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        position += Integer.BYTES + bytes.length;
+        return offset;
+    }
+
+    public String read(long offset) throws IOException {
+        if (offset == NONE) {
+            return HistoryRecord.NULL_VALUE;
+        }
+        if (position > flushedPosition) {
+            out.flush();
+            flushedPosition = position;
+        }
+        if (in == null) {
+            in = new RandomAccessFile(file, "r");
+        }
+        in.seek(offset);
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+            if (in != null) {
+                in.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
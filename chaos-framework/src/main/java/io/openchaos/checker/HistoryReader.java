@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import io.openchaos.recorder.BinaryHistoryFormat;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * Stream the records of a history file, whichever format it is written in
+ */
+public interface HistoryReader extends Closeable {
+
+    int READ_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * @return next record, or null at the end of history file
+     */
+    HistoryRecord next() throws IOException;
+
+    /**
+     * Open a history file or a directory of history segments, the format is detected from the file header
+     */
+    static HistoryReader open(String historyFilePath) throws IOException {
+        File historyFile = new File(historyFilePath);
+        if (historyFile.isDirectory()) {
+            return new SegmentedHistoryReader(historyFile);
+        }
+        return open(new BufferedInputStream(Files.newInputStream(historyFile.toPath()), READ_BUFFER_SIZE));
+    }
+
+    /**
+     * Read the history from a stream which supports mark, the format is detected from the header
+     */
+    static HistoryReader open(InputStream in) throws IOException {
+        byte[] magic = BinaryHistoryFormat.MAGIC;
+        in.mark(magic.length);
+        boolean binary = true;
+        for (byte b : magic) {
+            if (in.read() != b) {
+                binary = false;
+                break;
+            }
+        }
+        if (binary) {
+            return new BinaryHistoryReader(in);
+        }
+        in.reset();
+        return new TextHistoryReader(in);
+    }
+}
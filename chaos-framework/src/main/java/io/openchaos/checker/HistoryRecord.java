@@ -0,0 +1,218 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import io.openchaos.common.InvokeResult;
+import io.openchaos.recorder.FaultLogEntry;
+import io.openchaos.recorder.LogEntry;
+import io.openchaos.recorder.LogEntryType;
+import io.openchaos.recorder.RequestLogEntry;
+import io.openchaos.recorder.ResponseLogEntry;
+
+/**
+ * One record of the history file. String fields are kept as they appear in text format, so an absent value is the
+ * literal "null" whichever format the file is written in.
+ */
+public class HistoryRecord {
+
+    public static final String FAULT_TAG = "fault";
+
+    public static final String NULL_VALUE = "null";
+
+    public LogEntryType type;
+    public int clientId;
+    //start or end for fault record
+    public String operation;
+    //only for response
+    public InvokeResult result;
+    public String value;
+    public String shardingKey;
+    public long timestamp;
+    //only for response
+    public long sendLatency;
+    public String extraInfo;
+    //only for response
+    public long endToEndLatency;
+    //only for fault
+    public String faultName;
+    //only for request in open-loop mode, -1 when the request was not scheduled
+    public long scheduledTimestamp = -1;
+    //only when the queue model has more than one topic, null otherwise
+    public String topic;
+
+    /**
+     * Parse a line written in text format, without splitting it into an array
+     *
+     * @param line one line of history file, without line separator
+     * @return parsed record
+     */
+    public static HistoryRecord parse(String line) {
+        LineCursor x = new LineCursor(line);
+        HistoryRecord record = new HistoryRecord();
+        String first = x.next();
+        if (first.equals(FAULT_TAG)) {
+            record.type = LogEntryType.FAULT;
+            record.clientId = -1;
+            record.faultName = x.next();
+            record.operation = x.next();
+            record.timestamp = Long.parseLong(x.next());
+            return record;
+        }
+        record.clientId = Integer.parseInt(first);
+        record.operation = x.next();
+        record.type = LogEntryType.valueOf(x.next());
+        if (record.type == LogEntryType.REQUEST) {
+            record.value = x.next();
+            record.shardingKey = x.next();
+            record.timestamp = Long.parseLong(x.next());
+            record.extraInfo = x.next();
+            if (x.hasNext()) {
+                record.scheduledTimestamp = Long.parseLong(x.next().trim());
+            }
+            if (x.hasNext()) {
+                record.topic = x.next().trim();
+            }
+        } else {
+            record.result = InvokeResult.valueOf(x.next());
+            record.value = x.next();
+            record.shardingKey = x.next();
+            record.timestamp = Long.parseLong(x.next());
+            record.sendLatency = Long.parseLong(x.next());
+            record.extraInfo = x.next();
+            if (x.hasNext()) {
+                record.endToEndLatency = Long.parseLong(x.next().trim());
+            }
+            if (x.hasNext()) {
+                record.topic = x.next().trim();
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Convert an entry the recorder is writing, null becomes the literal "null" as if it was read from history file
+     */
+    public static HistoryRecord of(LogEntry logEntry) {
+        HistoryRecord record = new HistoryRecord();
+        if (logEntry instanceof RequestLogEntry) {
+            RequestLogEntry entry = (RequestLogEntry) logEntry;
+            record.type = LogEntryType.REQUEST;
+            record.clientId = entry.clientId;
+            record.operation = entry.operation;
+            record.value = literal(entry.value);
+            record.shardingKey = literal(entry.shardingKey);
+            record.timestamp = entry.timestamp;
+            record.extraInfo = literal(entry.extraInfo);
+            record.scheduledTimestamp = entry.scheduledTimestamp;
+            record.topic = entry.topic;
+        } else if (logEntry instanceof ResponseLogEntry) {
+            ResponseLogEntry entry = (ResponseLogEntry) logEntry;
+            record.type = LogEntryType.RESPONSE;
+            record.clientId = entry.clientId;
+            record.operation = entry.operation;
+            record.result = entry.result;
+            record.value = literal(entry.value);
+            record.shardingKey = literal(entry.shardingKey);
+            record.timestamp = entry.timestamp;
+            record.sendLatency = entry.sendLatency;
+            record.extraInfo = literal(entry.extraInfo);
+            record.endToEndLatency = entry.endToEndLatency;
+            record.topic = entry.topic;
+        } else {
+            FaultLogEntry entry = (FaultLogEntry) logEntry;
+            record.type = LogEntryType.FAULT;
+            record.clientId = -1;
+            record.faultName = entry.faultName;
+            record.operation = entry.operation;
+            record.timestamp = entry.timestamp;
+        }
+        return record;
+    }
+
+    private static String literal(String field) {
+        return field == null ? NULL_VALUE : field;
+    }
+
+    /**
+     * Convert back to the entry the recorder wrote, the literal "null" becomes null again
+     */
+    public LogEntry toLogEntry() {
+        switch (type) {
+            case FAULT:
+                return new FaultLogEntry(faultName, operation, timestamp);
+            case REQUEST:
+                RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, operation, nullable(shardingKey), nullable(value), timestamp, nullable(extraInfo));
+                requestLogEntry.scheduledTimestamp = scheduledTimestamp;
+                requestLogEntry.topic = topic;
+                return requestLogEntry;
+            case RESPONSE:
+            default:
+                ResponseLogEntry responseLogEntry = new ResponseLogEntry(clientId, operation, result, nullable(shardingKey), nullable(value), timestamp,
+                    sendLatency, nullable(extraInfo), endToEndLatency);
+                responseLogEntry.topic = topic;
+                return responseLogEntry;
+        }
+    }
+
+    private static String nullable(String field) {
+        return NULL_VALUE.equals(field) ? null : field;
+    }
+
+    public boolean isFault() {
+        return type == LogEntryType.FAULT;
+    }
+
+    public boolean isRequest() {
+        return type == LogEntryType.REQUEST;
+    }
+
+    public boolean isResponse() {
+        return type == LogEntryType.RESPONSE;
+    }
+
+    public boolean isFaultStart() {
+        return isFault() && operation.equals("start");
+    }
+
+    public boolean isFaultEnd() {
+        return isFault() && operation.equals("end");
+    }
+
+    private static class LineCursor {
+        private final String line;
+        private int start = 0;
+
+        LineCursor(String line) {
+            this.line = line;
+        }
+
+        boolean hasNext() {
+            return start <= line.length();
+        }
+
+        String next() {
+            if (!hasNext()) {
+                throw new IllegalArgumentException("Incomplete history line: " + line);
+            }
+            int end = line.indexOf('\t', start);
+            if (end < 0) {
+                end = line.length();
+            }
+            String field = line.substring(start, end);
+            start = end + 1;
+            return field;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import io.openchaos.checker.result.TestResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read the history file once and dispatch every parsed record to all subscribers, so the cost of checking is one
+ * sequential read no matter how many checkers are registered.
+ * <p>
+ * Records are dispatched in batches. With a parallelism greater than 1, subscribers are spread over at most that many
+ * lanes, each lane runs on its own thread of a bounded executor and receives the batches through a bounded queue, so
+ * the checkers consume the history concurrently while the memory held by in-flight batches stays bounded. A subscriber
+ * always sees the records in file order on a single thread.
+ */
+public class HistoryScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryScanner.class);
+
+    private static final int BATCH_SIZE = 4096;
+
+    private static final int LANE_QUEUE_CAPACITY = 16;
+
+    private static final long LANE_OFFER_TIMEOUT_MS = 100;
+
+    private static final List<HistoryRecord> END_OF_HISTORY = Collections.emptyList();
+
+    private final String historyFilePath;
+    private final int parallelism;
+    private final List<HistorySubscriber> subscribers = new ArrayList<>();
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private volatile Exception scanError;
+
+    public HistoryScanner(String historyFilePath) {
+        this(historyFilePath, 1);
+    }
+
+    public HistoryScanner(String historyFilePath, int parallelism) {
+        this.historyFilePath = historyFilePath;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public HistoryScanner subscribe(HistorySubscriber subscriber) {
+        subscribers.add(subscriber);
+        return this;
+    }
+
+    /**
+     * Scan the history file and complete all subscribers
+     *
+     * @return results of subscribers, in subscription order. A subscriber that failed has an invalid result
+     */
+    public List<TestResult> scan() {
+        Subscription[] subscriptions = new Subscription[subscribers.size()];
+        int laneCount = Math.min(parallelism, Math.max(1, subscribers.size()));
+        Lane[] lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(laneCount > 1);
+        }
+        for (int i = 0; i < subscriptions.length; i++) {
+            subscriptions[i] = new Subscription(subscribers.get(i));
+            lanes[i % laneCount].subscriptions.add(subscriptions[i]);
+        }
+        activeCount.set(subscriptions.length);
+        scanError = null;
+
+        long startTimestamp = System.currentTimeMillis();
+        long recordCount;
+        if (laneCount > 1) {
+            recordCount = scanInParallel(lanes);
+        } else {
+            recordCount = read(lanes);
+            lanes[0].complete();
+        }
+        log.info("Scan {} records of {} with {} lanes in {} ms", recordCount, historyFilePath, laneCount,
+            System.currentTimeMillis() - startTimestamp);
+
+        List<TestResult> results = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            results.add(subscription.result);
+        }
+        return results;
+    }
+
+    private long scanInParallel(Lane[] lanes) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(lanes.length, r -> {
+            Thread thread = new Thread(r, "history-checker-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Lane lane : lanes) {
+                futures.add(executor.submit(lane::run));
+            }
+            long recordCount = read(lanes);
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    log.error("Checker lane failed", e);
+                }
+            }
+            return recordCount;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Read the history file in batches and hand every batch to all lanes, followed by the end of history
+     */
+    private long read(Lane[] lanes) {
+        long recordCount = 0;
+        try (HistoryReader reader = HistoryReader.open(historyFilePath)) {
+            List<HistoryRecord> batch = new ArrayList<>(BATCH_SIZE);
+            HistoryRecord record;
+            while (activeCount.get() > 0 && (record = reader.next()) != null) {
+                recordCount++;
+                batch.add(record);
+                if (batch.size() == BATCH_SIZE) {
+                    for (Lane lane : lanes) {
+                        lane.accept(batch);
+                    }
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                for (Lane lane : lanes) {
+                    lane.accept(batch);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to scan history file {}", historyFilePath, e);
+            scanError = e;
+        }
+        try {
+            for (Lane lane : lanes) {
+                lane.accept(END_OF_HISTORY);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return recordCount;
+    }
+
+    private static class Subscription {
+        private final HistorySubscriber subscriber;
+        private boolean active = true;
+        private boolean failed = false;
+        private boolean completed = false;
+        private long elapsedNanos;
+        private TestResult result;
+
+        Subscription(HistorySubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * A group of subscribers fed with the same batches. A lane is either driven inline by the reading thread, or runs on
+     * its own thread and receives the batches through a bounded queue. A lane whose thread fails stops taking batches,
+     * so the reading thread drops the batches of a failed lane instead of waiting for queue space forever
+     */
+    private class Lane {
+        private final List<Subscription> subscriptions = new ArrayList<>();
+        private final BlockingQueue<List<HistoryRecord>> queue;
+        private volatile boolean failed = false;
+
+        Lane(boolean queued) {
+            this.queue = queued ? new ArrayBlockingQueue<>(LANE_QUEUE_CAPACITY) : null;
+        }
+
+        void accept(List<HistoryRecord> batch) throws InterruptedException {
+            if (queue != null) {
+                while (!failed && !queue.offer(batch, LANE_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    //Wait for queue space as long as the lane is alive
+                }
+            } else if (batch != END_OF_HISTORY) {
+                process(batch);
+            }
+        }
+
+        void run() {
+            try {
+                List<HistoryRecord> batch;
+                while ((batch = queue.take()) != END_OF_HISTORY) {
+                    process(batch);
+                }
+                complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abort(e);
+            } catch (Throwable t) {
+                log.error("Checker lane failed", t);
+                abort(t);
+            }
+        }
+
+        /**
+         * Fail the subscribers still active and complete all subscribers, so every one of them leaves a result
+         */
+        private void abort(Throwable cause) {
+            failed = true;
+            for (Subscription subscription : subscriptions) {
+                if (subscription.active) {
+                    fail(subscription, cause);
+                }
+                finish(subscription);
+            }
+        }
+
+        private void fail(Subscription subscription, Throwable cause) {
+            subscription.active = false;
+            subscription.failed = true;
+            activeCount.decrementAndGet();
+            try {
+                subscription.subscriber.onError(cause instanceof Exception ? (Exception) cause : new ExecutionException(cause));
+            } catch (Throwable t) {
+                log.error("Fail {} failed", subscription.subscriber.getClass().getSimpleName(), t);
+            }
+        }
+
+        private void process(List<HistoryRecord> batch) {
+            for (Subscription subscription : subscriptions) {
+                if (!subscription.active) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                try {
+                    for (HistoryRecord record : batch) {
+                        subscription.subscriber.onRecord(record);
+                    }
+                } catch (Throwable t) {
+                    fail(subscription, t);
+                }
+                subscription.elapsedNanos += System.nanoTime() - start;
+            }
+        }
+
+        private void complete() {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.active && scanError != null) {
+                    fail(subscription, scanError);
+                }
+                finish(subscription);
+            }
+        }
+
+        /**
+         * Complete the subscriber and write its result. A subscriber that failed, or left no result, ends with an
+         * invalid one
+         */
+        private void finish(Subscription subscription) {
+            if (subscription.completed) {
+                return;
+            }
+            subscription.completed = true;
+            String name = subscription.subscriber.getClass().getSimpleName();
+            long start = System.nanoTime();
+            try {
+                subscription.result = subscription.subscriber.onComplete();
+            } catch (Throwable t) {
+                log.error("Complete {} failed", name, t);
+            }
+            subscription.elapsedNanos += System.nanoTime() - start;
+            if (subscription.result == null) {
+                subscription.result = new TestResult(name);
+            }
+            if (subscription.failed) {
+                subscription.result.isValid = false;
+            }
+            subscription.result.checkTime = TimeUnit.NANOSECONDS.toMillis(subscription.elapsedNanos);
+            try {
+                subscription.subscriber.writeResult(subscription.result);
+            } catch (Throwable t) {
+                log.error("Write result of {} failed", name, t);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import io.openchaos.checker.result.TestResult;
+import java.io.IOException;
+
+/**
+ * Receives the records of a history file from {@link HistoryScanner}.
+ */
+public interface HistorySubscriber {
+
+    /**
+     * Consume one record. Records are delivered in history file order
+     *
+     * @param record parsed record, shared by all subscribers and must not be modified
+     */
+    void onRecord(HistoryRecord record) throws Exception;
+
+    /**
+     * Called when the scan failed for this subscriber, no more records will be delivered
+     *
+     * @param e cause of the failure
+     */
+    void onError(Exception e);
+
+    /**
+     * Called once after the whole history file has been delivered or the subscriber failed
+     *
+     * @return test result
+     */
+    TestResult onComplete();
+
+    /**
+     * Write the result of {@link #onComplete()} to the result file of the subscriber, called once its check time is
+     * known. The result is invalid and may be a plain {@link TestResult} when the subscriber failed
+     *
+     * @param result test result, never null
+     */
+    default void writeResult(TestResult result) throws IOException {
+    }
+}
@@ -18,15 +18,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.openchaos.checker.result.KVTestResult;
 import io.openchaos.checker.result.TestResult;
-import java.util.Arrays;
-import java.util.List;
+import io.openchaos.common.InvokeResult;
+import io.openchaos.generator.SequenceGenerator;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,21 +34,51 @@ public class KVChecker implements Checker {
     private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory())
         .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     private static final Logger log = LoggerFactory.getLogger(KVChecker.class);
+    private static final String PUT = "put";
+    private static final String GET = "get";
+    private static final String DELETED = "deleted";
+    private static final String MAYBE_DELETED = "maybeDeleted";
     private String outputDir;
     private String fileName;
     private String originFilePath;
     private String filePath;
+    private boolean failed;
+    private long putInvokeCount;
+    private Set<String> putSuccessSet = new HashSet<>();
+    private Set<String> getSuccessSet = new HashSet<>();
+    /**
+     * Values deleted successfully, and values of which the delete result is unknown
+     */
+    private Set<String> deletedSet = new HashSet<>();
+    private Set<String> maybeDeletedSet = new HashSet<>();
+    private long readInvokeCount;
+    private long readSuccessCount;
+    private Set<String> readMissingValues = new HashSet<>();
+    private long deleteInvokeCount;
+    private long deleteSuccessCount;
+    /**
+     * Successful put, got and deleted values partitioned by value on disk, when checking one partition at a time
+     */
+    private SpillPartitions spillPartitions;
+    private final boolean spill;
 
     static {
         MAPPER.enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE);
     }
 
     public KVChecker(String outputDir, String fileName) {
+        this(outputDir, fileName, false);
+    }
+
+    /**
+     * @param spill partition the values into temp files, so only the values of one partition are held in memory at a
+     *              time. Missing and lost values are reported in full and still kept in memory
+     */
+    public KVChecker(String outputDir, String fileName, boolean spill) {
         this.outputDir = outputDir;
         this.fileName = fileName;
-    }
+        this.spill = spill;
 
-    @Override public TestResult check() {
         if (outputDir != null && !outputDir.isEmpty()) {
             originFilePath = outputDir + File.separator + fileName;
             filePath = outputDir + File.separator + fileName.replace("history", "kv-result");
@@ -57,45 +86,153 @@ public class KVChecker implements Checker {
             originFilePath = fileName;
             filePath = fileName.replace("history", "kv-result");
         }
+    }
 
+    @Override public TestResult check() {
         if (!new File(originFilePath).exists()) {
             System.err.println("File not exist.");
             System.exit(0);
         }
 
+        return new HistoryScanner(originFilePath).subscribe(this).scan().get(0);
+    }
+
+    @Override public void onRecord(HistoryRecord record) throws IOException {
+        if (record.isFault()) {
+            return;
+        }
+        if (record.operation.equals("put")) {
+            if (record.isRequest()) {
+                putInvokeCount++;
+            } else if (record.result == InvokeResult.SUCCESS) {
+                addValue(PUT, record.value, putSuccessSet);
+            }
+        } else if (record.operation.equals(SequenceGenerator.GET)) {
+            if (record.isRequest()) {
+                readInvokeCount++;
+            } else if (record.result == InvokeResult.SUCCESS) {
+                readSuccessCount++;
+                //Only values put successfully and not deleted are read, so every read should find the value
+                if (record.extraInfo != null && !HistoryRecord.NULL_VALUE.equals(record.extraInfo)) {
+                    readMissingValues.add(record.value);
+                }
+            }
+        } else if (record.operation.equals(SequenceGenerator.DELETE)) {
+            if (record.isRequest()) {
+                deleteInvokeCount++;
+            } else if (record.result == InvokeResult.SUCCESS) {
+                deleteSuccessCount++;
+                addValue(DELETED, record.value, deletedSet);
+            } else if (record.result == InvokeResult.UNKNOWN) {
+                addValue(MAYBE_DELETED, record.value, maybeDeletedSet);
+            }
+        } else if (record.operation.equals("getAll") && record.result == InvokeResult.SUCCESS) {
+            String line = record.value;
+            for (String value : line.substring(1, line.length() - 1).split(",")) {
+                addValue(GET, value.trim(), getSuccessSet);
+            }
+        }
+    }
+
+    private void addValue(String kind, String value, Set<String> values) throws IOException {
+        if (spill) {
+            if (spillPartitions == null) {
+                spillPartitions = new SpillPartitions("kv-checker", SpillPartitions.DEFAULT_PARTITION_COUNT);
+            }
+            spillPartitions.write(value, kind, value);
+        } else {
+            values.add(value);
+        }
+    }
+
+    @Override public void onError(Exception e) {
+        log.error("KVChecker check fail", e);
+        failed = true;
+    }
+
+    @Override public TestResult onComplete() {
         KVTestResult result = null;
 
         try {
-            result = checkInner();
-            MAPPER.writeValue(new File(filePath), result);
+            if (failed) {
+                return null;
+            }
+            result = generateResult();
         } catch (Exception e) {
             log.error("KVChecker check fail", e);
+        } finally {
+            closeSpill();
         }
 
         return result;
 
     }
 
-    private KVTestResult checkInner() throws IOException {
+    @Override public void writeResult(TestResult result) throws IOException {
+        MAPPER.writeValue(new File(filePath), result);
+    }
+
+    private KVTestResult generateResult() throws IOException {
         KVTestResult result = new KVTestResult();
-        result.putInvokeCount = Files.lines(Paths.get(originFilePath)).map(x -> x.split("\t")).
-            filter(x -> !x[0].equals("fault")).filter(x -> x[1].equals("put") && x[2].equals("REQUEST")).count();
-        Set<String> putSuccessSet = Files.lines(Paths.get(originFilePath)).map(x -> x.split("\t")).
-            filter(x -> !x[0].equals("fault")).filter(x -> x[1].equals("put") && x[3].equals("SUCCESS")).map(x -> x[4]).collect(Collectors.toSet());
-        Set<String> getSuccessSet = new HashSet<>();
-        List<String> getValueLines = Files.lines(Paths.get(originFilePath)).map(x -> x.split("\t")).
-            filter(x -> !x[0].equals("fault")).filter(x -> x[1].equals("getAll") && x[3].equals("SUCCESS")).map(x -> x[4]).collect(Collectors.toList());
-        for (String line : getValueLines) {
-            getSuccessSet.addAll(Arrays.stream(line.substring(1, line.length() - 1).split(",")).map(String::trim).collect(Collectors.toSet()));
+        result.putInvokeCount = putInvokeCount;
+        result.readInvokeCount = readInvokeCount;
+        result.readSuccessCount = readSuccessCount;
+        result.readMissingCount = readMissingValues.size();
+        result.readMissingValues = readMissingValues;
+        result.deleteInvokeCount = deleteInvokeCount;
+        result.deleteSuccessCount = deleteSuccessCount;
+        result.lostValues = new HashSet<>();
+        result.undeletedValues = new HashSet<>();
+        if (spillPartitions != null) {
+            //A value is always in the same partition, so every partition is checked on its own
+            for (int i = 0; i < spillPartitions.partitionCount(); i++) {
+                Map<String, Set<String>> values = new HashMap<>();
+                try (SpillPartitions.PartitionReader reader = spillPartitions.read(i)) {
+                    String[] fields;
+                    while ((fields = reader.next()) != null) {
+                        values.computeIfAbsent(fields[0], kind -> new HashSet<>()).add(fields[1]);
+                    }
+                }
+                accumulate(values.getOrDefault(PUT, new HashSet<>()), values.getOrDefault(GET, new HashSet<>()),
+                    values.getOrDefault(DELETED, new HashSet<>()), values.getOrDefault(MAYBE_DELETED, new HashSet<>()), result);
+            }
+        } else {
+            accumulate(putSuccessSet, getSuccessSet, deletedSet, maybeDeletedSet, result);
         }
-
-        result.putSuccessCount = putSuccessSet.size();
-        result.getSuccessCount = getSuccessSet.size();
-        putSuccessSet.removeAll(getSuccessSet);
-        result.lostValues = putSuccessSet;
-        result.lostValueCount = putSuccessSet.size();
+        result.lostValueCount = result.lostValues.size();
+        result.undeletedValueCount = result.undeletedValues.size();
         result.isValid = true;
         return result;
     }
 
+    /**
+     * A value put successfully is lost if it is not got and not deleted, a value deleted successfully is undeleted if
+     * it is still got
+     */
+    private void accumulate(Set<String> putValues, Set<String> getValues, Set<String> deletedValues,
+        Set<String> maybeDeletedValues, KVTestResult result) {
+        result.putSuccessCount += putValues.size();
+        result.getSuccessCount += getValues.size();
+        for (String value : deletedValues) {
+            if (getValues.contains(value)) {
+                result.undeletedValues.add(value);
+            }
+        }
+        putValues.removeAll(getValues);
+        putValues.removeAll(deletedValues);
+        putValues.removeAll(maybeDeletedValues);
+        result.lostValues.addAll(putValues);
+    }
+
+    private void closeSpill() {
+        if (spillPartitions != null) {
+            try {
+                spillPartitions.close();
+            } catch (IOException e) {
+                log.warn("Failed to delete spill files", e);
+            }
+            spillPartitions = null;
+        }
+    }
+
 }
@@ -0,0 +1,219 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.openchaos.checker.result.LatencyPercentiles;
+import io.openchaos.checker.result.LatencyTestResult;
+import io.openchaos.checker.result.TestResult;
+import io.openchaos.common.InvokeResult;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Summarize send latency and end-to-end latency of responses with HDR histograms, per operation, per result and per
+ * fault or normal window. Percentiles are written to the result file, and every histogram is written to a log in
+ * HdrHistogram log format so runs can be compared with HdrHistogram tools.
+ */
+public class LatencyChecker implements Checker {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyChecker.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory())
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    static {
+        MAPPER.enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE);
+    }
+
+    private static final String SEND = "send";
+    private static final String END_TO_END = "endToEnd";
+    private static final String ALL = "all";
+    private static final String FAULT = "fault";
+    private static final String NORMAL = "normal";
+    /**
+     * Latencies are tracked from 1 ms to 1 hour with 3 significant digits, longer ones are counted as 1 hour
+     */
+    private static final long HIGHEST_TRACKABLE_LATENCY = 3_600_000;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Histograms by tag latency.operation.result.window, sorted for a stable output
+     */
+    private final Map<String, Histogram> histograms = new TreeMap<>();
+    private boolean isInFault;
+    private long startTimestamp = Long.MAX_VALUE;
+    private long endTimestamp;
+    private boolean failed;
+
+    private String outputDir;
+    private String fileName;
+    private String originFilePath;
+    private String filePath;
+    private String histogramLogPath;
+
+    public LatencyChecker(String outputDir, String fileName) {
+        this.outputDir = outputDir;
+        this.fileName = fileName;
+
+        if (outputDir != null && !outputDir.isEmpty()) {
+            originFilePath = outputDir + File.separator + fileName;
+            filePath = outputDir + File.separator + fileName.replace("history", "latency-result");
+            histogramLogPath = outputDir + File.separator + fileName.replace("history-file", "latency-histogram.hlog");
+        } else {
+            originFilePath = fileName;
+            filePath = fileName.replace("history", "latency-result");
+            histogramLogPath = fileName.replace("history-file", "latency-histogram.hlog");
+        }
+    }
+
+    @Override
+    public TestResult check() {
+
+        if (!new File(originFilePath).exists()) {
+            System.err.println("File not exist.");
+            System.exit(0);
+        }
+
+        return new HistoryScanner(originFilePath).subscribe(this).scan().get(0);
+    }
+
+    @Override
+    public void onRecord(HistoryRecord record) {
+        if (record.isFault()) {
+            if (record.isFaultStart()) {
+                isInFault = true;
+            } else if (record.isFaultEnd()) {
+                isInFault = false;
+            }
+            return;
+        }
+        if (!record.isResponse()) {
+            return;
+        }
+        startTimestamp = Math.min(startTimestamp, record.timestamp);
+        endTimestamp = Math.max(endTimestamp, record.timestamp);
+        String window = isInFault ? FAULT : NORMAL;
+        if (record.sendLatency >= 0) {
+            recordLatency(histogram(SEND, record.operation, record.result.name(), window), record.sendLatency);
+        }
+        //Failed and empty dequeues carry no end-to-end latency, their field is left at 0
+        if (record.result == InvokeResult.SUCCESS && record.endToEndLatency >= 0 && record.operation.equals("dequeue")) {
+            recordLatency(histogram(END_TO_END, record.operation, record.result.name(), window), record.endToEndLatency);
+        }
+    }
+
+    private Histogram histogram(String latency, String operation, String result, String window) {
+        return histograms.computeIfAbsent(latency + '.' + operation + '.' + result + '.' + window, tag -> newHistogram());
+    }
+
+    static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_LATENCY, SIGNIFICANT_DIGITS);
+    }
+
+    static void recordLatency(Histogram histogram, long latency) {
+        histogram.recordValue(Math.min(latency, HIGHEST_TRACKABLE_LATENCY));
+    }
+
+    @Override
+    public void onError(Exception e) {
+        log.error("", e);
+        failed = true;
+    }
+
+    @Override
+    public TestResult onComplete() {
+        LatencyTestResult latencyTestResult = new LatencyTestResult();
+        if (failed) {
+            latencyTestResult.isValid = false;
+            return latencyTestResult;
+        }
+        try {
+            addTotals();
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                latencyTestResult.latencies.add(percentiles(entry.getKey(), entry.getValue()));
+            }
+            writeHistogramLog();
+            latencyTestResult.histogramLogFile = histogramLogPath;
+            latencyTestResult.isValid = true;
+        } catch (Exception e) {
+            log.error("", e);
+            latencyTestResult.isValid = false;
+        }
+        return latencyTestResult;
+    }
+
+    @Override
+    public void writeResult(TestResult result) throws IOException {
+        MAPPER.writeValue(new File(filePath), result);
+    }
+
+    /**
+     * Add the histograms of all results and all windows of every latency and operation
+     */
+    private void addTotals() {
+        Map<String, Histogram> totals = new TreeMap<>();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            String[] tag = entry.getKey().split("\\.");
+            String latencyAndOperation = tag[0] + '.' + tag[1];
+            totals.computeIfAbsent(latencyAndOperation + '.' + tag[2] + '.' + ALL, t -> newHistogram()).add(entry.getValue());
+            totals.computeIfAbsent(latencyAndOperation + '.' + ALL + '.' + tag[3], t -> newHistogram()).add(entry.getValue());
+            totals.computeIfAbsent(latencyAndOperation + '.' + ALL + '.' + ALL, t -> newHistogram()).add(entry.getValue());
+        }
+        histograms.putAll(totals);
+    }
+
+    private LatencyPercentiles percentiles(String tag, Histogram histogram) {
+        String[] items = tag.split("\\.");
+        LatencyPercentiles percentiles = new LatencyPercentiles();
+        percentiles.latency = items[0];
+        percentiles.operation = items[1];
+        percentiles.result = items[2];
+        percentiles.window = items[3];
+        percentiles.count = histogram.getTotalCount();
+        percentiles.p50 = histogram.getValueAtPercentile(50);
+        percentiles.p90 = histogram.getValueAtPercentile(90);
+        percentiles.p99 = histogram.getValueAtPercentile(99);
+        percentiles.p999 = histogram.getValueAtPercentile(99.9);
+        percentiles.max = histogram.getMaxValue();
+        return percentiles;
+    }
+
+    /**
+     * One tagged interval per histogram covering the whole run, values are in milliseconds
+     */
+    private void writeHistogramLog() throws IOException {
+        long start = startTimestamp == Long.MAX_VALUE ? 0 : startTimestamp;
+        try (PrintStream out = new PrintStream(histogramLogPath, "UTF-8")) {
+            HistogramLogWriter writer = new HistogramLogWriter(out);
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(start);
+            writer.outputComment("Values are latencies in milliseconds, tagged by latency.operation.result.window");
+            writer.outputLegend();
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                entry.getValue().setTag(entry.getKey());
+                writer.outputIntervalHistogram(0, (endTimestamp - start) / 1000.0, entry.getValue(), 1.0);
+            }
+        }
+    }
+}
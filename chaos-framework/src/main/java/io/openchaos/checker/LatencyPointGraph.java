@@ -0,0 +1,253 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * Render latency points into a fixed size raster. Points are aggregated per pixel while they are added, so memory and
+ * rendering time depend on the image size instead of the number of points. A pixel is drawn with the color of its
+ * series and gets more opaque the more points fall into it, and the minimum and maximum latency of every column are
+ * always drawn so rare outliers stay visible.
+ */
+class LatencyPointGraph {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final int LEFT = 80;
+    private static final int RIGHT = 30;
+    private static final int TOP = 50;
+    private static final int BOTTOM = 110;
+    private static final int PLOT_WIDTH = WIDTH - LEFT - RIGHT;
+    private static final int PLOT_HEIGHT = HEIGHT - TOP - BOTTOM;
+
+    private static final double MIN_LATENCY = 0.1;
+    private static final double MAX_LATENCY = 10 * 1000;
+    private static final Color FAULT_COLOR = new Color(190, 190, 190);
+
+    private final String title;
+    private final long maxSeconds;
+    private final List<Series> seriesList = new ArrayList<>();
+    private final List<long[]> faultIntervals = new ArrayList<>();
+
+    /**
+     * @param maxSeconds the upper bound of x axis in seconds
+     */
+    LatencyPointGraph(String title, long maxSeconds) {
+        this.title = title;
+        this.maxSeconds = Math.max(maxSeconds, 1);
+    }
+
+    /**
+     * Series are drawn in the order they are added
+     *
+     * @return the id of series to add points
+     */
+    int addSeries(String name, Color color) {
+        seriesList.add(new Series(name, color));
+        return seriesList.size() - 1;
+    }
+
+    void addPoint(int seriesId, double seconds, long latency) {
+        Series series = seriesList.get(seriesId);
+        int x = (int) Math.min(PLOT_WIDTH - 1, Math.max(0, seconds * PLOT_WIDTH / maxSeconds));
+        int y = latencyToY(latency);
+        series.counts[y * PLOT_WIDTH + x]++;
+        series.size++;
+        if (series.columnMin[x] < 0 || y < series.columnMin[x]) {
+            series.columnMin[x] = y;
+        }
+        series.columnMax[x] = Math.max(series.columnMax[x], y);
+    }
+
+    void addFaultInterval(double startSeconds, double endSeconds) {
+        faultIntervals.add(new long[] {Math.round(startSeconds * PLOT_WIDTH / maxSeconds), Math.round(endSeconds * PLOT_WIDTH / maxSeconds)});
+    }
+
+    /**
+     * Y pixel of the plot area from top, latency is in log scale and clamped to the boundaries of y axis
+     */
+    private static int latencyToY(double latency) {
+        double value = Math.min(MAX_LATENCY, Math.max(MIN_LATENCY, latency));
+        double ratio = (Math.log10(value) - Math.log10(MIN_LATENCY)) / (Math.log10(MAX_LATENCY) - Math.log10(MIN_LATENCY));
+        return (int) Math.min(PLOT_HEIGHT - 1, Math.max(0, Math.round((1 - ratio) * (PLOT_HEIGHT - 1))));
+    }
+
+    void write(File file) throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, WIDTH, HEIGHT);
+
+            graphics.setColor(FAULT_COLOR);
+            for (long[] interval : faultIntervals) {
+                int x1 = (int) Math.max(0, Math.min(PLOT_WIDTH, interval[0]));
+                int x2 = (int) Math.max(0, Math.min(PLOT_WIDTH, interval[1]));
+                graphics.fillRect(LEFT + x1, TOP, Math.max(1, x2 - x1), PLOT_HEIGHT);
+            }
+
+            for (Series series : seriesList) {
+                drawSeries(image, series);
+            }
+
+            drawAxes(graphics);
+            drawLegend(graphics);
+        } finally {
+            graphics.dispose();
+        }
+        ImageIO.write(image, "png", file);
+    }
+
+    private void drawSeries(BufferedImage image, Series series) {
+        int maxCount = 0;
+        for (int count : series.counts) {
+            maxCount = Math.max(maxCount, count);
+        }
+        if (maxCount == 0) {
+            return;
+        }
+        double logMax = Math.log(maxCount + 1);
+        for (int y = 0; y < PLOT_HEIGHT; y++) {
+            for (int x = 0; x < PLOT_WIDTH; x++) {
+                int count = series.counts[y * PLOT_WIDTH + x];
+                if (count == 0) {
+                    continue;
+                }
+                //At least 40% opaque, so a single point is still visible
+                double alpha = 0.4 + 0.6 * Math.log(count + 1) / logMax;
+                blend(image, LEFT + x, TOP + y, series.color, alpha);
+            }
+        }
+        for (int x = 0; x < PLOT_WIDTH; x++) {
+            if (series.columnMin[x] >= 0) {
+                blend(image, LEFT + x, TOP + series.columnMin[x], series.color, 1);
+                blend(image, LEFT + x, TOP + series.columnMax[x], series.color, 1);
+            }
+        }
+    }
+
+    private static void blend(BufferedImage image, int x, int y, Color color, double alpha) {
+        int rgb = image.getRGB(x, y);
+        int r = (int) (color.getRed() * alpha + ((rgb >> 16) & 0xff) * (1 - alpha));
+        int g = (int) (color.getGreen() * alpha + ((rgb >> 8) & 0xff) * (1 - alpha));
+        int b = (int) (color.getBlue() * alpha + (rgb & 0xff) * (1 - alpha));
+        image.setRGB(x, y, (r << 16) | (g << 8) | b);
+    }
+
+    private void drawAxes(Graphics2D graphics) {
+        graphics.setColor(Color.BLACK);
+        graphics.setStroke(new BasicStroke(1));
+        graphics.drawRect(LEFT, TOP, PLOT_WIDTH, PLOT_HEIGHT);
+
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 16));
+        FontMetrics titleMetrics = graphics.getFontMetrics();
+        graphics.drawString(title, (WIDTH - titleMetrics.stringWidth(title)) / 2, TOP - 18);
+
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        FontMetrics metrics = graphics.getFontMetrics();
+
+        long step = xTickStep();
+        for (long second = 0; second <= maxSeconds; second += step) {
+            int x = LEFT + (int) (second * PLOT_WIDTH / maxSeconds);
+            graphics.drawLine(x, TOP + PLOT_HEIGHT, x, TOP + PLOT_HEIGHT - 5);
+            String label = String.valueOf(second);
+            graphics.drawString(label, x - metrics.stringWidth(label) / 2, TOP + PLOT_HEIGHT + 16);
+        }
+        String xLabel = "time(s)";
+        graphics.drawString(xLabel, LEFT + (PLOT_WIDTH - metrics.stringWidth(xLabel)) / 2, TOP + PLOT_HEIGHT + 34);
+
+        for (double latency = MIN_LATENCY; latency <= MAX_LATENCY * 1.001; latency *= 10) {
+            int y = TOP + latencyToY(latency);
+            graphics.drawLine(LEFT, y, LEFT + 5, y);
+            String label = latency < 1 ? String.valueOf(latency) : String.valueOf(Math.round(latency));
+            graphics.drawString(label, LEFT - 8 - metrics.stringWidth(label), y + metrics.getAscent() / 2);
+        }
+        Graphics2D rotated = (Graphics2D) graphics.create();
+        try {
+            String yLabel = "latency(ms)";
+            rotated.rotate(-Math.PI / 2);
+            rotated.drawString(yLabel, -(TOP + (PLOT_HEIGHT + metrics.stringWidth(yLabel)) / 2), 20);
+        } finally {
+            rotated.dispose();
+        }
+    }
+
+    /**
+     * About ten ticks on x axis at 1, 2 or 5 times a power of ten
+     */
+    private long xTickStep() {
+        long step = 1;
+        while (true) {
+            for (long factor : new long[] {1, 2, 5}) {
+                if (maxSeconds / (step * factor) <= 10) {
+                    return step * factor;
+                }
+            }
+            step *= 10;
+        }
+    }
+
+    private void drawLegend(Graphics2D graphics) {
+        FontMetrics metrics = graphics.getFontMetrics();
+        int x = LEFT;
+        int y = HEIGHT - 40;
+        if (!faultIntervals.isEmpty()) {
+            x = drawLegendItem(graphics, metrics, x, y, FAULT_COLOR, "fault interval");
+        }
+        for (Series series : seriesList) {
+            if (series.size != 0) {
+                x = drawLegendItem(graphics, metrics, x, y, series.color, series.name);
+            }
+        }
+    }
+
+    private int drawLegendItem(Graphics2D graphics, FontMetrics metrics, int x, int y, Color color, String name) {
+        graphics.setColor(color);
+        graphics.fillRect(x, y - 10, 20, 10);
+        graphics.setColor(Color.BLACK);
+        graphics.drawString(name, x + 26, y);
+        return x + 26 + metrics.stringWidth(name) + 30;
+    }
+
+    private static class Series {
+        final String name;
+        final Color color;
+        final int[] counts = new int[PLOT_WIDTH * PLOT_HEIGHT];
+        final int[] columnMin = new int[PLOT_WIDTH];
+        final int[] columnMax = new int[PLOT_WIDTH];
+        long size;
+
+        Series(String name, Color color) {
+            this.name = name;
+            this.color = color;
+            Arrays.fill(columnMin, -1);
+            Arrays.fill(columnMax, -1);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import io.openchaos.checker.result.LiveQueueResult;
+import io.openchaos.checker.result.QueueTestResult;
+import io.openchaos.checker.result.TestResult;
+import io.openchaos.recorder.HistoryListener;
+import io.openchaos.recorder.LogEntry;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the queue while the history is being recorded. It listens to the recorder, keeps the running state of
+ * {@link QueueChecker} which can be read at any time with {@link #snapshot()}, and completes with the final
+ * {@link QueueTestResult} without reading the history file again.
+ * <p>
+ * Entries are handed from the recorder to a checker thread through a bounded queue, so recording never waits for the
+ * check or its spill files. When the checker falls a whole queue behind, the live check is given up as failed.
+ * <p>
+ * Subscribed to a {@link HistoryScanner}, it ignores the records of the file since it has seen all of them already.
+ * If the live check failed, it checks the records of the file with a new {@link QueueChecker} instead, and the
+ * failure is reported in {@link QueueTestResult#liveCheckFailure}.
+ */
+public class LiveQueueChecker implements Checker, HistoryListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveQueueChecker.class);
+
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final String outputDir;
+    private final String fileName;
+    private final boolean offHeap;
+    private final QueueChecker queueChecker;
+    private QueueChecker replayChecker;
+    private final BlockingQueue<LogEntry> entries = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread checkerThread;
+    /**
+     * No more entries are taken
+     */
+    private volatile boolean stopped = false;
+    /**
+     * All entries taken have been checked, the live check can not fail any more
+     */
+    private volatile boolean checked = false;
+
+    public LiveQueueChecker(String outputDir, String fileName) {
+        this(outputDir, fileName, false);
+    }
+
+    public LiveQueueChecker(String outputDir, String fileName, boolean offHeap) {
+        this.outputDir = outputDir;
+        this.fileName = fileName;
+        this.offHeap = offHeap;
+        this.queueChecker = new QueueChecker(outputDir, fileName, offHeap);
+        this.checkerThread = new Thread(this::drain, "live-queue-checker");
+        checkerThread.setDaemon(true);
+        checkerThread.start();
+    }
+
+    @Override
+    public void onEntry(LogEntry logEntry) {
+        if (stopped) {
+            return;
+        }
+        if (!entries.offer(logEntry)) {
+            onFailure(new IllegalStateException("Live queue check is " + QUEUE_CAPACITY + " entries behind the recorder"));
+        }
+    }
+
+    @Override
+    public synchronized void onFailure(Throwable cause) {
+        if (checked || replayChecker != null) {
+            return;
+        }
+        queueChecker.onError(cause instanceof Exception ? (Exception) cause : new ExecutionException(cause));
+        replayChecker = new QueueChecker(outputDir, fileName, offHeap);
+        replayChecker.liveCheckFailure = cause.toString();
+    }
+
+    /**
+     * Running state of the live check, it stops changing once the live check failed
+     */
+    public synchronized LiveQueueResult snapshot() {
+        return queueChecker.snapshot();
+    }
+
+    @Override
+    public QueueTestResult check() {
+        QueueTestResult result = onComplete();
+        if (result != null) {
+            try {
+                writeResult(result);
+            } catch (IOException e) {
+                log.error("Failed to write queue result", e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void onRecord(HistoryRecord record) throws Exception {
+        awaitChecked();
+        synchronized (this) {
+            if (replayChecker != null) {
+                replayChecker.onRecord(record);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Exception e) {
+        awaitChecked();
+        synchronized (this) {
+            //The history file is only needed when the live check failed
+            if (replayChecker != null) {
+                replayChecker.onError(e);
+            }
+        }
+    }
+
+    @Override
+    public QueueTestResult onComplete() {
+        awaitChecked();
+        return complete();
+    }
+
+    /**
+     * Stop taking entries without waiting for the checker thread, when the test is abandoned
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Stop taking entries and wait until the checker thread has checked the entries taken, so it is known whether the
+     * history file has to be checked before its first record is delivered
+     */
+    private void awaitChecked() {
+        if (checked) {
+            return;
+        }
+        stopped = true;
+        try {
+            checkerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onFailure(e);
+        }
+        checked = true;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                LogEntry logEntry = entries.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (logEntry != null) {
+                    checkEntry(logEntry);
+                } else if (stopped) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void checkEntry(LogEntry logEntry) {
+        if (replayChecker != null) {
+            return;
+        }
+        try {
+            queueChecker.onRecord(HistoryRecord.of(logEntry));
+        } catch (Throwable t) {
+            log.error("Live queue check failed", t);
+            onFailure(t);
+        }
+    }
+
+    private synchronized QueueTestResult complete() {
+        if (replayChecker == null) {
+            return queueChecker.onComplete();
+        }
+        //Release the failed live check before checking the history file
+        queueChecker.onComplete();
+        return replayChecker.onComplete();
+    }
+
+    @Override
+    public void writeResult(TestResult result) throws IOException {
+        //The replay checker writes to the same result file
+        queueChecker.writeResult(result);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long to long with linear probing, without boxing or an object per entry. Keys and
+ * values are interleaved in chunked long arrays, either on heap or in direct (off-heap) buffers, so the map can hold
+ * more than 2^31 entries and does not burden the garbage collector when off heap.
+ * <p>
+ * {@link Long#MIN_VALUE} marks a free slot and can not be used as a key. Not thread safe.
+ */
+public class LongLongHashMap {
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.7f;
+    private static final int CHUNK_SHIFT = 27;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final boolean offHeap;
+    private Storage storage;
+    private long capacity;
+    private long mask;
+    private long size;
+    private long resizeThreshold;
+
+    public LongLongHashMap(long expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        long initialCapacity = Long.highestOneBit(Math.max(16, (long) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(initialCapacity);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public long get(long key, long defaultValue) {
+        long slot = find(key);
+        return slot >= 0 ? storage.get(2 * slot + 1) : defaultValue;
+    }
+
+    public void put(long key, long value) {
+        checkKey(key);
+        long slot = hash(key) & mask;
+        while (true) {
+            long current = storage.get(2 * slot);
+            if (current == FREE) {
+                storage.set(2 * slot, key);
+                storage.set(2 * slot + 1, value);
+                if (++size > resizeThreshold) {
+                    resize();
+                }
+                return;
+            }
+            if (current == key) {
+                storage.set(2 * slot + 1, value);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Add delta to the value of key, an absent key starts from 0
+     *
+     * @return the new value
+     */
+    public long addTo(long key, long delta) {
+        long slot = find(key);
+        if (slot >= 0) {
+            long value = storage.get(2 * slot + 1) + delta;
+            storage.set(2 * slot + 1, value);
+            return value;
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    public boolean remove(long key) {
+        long slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        //Backward shift deletion, so no tombstone is left on the probe sequence
+        long hole = slot;
+        long next = (hole + 1) & mask;
+        while (true) {
+            long nextKey = storage.get(2 * next);
+            if (nextKey == FREE) {
+                break;
+            }
+            long home = hash(nextKey) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                storage.set(2 * hole, nextKey);
+                storage.set(2 * hole + 1, storage.get(2 * next + 1));
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        storage.set(2 * hole, FREE);
+        size--;
+        return true;
+    }
+
+    public void forEach(LongLongConsumer consumer) {
+        for (long slot = 0; slot < capacity; slot++) {
+            long key = storage.get(2 * slot);
+            if (key != FREE) {
+                consumer.accept(key, storage.get(2 * slot + 1));
+            }
+        }
+    }
+
+    private long find(long key) {
+        checkKey(key);
+        long slot = hash(key) & mask;
+        while (true) {
+            long current = storage.get(2 * slot);
+            if (current == key) {
+                return slot;
+            }
+            if (current == FREE) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        Storage old = storage;
+        long oldCapacity = capacity;
+        allocate(capacity << 1);
+        size = 0;
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            long key = old.get(2 * slot);
+            if (key != FREE) {
+                put(key, old.get(2 * slot + 1));
+            }
+        }
+    }
+
+    private void allocate(long newCapacity) {
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        resizeThreshold = (long) (newCapacity * LOAD_FACTOR);
+        storage = offHeap ? new DirectStorage(2 * newCapacity) : new HeapStorage(2 * newCapacity);
+        storage.fill(FREE);
+    }
+
+    private static void checkKey(long key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Long.MIN_VALUE can not be a key");
+        }
+    }
+
+    private static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    private interface Storage {
+        long get(long index);
+
+        void set(long index, long value);
+
+        void fill(long value);
+    }
+
+    private static class HeapStorage implements Storage {
+        private final long[][] chunks;
+
+        HeapStorage(long length) {
+            chunks = new long[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)][];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = new long[(int) Math.min(CHUNK_SIZE, length - ((long) i << CHUNK_SHIFT))];
+            }
+        }
+
+        @Override
+        public long get(long index) {
+            return chunks[(int) (index >>> CHUNK_SHIFT)][(int) (index & CHUNK_MASK)];
+        }
+
+        @Override
+        public void set(long index, long value) {
+            chunks[(int) (index >>> CHUNK_SHIFT)][(int) (index & CHUNK_MASK)] = value;
+        }
+
+        @Override
+        public void fill(long value) {
+            for (long[] chunk : chunks) {
+                Arrays.fill(chunk, value);
+            }
+        }
+    }
+
+    private static class DirectStorage implements Storage {
+        private final LongBuffer[] chunks;
+
+        DirectStorage(long length) {
+            chunks = new LongBuffer[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                int chunkLength = (int) Math.min(CHUNK_SIZE, length - ((long) i << CHUNK_SHIFT));
+                chunks[i] = ByteBuffer.allocateDirect(chunkLength * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+        }
+
+        @Override
+        public long get(long index) {
+            return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+        }
+
+        @Override
+        public void set(long index, long value) {
+            chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+        }
+
+        @Override
+        public void fill(long value) {
+            for (LongBuffer chunk : chunks) {
+                for (int i = 0; i < chunk.capacity(); i++) {
+                    chunk.put(i, value);
+                }
+            }
+        }
+    }
+}
@@ -19,22 +19,52 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.openchaos.checker.result.OrderTestResult;
 import io.openchaos.checker.result.TestResult;
+import io.openchaos.common.InvokeResult;
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class OrderChecker implements Checker {
 
     private static final Logger log = LoggerFactory.getLogger(OrderTestResult.class);
+    private static final String ENQUEUE = "enqueue";
+    private static final String DEQUEUE = "dequeue";
     private String fileName;
     private List<String> shardingKeys;
     private String outputDir;
     private String originFilePath;
     private String filePath;
+    private final Set<String> shardingKeySet;
+    /**
+     * Topics in order of their first record, empty if records carry no topic. Order is kept per sharding key of every
+     * topic, so the checked groups are "topic/shardingKey" then
+     */
+    private final List<String> topics = new ArrayList<>();
+    private final Set<String> topicSet = new HashSet<>();
+    private List<String> groups;
+    /**
+     * Successful enqueue and dequeue values of every group in history order, when checking in memory
+     */
+    private final Map<String, List<String>> enqueueRecords = new HashMap<>();
+    private final Map<String, List<String>> dequeueRecords = new HashMap<>();
+    /**
+     * The same records partitioned by group on disk, when checking one partition at a time
+     */
+    private SpillPartitions spillPartitions;
+    private final boolean spill;
+    private boolean failed;
 
     private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory())
         .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -44,13 +74,19 @@ public class OrderChecker implements Checker {
     }
 
     public OrderChecker(String outputDir, String fileName, List<String> shardingKeys) {
+        this(outputDir, fileName, shardingKeys, false);
+    }
+
+    /**
+     * @param spill partition the records by sharding key into temp files, so only the records of one partition are
+     *              held in memory at a time
+     */
+    public OrderChecker(String outputDir, String fileName, List<String> shardingKeys, boolean spill) {
         this.outputDir = outputDir;
         this.fileName = fileName;
         this.shardingKeys = shardingKeys;
-    }
-
-    @Override
-    public TestResult check() {
+        this.shardingKeySet = new HashSet<>(shardingKeys);
+        this.spill = spill;
 
         if (outputDir != null && !outputDir.isEmpty()) {
             originFilePath = outputDir + File.separator + fileName;
@@ -59,48 +95,192 @@ public class OrderChecker implements Checker {
             originFilePath = fileName;
             filePath = fileName.replace("history", "order-result");
         }
+    }
+
+    @Override
+    public TestResult check() {
 
         if (!new File(originFilePath).exists()) {
             System.err.println("File not exist.");
             System.exit(0);
         }
 
+        return new HistoryScanner(originFilePath).subscribe(this).scan().get(0);
+    }
+
+    @Override
+    public void onRecord(HistoryRecord record) throws IOException {
+        if (!record.isResponse() || record.result != InvokeResult.SUCCESS || !shardingKeySet.contains(record.shardingKey)) {
+            return;
+        }
+        if (!record.operation.equals(ENQUEUE) && !record.operation.equals(DEQUEUE)) {
+            return;
+        }
+        String group = record.shardingKey;
+        if (record.topic != null) {
+            if (topicSet.add(record.topic)) {
+                topics.add(record.topic);
+            }
+            group = record.topic + "/" + record.shardingKey;
+        }
+        if (spill) {
+            if (spillPartitions == null) {
+                spillPartitions = new SpillPartitions("order-checker", SpillPartitions.DEFAULT_PARTITION_COUNT);
+            }
+            spillPartitions.write(group, record.operation, group, record.value);
+        } else {
+            Map<String, List<String>> records = record.operation.equals(ENQUEUE) ? enqueueRecords : dequeueRecords;
+            records.computeIfAbsent(group, k -> new ArrayList<>()).add(record.value);
+        }
+    }
+
+    @Override
+    public void onError(Exception e) {
+        log.error("", e);
+        failed = true;
+    }
+
+    @Override
+    public TestResult onComplete() {
         OrderTestResult orderTestResult = new OrderTestResult();
+        if (failed) {
+            closeSpill();
+            orderTestResult.isValid = false;
+            return orderTestResult;
+        }
         try {
             checkInner(orderTestResult);
-            MAPPER.writeValue(new File(filePath), orderTestResult);
         } catch (Exception e) {
             log.error("", e);
             orderTestResult.isValid = false;
+        } finally {
+            closeSpill();
         }
         return orderTestResult;
     }
 
+    @Override
+    public void writeResult(TestResult result) throws IOException {
+        MAPPER.writeValue(new File(filePath), result);
+    }
+
     public void checkInner(OrderTestResult orderTestResult) throws Exception {
 
-        List<String[]> allRecords = Files.lines(Paths.get(originFilePath)).map(x -> x.split("\t")).filter(x -> x[2].equals("RESPONSE") && x[3].equals("SUCCESS")).collect(Collectors.toList());
-        orderTestResult.setOrder(true);
-        for (String shardingKey : shardingKeys) {
-            List<String> enqueueRecords = allRecords.stream().filter(x -> x[1].equals("enqueue") && x[5].equals(shardingKey)).map(x -> x[4]).collect(Collectors.toList());
-            List<String> dequeueRecords = allRecords.stream().filter(x -> x[1].equals("dequeue") && x[5].equals(shardingKey)).map(x -> x[4]).collect(Collectors.toList());
-            int dequeueIndex = 0;
-            int enqueueIndex = 0;
-            while (enqueueIndex < enqueueRecords.size() && dequeueIndex < dequeueRecords.size()) {
-                if (enqueueRecords.get(enqueueIndex).equals(dequeueRecords.get(dequeueIndex))) {
-                    enqueueIndex++;
-                    dequeueIndex++;
-                } else {
-                    dequeueIndex++;
+        //Records are grouped by sharding key while scanning, so every key is verified on its own and in parallel
+        groups = shardingKeys;
+        if (!topics.isEmpty()) {
+            groups = new ArrayList<>();
+            for (String topic : topics) {
+                for (String shardingKey : shardingKeys) {
+                    groups.add(topic + "/" + shardingKey);
                 }
             }
-            if (enqueueIndex < enqueueRecords.size()) {
-                orderTestResult.setOrder(false);
-                orderTestResult.setWrongShardingKey(shardingKey);
-                orderTestResult.setWrongStartValue(enqueueRecords.get(enqueueIndex));
-                break;
+        }
+        String[] wrongStartValues = new String[groups.size()];
+        if (spillPartitions != null) {
+            checkSpilled(wrongStartValues);
+        } else {
+            ForkJoinPool.commonPool().invoke(new KeyOrderTask(wrongStartValues, 0, groups.size()));
+        }
+
+        Map<String, String> violations = new LinkedHashMap<>();
+        Map<String, Integer> topicViolations = topics.isEmpty() ? null : new LinkedHashMap<>();
+        for (int i = 0; i < wrongStartValues.length; i++) {
+            if (wrongStartValues[i] != null) {
+                violations.put(groups.get(i), wrongStartValues[i]);
+            }
+            if (topicViolations != null) {
+                topicViolations.merge(topics.get(i / shardingKeys.size()), wrongStartValues[i] == null ? 0 : 1, Integer::sum);
             }
         }
+        orderTestResult.setOrder(violations.isEmpty());
+        orderTestResult.setViolations(violations);
+        orderTestResult.setTopicViolations(topicViolations);
+        if (!violations.isEmpty()) {
+            Map.Entry<String, String> first = violations.entrySet().iterator().next();
+            orderTestResult.setWrongShardingKey(first.getKey());
+            orderTestResult.setWrongStartValue(first.getValue());
+        }
         orderTestResult.isValid = true;
     }
 
+    /**
+     * Read every partition once and verify the groups in it, a group is always in the same partition
+     */
+    private void checkSpilled(String[] wrongStartValues) throws IOException {
+        Map<String, Integer> groupIndexes = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            groupIndexes.put(groups.get(i), i);
+        }
+        for (int i = 0; i < spillPartitions.partitionCount(); i++) {
+            Map<String, List<String>> partitionEnqueueRecords = new HashMap<>();
+            Map<String, List<String>> partitionDequeueRecords = new HashMap<>();
+            try (SpillPartitions.PartitionReader reader = spillPartitions.read(i)) {
+                String[] fields;
+                while ((fields = reader.next()) != null) {
+                    Map<String, List<String>> records = fields[0].equals(ENQUEUE) ? partitionEnqueueRecords : partitionDequeueRecords;
+                    records.computeIfAbsent(fields[1], k -> new ArrayList<>()).add(fields[2]);
+                }
+            }
+            for (Map.Entry<String, List<String>> entry : partitionEnqueueRecords.entrySet()) {
+                wrongStartValues[groupIndexes.get(entry.getKey())] = firstOutOfOrder(entry.getValue(),
+                    partitionDequeueRecords.getOrDefault(entry.getKey(), Collections.emptyList()));
+            }
+        }
+    }
+
+    /**
+     * Every enqueued value must be dequeued in the same order, other dequeued values are skipped
+     *
+     * @return the first enqueued value which is not dequeued in order, or null if the key is in order
+     */
+    private static String firstOutOfOrder(List<String> enqueued, List<String> dequeued) {
+        Iterator<String> enqueueIterator = enqueued.iterator();
+        Iterator<String> dequeueIterator = dequeued.iterator();
+        String expected = enqueueIterator.hasNext() ? enqueueIterator.next() : null;
+        while (expected != null && dequeueIterator.hasNext()) {
+            if (expected.equals(dequeueIterator.next())) {
+                expected = enqueueIterator.hasNext() ? enqueueIterator.next() : null;
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Verify a range of groups, split in halves until one group is left
+     */
+    private class KeyOrderTask extends RecursiveAction {
+        private final String[] wrongStartValues;
+        private final int from;
+        private final int to;
+
+        KeyOrderTask(String[] wrongStartValues, int from, int to) {
+            this.wrongStartValues = wrongStartValues;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new KeyOrderTask(wrongStartValues, from, middle), new KeyOrderTask(wrongStartValues, middle, to));
+            } else if (to > from) {
+                String group = groups.get(from);
+                wrongStartValues[from] = firstOutOfOrder(enqueueRecords.getOrDefault(group, Collections.emptyList()),
+                    dequeueRecords.getOrDefault(group, Collections.emptyList()));
+            }
+        }
+    }
+
+    private void closeSpill() {
+        if (spillPartitions != null) {
+            try {
+                spillPartitions.close();
+            } catch (IOException e) {
+                log.warn("Failed to delete spill files", e);
+            }
+            spillPartitions = null;
+        }
+    }
 }
@@ -16,42 +16,52 @@ package io.openchaos.checker;
 
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
-import com.panayotis.gnuplot.JavaPlot;
-import com.panayotis.gnuplot.plot.DataSetPlot;
-import com.panayotis.gnuplot.style.NamedPlotColor;
-import com.panayotis.gnuplot.style.PlotStyle;
-import com.panayotis.gnuplot.style.Style;
-import com.panayotis.gnuplot.terminal.ImageTerminal;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openchaos.checker.result.PerfTestResult;
 import io.openchaos.checker.result.TestResult;
 import io.openchaos.OssConfig;
+import java.awt.Color;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import javax.imageio.ImageIO;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class PerfChecker implements Checker {
 
     private static final Logger log = LoggerFactory.getLogger(PerfChecker.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    public static final long DEFAULT_WINDOW_MS = 1000;
     private String outputDir;
     private String fileName;
     private long testStartTimestamp;
     private long testEndTimestamp;
     private String filePath;
     private String originFilePath;
+    private String timeSeriesFilePath;
+    private String summaryFilePath;
     private List<String> points;
     private boolean isUploadImage;
     private OssConfig ossConfig;
+    private final List<HistoryRecord> faultRecords = new ArrayList<>();
+    private final LatencyPointGraph graph;
+    /**
+     * Graph series of success, failure and unknown by operation
+     */
+    private final Map<String, int[]> seriesIds;
+    private final ThroughputTimeSeries timeSeries;
+    private boolean failed;
 
     public PerfChecker(List<String> points, String outputDir, String fileName, long testStartTimestamp,
         long testEndTimestamp, boolean isUploadImage, OssConfig ossConfig) {
+        this(points, outputDir, fileName, testStartTimestamp, testEndTimestamp, isUploadImage, ossConfig, DEFAULT_WINDOW_MS);
+    }
+
+    public PerfChecker(List<String> points, String outputDir, String fileName, long testStartTimestamp,
+        long testEndTimestamp, boolean isUploadImage, OssConfig ossConfig, long windowMs) {
         this.points = points;
         this.outputDir = outputDir;
         this.fileName = fileName;
@@ -59,30 +69,93 @@ public class PerfChecker implements Checker {
         this.testEndTimestamp = testEndTimestamp;
         this.isUploadImage = isUploadImage;
         this.ossConfig = ossConfig;
-    }
+        this.graph = new LatencyPointGraph("OpenChaos Latency Point Graph", (testEndTimestamp - testStartTimestamp) / 1000 + 20);
+        this.seriesIds = new HashMap<>();
+        for (String point : points) {
+            seriesIds.put(point, new int[] {
+                graph.addSeries(point + " success", Color.GREEN.darker()),
+                graph.addSeries(point + " failure", Color.RED),
+                graph.addSeries(point + " unknown", Color.BLUE)
+            });
+        }
+        this.timeSeries = new ThroughputTimeSeries(testStartTimestamp, windowMs);
 
-    @Override
-    public TestResult check() {
         if (outputDir != null && !outputDir.isEmpty()) {
             originFilePath = outputDir + File.separator + fileName;
             filePath = outputDir + File.separator + fileName.replace("history-file", "latency-point-graph.png");
+            timeSeriesFilePath = outputDir + File.separator + fileName.replace("history-file", "perf-timeseries.csv");
+            summaryFilePath = outputDir + File.separator + fileName.replace("history-file", "perf-summary.json");
         } else {
             originFilePath = fileName;
             filePath = fileName.replace("history-file", "latency-point-graph.png");
+            timeSeriesFilePath = fileName.replace("history-file", "perf-timeseries.csv");
+            summaryFilePath = fileName.replace("history-file", "perf-summary.json");
         }
+    }
 
+    @Override
+    public TestResult check() {
         if (!new File(originFilePath).exists()) {
             System.err.println("File not exist.");
             System.exit(0);
         }
 
+        return new HistoryScanner(originFilePath).subscribe(this).scan().get(0);
+    }
+
+    @Override
+    public void onRecord(HistoryRecord record) {
+        timeSeries.onRecord(record);
+        if (record.isFault()) {
+            faultRecords.add(record);
+            return;
+        }
+        if (!record.isResponse() || record.sendLatency < 0) {
+            return;
+        }
+        int[] ids = seriesIds.get(record.operation);
+        if (ids == null) {
+            return;
+        }
+        double seconds = (record.timestamp - testStartTimestamp) / 1000.0;
+        switch (record.result) {
+            case SUCCESS:
+                graph.addPoint(ids[0], seconds, record.sendLatency);
+                break;
+            case FAILURE:
+                graph.addPoint(ids[1], seconds, record.sendLatency);
+                break;
+            case UNKNOWN:
+                graph.addPoint(ids[2], seconds, record.sendLatency);
+                break;
+            default:
+                log.error("Error data in invoke");
+        }
+    }
+
+    @Override
+    public void onError(Exception e) {
+        log.error("", e);
+        failed = true;
+    }
+
+    @Override
+    public TestResult onComplete() {
         PerfTestResult testResult = new PerfTestResult();
-        testResult.isValid = true;
-        try {
-            generateLatencyPointGraph();
-        } catch (Exception e) {
-            log.error("", e);
-            testResult.isValid = false;
+        testResult.isValid = !failed;
+        if (testResult.isValid) {
+            try {
+                timeSeries.writeCsv(new File(timeSeriesFilePath));
+                testResult.timeSeriesFile = timeSeriesFilePath;
+                testResult.summaries = timeSeries.summarize(testEndTimestamp);
+                testResult.consumerLag = timeSeries.summarizeConsumerLag();
+                MAPPER.writerWithDefaultPrettyPrinter().writeValue(new File(summaryFilePath), testResult.summaries);
+                testResult.summaryFile = summaryFilePath;
+                generateLatencyPointGraph();
+            } catch (Exception e) {
+                log.error("", e);
+                testResult.isValid = false;
+            }
         }
 
         if (testResult.isValid && isUploadImage) {
@@ -111,138 +184,23 @@ public class PerfChecker implements Checker {
     }
 
     private void generateLatencyPointGraph() throws Exception {
-
-        ImageTerminal png = new ImageTerminal();
-        File file = new File(filePath);
-        boolean isCreate = file.createNewFile();
-        if (!isCreate)
-            throw new IOException("Create file fail");
-        png.processOutput(new FileInputStream(file));
-
-        JavaPlot p = new JavaPlot();
-        p.setTerminal(png);
-
-        p.setTitle("OpenChaos Latency Point Graph");
-
-        p.getAxis("x").setLabel("time(s)");
-        p.getAxis("x").setBoundaries(0, (testEndTimestamp - testStartTimestamp) / 1000 + 20);
-        p.getAxis("y").setLabel("latency(ms)");
-        p.getAxis("y").setBoundaries(0.1, 10 * 1000);
-        p.getAxis("y").setLogScale(true);
-        p.setKey(JavaPlot.Key.TOP_RIGHT);
-
-        List<Point> faultIntervalList = new ArrayList<>();
-        List<Point> invokeSuccessList = new ArrayList<>();
-        List<Point> invokeFailureList = new ArrayList<>();
-        List<Point> invokeUnknownList = new ArrayList<>();
-
         //Fault interval
-        List<String[]> faultLines = Files.lines(Paths.get(originFilePath)).
-            filter(x -> x.startsWith("fault")).map(x -> x.split("\t")).collect(Collectors.toList());
-
-        for (int i = 0; i < faultLines.size(); ) {
-            if (faultLines.get(i)[2].equals("start")) {
-                long startTimestamp = Long.parseLong(faultLines.get(i)[3]);
+        for (int i = 0; i < faultRecords.size(); ) {
+            if (faultRecords.get(i).isFaultStart()) {
+                long startTimestamp = faultRecords.get(i).timestamp;
                 i++;
-                while (i < faultLines.size() && !faultLines.get(i)[2].equals("end")) {
+                while (i < faultRecords.size() && !faultRecords.get(i).isFaultEnd()) {
                     i++;
                 }
-                if (i >= faultLines.size())
+                if (i >= faultRecords.size())
                     break;
-                long endTimestamp = Long.parseLong(faultLines.get(i)[3]);
-                long x1 = (startTimestamp - testStartTimestamp) / 1000;
-                long x2 = (endTimestamp - testStartTimestamp) / 1000;
-                faultIntervalList.add(new Point(x1, 0));
-                faultIntervalList.add(new Point(x1, 10 * 1000));
-                faultIntervalList.add(new Point(x2, 10 * 1000));
-                faultIntervalList.add(new Point(x2, 0));
+                long endTimestamp = faultRecords.get(i).timestamp;
+                graph.addFaultInterval((startTimestamp - testStartTimestamp) / 1000.0, (endTimestamp - testStartTimestamp) / 1000.0);
             } else {
                 i++;
             }
         }
 
-        if (faultIntervalList.size() != 0) {
-            DataSetPlot faultSet = new DataSetPlot(pointList2Array(faultIntervalList));
-            PlotStyle faultStyle = new PlotStyle();
-            faultStyle.setStyle(Style.FILLEDCURVES);
-            faultStyle.setLineType(NamedPlotColor.GRAY);
-            faultSet.setPlotStyle(faultStyle);
-            faultSet.setTitle("fault interval");
-            p.addPlot(faultSet);
-        }
-
-        for (String point : points) {
-
-            Files.lines(Paths.get(originFilePath)).map(x -> x.split("\t")).filter(x -> !x[0].equals("fault")).filter(x -> x[2].equals("RESPONSE")).filter(x -> Long.parseLong(x[7]) >= 0).forEach(line -> {
-                if (line[1].equals(point)) {
-                    switch (line[3]) {
-                        case "SUCCESS":
-                            invokeSuccessList.add(new Point((Long.parseLong(line[6]) - testStartTimestamp) / 1000, Long.parseLong(line[7])));
-                            break;
-                        case "FAILURE":
-                            invokeFailureList.add(new Point((Long.parseLong(line[6]) - testStartTimestamp) / 1000, Long.parseLong(line[7])));
-                            break;
-                        case "UNKNOWN":
-                            invokeUnknownList.add(new Point((Long.parseLong(line[6]) - testStartTimestamp) / 1000, Long.parseLong(line[7])));
-                            break;
-                        default:
-                            log.error("Error data in invoke");
-                    }
-                }
-            });
-
-            if (invokeSuccessList.size() != 0) {
-                renderPoint(p, invokeSuccessList, point + " success", 4, NamedPlotColor.GREEN);
-            }
-
-            if (invokeFailureList.size() != 0) {
-                renderPoint(p, invokeFailureList, point + " failure", 4, NamedPlotColor.RED);
-            }
-
-            if (invokeUnknownList.size() != 0) {
-                renderPoint(p, invokeUnknownList, point + " unknown", 4, NamedPlotColor.BLUE);
-            }
-
-            invokeSuccessList.clear();
-            invokeFailureList.clear();
-            invokeUnknownList.clear();
-
-        }
-
-        p.setKey(JavaPlot.Key.BELOW);
-
-        p.plot();
-
-        ImageIO.write(png.getImage(), "png", file);
-    }
-
-    private void renderPoint(JavaPlot plot, List<Point> dataSet, String title, int pointType, NamedPlotColor color) {
-        DataSetPlot dataSetPlot = new DataSetPlot(pointList2Array(dataSet));
-        PlotStyle plotStyle = new PlotStyle();
-        plotStyle.setStyle(Style.POINTS);
-        plotStyle.setPointType(pointType);
-        plotStyle.setLineType(color);
-        dataSetPlot.setPlotStyle(plotStyle);
-        dataSetPlot.setTitle(title);
-        plot.addPlot(dataSetPlot);
-    }
-
-    private long[][] pointList2Array(List<Point> list) {
-        long[][] res = new long[list.size()][2];
-        for (int i = 0; i < list.size(); i++) {
-            res[i][0] = list.get(i).x;
-            res[i][1] = list.get(i).y;
-        }
-        return res;
-    }
-
-    static class Point {
-        long x;
-        long y;
-
-        public Point(long x, long y) {
-            this.x = x;
-            this.y = y;
-        }
+        graph.write(new File(filePath));
     }
 }
@@ -17,14 +17,17 @@ package io.openchaos.checker;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Multiset;
+import io.openchaos.checker.result.LiveQueueResult;
 import io.openchaos.checker.result.QueueTestResult;
+import io.openchaos.checker.result.QueueTopicResult;
+import io.openchaos.checker.result.TestResult;
+import io.openchaos.common.InvokeResult;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
@@ -40,9 +43,37 @@ public class QueueChecker implements Checker {
         MAPPER.enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE);
     }
 
-    private Map<String, String> lostMap = new HashMap<>();
-    private Map<String, String> extraInfoMap = new HashMap<>();
-    private Multiset<String> duplicateSet = HashMultiset.create();
+    private static final int INITIAL_SIZE = 1 << 16;
+    /**
+     * Values of lostMap and extraInfoMap keep the topic index above the spill offset
+     */
+    private static final int OFFSET_BITS = 47;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    /**
+     * Enqueued messages not dequeued yet, message key -> topic index and offset of enqueue extraInfo in spill file
+     */
+    private final LongLongHashMap lostMap;
+    /**
+     * Messages dequeued without an enqueued one, message key -> dequeue count
+     */
+    private final LongLongHashMap duplicateSet;
+    /**
+     * Message key -> topic index and offset of the extraInfo of its first unexpected dequeue in spill file
+     */
+    private final LongLongHashMap extraInfoMap;
+    private long duplicateCount;
+    private ExtraInfoSpill extraInfoSpill;
+    /**
+     * Values generated by SequenceGenerator are used as keys directly, other values get a negative key
+     */
+    private final Map<String, Long> textKeys = new HashMap<>();
+    private final List<String> textValues = new ArrayList<>();
+    /**
+     * Topics in order of their first record, empty if records carry no topic
+     */
+    private final Map<String, Integer> topicIndexes = new HashMap<>();
+    private final List<QueueTopicResult> topicResults = new ArrayList<>();
     private AtomicLong enqueueInvokeCount = new AtomicLong();
     private AtomicLong enqueueSuccessCount = new AtomicLong();
     private AtomicLong dequeueSuccessCount = new AtomicLong();
@@ -50,14 +81,25 @@ public class QueueChecker implements Checker {
     private String outputDir;
     private String originFilePath;
     private String filePath;
+    private boolean failed;
+    /**
+     * Set when this checker replaces a failed live check, recorded in the result
+     */
+    String liveCheckFailure;
 
     public QueueChecker(String outputDir, String fileName) {
-        this.outputDir = outputDir;
-        this.fileName = fileName;
+        this(outputDir, fileName, false);
     }
 
-    @Override
-    public QueueTestResult check() {
+    /**
+     * @param offHeap keep the message tables in direct memory instead of java heap
+     */
+    public QueueChecker(String outputDir, String fileName, boolean offHeap) {
+        this.outputDir = outputDir;
+        this.fileName = fileName;
+        this.lostMap = new LongLongHashMap(INITIAL_SIZE, offHeap);
+        this.duplicateSet = new LongLongHashMap(16, offHeap);
+        this.extraInfoMap = new LongLongHashMap(16, offHeap);
 
         if (outputDir != null && !outputDir.isEmpty()) {
             originFilePath = outputDir + File.separator + fileName;
@@ -66,84 +108,250 @@ public class QueueChecker implements Checker {
             originFilePath = fileName;
             filePath = fileName.replace("history", "queue-result");
         }
+    }
+
+    @Override
+    public QueueTestResult check() {
 
         if (!new File(originFilePath).exists()) {
             System.err.println("File not exist.");
             System.exit(0);
         }
 
+        return (QueueTestResult) new HistoryScanner(originFilePath).subscribe(this).scan().get(0);
+    }
+
+    @Override
+    public void onRecord(HistoryRecord record) throws IOException {
+        if (record.isFault()) {
+            return;
+        }
+        int topic = topicIndex(record.topic);
+        QueueTopicResult topicResult = topic < topicResults.size() ? topicResults.get(topic) : null;
+        if (record.operation.equals("enqueue") && record.isRequest()) {
+            enqueueInvokeCount.incrementAndGet();
+            if (topicResult != null) {
+                topicResult.enqueueInvokeCount++;
+            }
+        } else if (record.result == InvokeResult.SUCCESS) {
+            if (record.operation.equals("enqueue")) {
+                enqueueSuccessCount.incrementAndGet();
+                if (topicResult != null) {
+                    topicResult.enqueueSuccessCount++;
+                }
+                lostMap.put(key(record.value), pack(topic, spill().append(record.extraInfo)));
+            } else if (record.operation.equals("dequeue")) {
+                dequeueSuccessCount.getAndIncrement();
+                if (topicResult != null) {
+                    topicResult.dequeueSuccessCount++;
+                }
+                long key = key(record.value);
+                if (!lostMap.remove(key)) {
+                    duplicateCount++;
+                    if (duplicateSet.addTo(key, 1) == 1) {
+                        extraInfoMap.put(key, pack(topic, spill().append(record.extraInfo)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onError(Exception e) {
+        log.error("Failed to check", e);
+        failed = true;
+    }
+
+    @Override
+    public QueueTestResult onComplete() {
         QueueTestResult queueTestResult = null;
 
         try {
-            checkInner();
+            if (failed) {
+                return null;
+            }
+            checkDuplicateSet();
             queueTestResult = generateResult();
-            MAPPER.writeValue(new File(filePath), queueTestResult);
         } catch (Exception e) {
             log.error("Failed to check", e);
+        } finally {
+            closeSpill();
         }
 
         return queueTestResult;
     }
 
-    private void checkInner() throws IOException {
-        Files.lines(Paths.get(originFilePath)).
-            map(x -> x.split("\t")).
-            filter(x -> !x[0].equals("fault")).
-            forEach(line -> {
-                    if (line[1].equals("enqueue") && line[2].equals("REQUEST")) {
-                        enqueueInvokeCount.incrementAndGet();
-                    } else if (line[3].equals("SUCCESS")) {
-                        if (line[1].equals("enqueue")) {
-                            enqueueSuccessCount.incrementAndGet();
-                            lostMap.put(line[4], line[8]);
-                        } else if (line[1].equals("dequeue")) {
-                            dequeueSuccessCount.getAndIncrement();
-                            if (lostMap.containsKey(line[4])) {
-                                lostMap.remove(line[4]);
-                            } else {
-                                duplicateSet.add(line[4]);
-                                if (!extraInfoMap.containsKey(line[4])) {
-                                    extraInfoMap.put(line[4], line[8]);
-                                }
-                            }
-                        }
-                    }
-                });
-        checkDuplicateSet();
+    @Override
+    public void writeResult(TestResult result) throws IOException {
+        MAPPER.writeValue(new File(filePath), result);
     }
 
+    /**
+     * Running state of the check. A message dequeued before its enqueue response is recorded counts as duplicate until
+     * the enqueue response arrives and the check completes
+     */
+    LiveQueueResult snapshot() {
+        LiveQueueResult result = new LiveQueueResult();
+        result.timestamp = System.currentTimeMillis();
+        result.enqueueInvokeCount = enqueueInvokeCount.get();
+        result.enqueueSuccessCount = enqueueSuccessCount.get();
+        result.dequeueSuccessCount = dequeueSuccessCount.get();
+        result.unconfirmedMessageCount = lostMap.size();
+        result.duplicateMessageCount = duplicateCount;
+        result.atMostOnce = duplicateSet.isEmpty();
+        result.isValid = !failed;
+        return result;
+    }
+
+    /**
+     * A message dequeued before its enqueue response was recorded is neither lost nor duplicated
+     */
     private void checkDuplicateSet() {
-        duplicateSet.removeIf(x -> {
-            boolean exist = lostMap.containsKey(x);
-            if (exist) {
-                lostMap.remove(x);
+        List<Long> reconciled = new ArrayList<>();
+        duplicateSet.forEach((key, count) -> {
+            if (lostMap.containsKey(key)) {
+                reconciled.add(key);
             }
-            return exist;
         });
+        for (long key : reconciled) {
+            lostMap.remove(key);
+            duplicateCount--;
+            if (duplicateSet.addTo(key, -1) == 0) {
+                duplicateSet.remove(key);
+            }
+        }
     }
 
-    private QueueTestResult generateResult() {
+    private QueueTestResult generateResult() throws IOException {
         QueueTestResult result = new QueueTestResult();
         result.enqueueInvokeCount = enqueueInvokeCount.get();
         result.enqueueSuccessCount = enqueueSuccessCount.get();
         result.dequeueSuccessCount = dequeueSuccessCount.get();
         result.lostMessageCount = lostMap.size();
-        result.lostMessages = lostMap;
-        result.duplicateMessageCount = duplicateSet.size();
+        result.lostMessages = generateLostMessagesMap();
+        result.duplicateMessageCount = duplicateCount;
         result.duplicateMessages = generateDuplicateMessagesMap();
+        result.liveCheckFailure = liveCheckFailure;
         result.atMostOnce = duplicateSet.isEmpty();
         result.atLeastOnce = lostMap.isEmpty();
         result.exactlyOnce = lostMap.isEmpty() && duplicateSet.isEmpty();
+        result.topics = generateTopicResults();
         result.isValid = true;
         return result;
     }
 
-    private Map<String, String> generateDuplicateMessagesMap() {
+    private Map<String, QueueTopicResult> generateTopicResults() {
+        if (topicResults.isEmpty()) {
+            return null;
+        }
+        lostMap.forEach((key, value) -> topicResults.get(topic(value)).lostMessageCount++);
+        duplicateSet.forEach((key, count) -> topicResults.get(topic(extraInfoMap.get(key, 0))).duplicateMessageCount += count);
+        Map<String, QueueTopicResult> res = new LinkedHashMap<>();
+        topicIndexes.forEach((topic, index) -> res.put(topic, topicResults.get(index)));
+        return res;
+    }
+
+    private Map<String, String> generateLostMessagesMap() throws IOException {
+        List<long[]> lost = new ArrayList<>();
+        lostMap.forEach((key, value) -> lost.add(new long[] {key, value}));
+        Map<String, String> res = new HashMap<>();
+        for (long[] message : lost) {
+            res.put(value(message[0]), spill().read(offset(message[1])));
+        }
+        return res;
+    }
+
+    private Map<String, String> generateDuplicateMessagesMap() throws IOException {
+        List<long[]> duplicates = new ArrayList<>();
+        duplicateSet.forEach((key, count) -> duplicates.add(new long[] {key, count}));
         Map<String, String> res = new HashMap<>();
-        for (Multiset.Entry<String> message : duplicateSet.entrySet()) {
-            res.put(message.getElement(), "duplicate count = " + message.getCount() +
-                ", info = " + extraInfoMap.get(message.getElement()));
+        for (long[] message : duplicates) {
+            res.put(value(message[0]), "duplicate count = " + message[1] +
+                ", info = " + spill().read(offset(extraInfoMap.get(message[0], pack(0, ExtraInfoSpill.NONE)))));
         }
         return res;
     }
+
+    private ExtraInfoSpill spill() throws IOException {
+        if (extraInfoSpill == null) {
+            extraInfoSpill = new ExtraInfoSpill("queue-checker");
+        }
+        return extraInfoSpill;
+    }
+
+    private void closeSpill() {
+        if (extraInfoSpill != null) {
+            try {
+                extraInfoSpill.close();
+            } catch (IOException e) {
+                log.warn("Failed to delete extraInfo spill file", e);
+            }
+            extraInfoSpill = null;
+        }
+    }
+
+    private int topicIndex(String topic) {
+        if (topic == null) {
+            return 0;
+        }
+        Integer index = topicIndexes.get(topic);
+        if (index == null) {
+            index = topicResults.size();
+            topicIndexes.put(topic, index);
+            topicResults.add(new QueueTopicResult());
+        }
+        return index;
+    }
+
+    /**
+     * Spill offsets are non-negative or NONE, so they are kept plus one in the low bits
+     */
+    private static long pack(int topic, long offset) {
+        return ((long) topic << OFFSET_BITS) | (offset + 1);
+    }
+
+    private static int topic(long packed) {
+        return (int) (packed >>> OFFSET_BITS);
+    }
+
+    private static long offset(long packed) {
+        return (packed & OFFSET_MASK) - 1;
+    }
+
+    private long key(String value) {
+        long key = parseSequence(value);
+        if (key >= 0) {
+            return key;
+        }
+        Long textKey = textKeys.get(value);
+        if (textKey == null) {
+            textValues.add(value);
+            textKey = -(long) textValues.size();
+            textKeys.put(value, textKey);
+        }
+        return textKey;
+    }
+
+    private String value(long key) {
+        return key >= 0 ? Long.toString(key) : textValues.get((int) (-key - 1));
+    }
+
+    /**
+     * @return the value as a non-negative long if it is written exactly as Long.toString would, otherwise -1
+     */
+    private static long parseSequence(String value) {
+        int length = value.length();
+        if (length == 0 || length > 18 || (length > 1 && value.charAt(0) == '0')) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
 }
@@ -22,9 +22,9 @@ import io.openchaos.checker.result.RTOTestResult;
 import io.openchaos.checker.result.TestResult;
 import io.openchaos.model.KVModel;
 import io.openchaos.model.QueueModel;
+import io.openchaos.common.InvokeResult;
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +38,10 @@ public class RTOChecker implements Checker {
         MAPPER.enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE);
     }
 
+    private final RTOTestResult rtoTestResult = new RTOTestResult();
+
+    private boolean failed;
+
     private boolean isInFault;
 
     private boolean unavailableFlag;
@@ -63,10 +67,6 @@ public class RTOChecker implements Checker {
                 this.opt = "put";
                 break;
         }
-    }
-
-    @Override
-    public TestResult check() {
 
         if (outputDir != null && !outputDir.isEmpty()) {
             originFilePath = outputDir + File.separator + fileName;
@@ -75,67 +75,71 @@ public class RTOChecker implements Checker {
             originFilePath = fileName;
             filePath = fileName.replace("history", "rto-result");
         }
+    }
+
+    @Override
+    public TestResult check() {
 
         if (!new File(originFilePath).exists()) {
             System.err.println("File not exist.");
             System.exit(0);
         }
 
-        RTOTestResult rtoTestResult = new RTOTestResult();
-        try {
-            checkInner(rtoTestResult);
-        } catch (Exception e) {
-            log.error("", e);
-            rtoTestResult.isValid = false;
+        return new HistoryScanner(originFilePath).subscribe(this).scan().get(0);
+    }
+
+    @Override
+    public void onRecord(HistoryRecord x) {
+        if (!x.isFault() && !(x.operation.equals(opt) && x.isResponse())) {
+            return;
+        }
+
+        if (x.isFaultStart()) {
+            isInFault = true;
+            rtoRecord = new RTORecord();
+            rtoTestResult.getResults().add(rtoRecord);
         }
-        try {
-            MAPPER.writeValue(new File(filePath), rtoTestResult);
-        } catch (Exception e) {
-            log.error("", e);
+
+        if (isInFault && !unavailableFlag && (x.result == InvokeResult.FAILURE || x.result == InvokeResult.UNKNOWN) && rtoRecord.startTimestamp == 0) {
+            rtoRecord.isUnavailableInFaultInterval = true;
+            rtoRecord.startTimestamp = x.timestamp - x.sendLatency;
+            unavailableFlag = true;
+        }
+
+        if (isInFault && unavailableFlag && x.result == InvokeResult.SUCCESS && rtoRecord.endTimestamp == 0) {
+            rtoRecord.endTimestamp = x.timestamp;
+            rtoRecord.rtoTime = rtoRecord.endTimestamp - rtoRecord.startTimestamp;
+            rtoRecord.isRecoveryInFaultInterval = true;
+            unavailableFlag = false;
+        }
+
+        if (!isInFault && unavailableFlag && x.result == InvokeResult.SUCCESS) {
+            unavailableFlag = false;
+        }
+
+        if (isInFault && x.isFaultEnd()) {
+            isInFault = false;
         }
 
+        if (!unavailableFlag && !isInFault && x.result == InvokeResult.FAILURE) {
+            rtoTestResult.setUnexpectedUnavailableInNormalInterval(true);
+        }
+    }
+
+    @Override
+    public void onError(Exception e) {
+        log.error("", e);
+        failed = true;
+    }
+
+    @Override
+    public TestResult onComplete() {
+        rtoTestResult.isValid = !failed;
         return rtoTestResult;
     }
 
-    private synchronized void checkInner(RTOTestResult rtoTestResult) throws Exception {
-
-        isInFault = false;
-        unavailableFlag = false;
-        rtoRecord = null;
-
-        Files.lines(Paths.get(originFilePath)).map(x -> x.split("\t")).filter(x -> x[0].equals("fault") || (x[1].equals(opt) && x[2].equals("RESPONSE"))).forEach(x -> {
-            if (x[0].equals("fault") && x[2].equals("start")) {
-                isInFault = true;
-                rtoRecord = new RTORecord();
-                rtoTestResult.getResults().add(rtoRecord);
-            }
-
-            if (isInFault && !unavailableFlag && (x[3].equals("FAILURE") || x[3].equals("UNKNOWN")) && rtoRecord.startTimestamp == 0) {
-                rtoRecord.isUnavailableInFaultInterval = true;
-                rtoRecord.startTimestamp = Long.parseLong(x[6]) - Long.parseLong(x[7]);
-                unavailableFlag = true;
-            }
-
-            if (isInFault && unavailableFlag && x[3].equals("SUCCESS") && rtoRecord.endTimestamp == 0) {
-                rtoRecord.endTimestamp = Long.parseLong(x[6]);
-                rtoRecord.rtoTime = rtoRecord.endTimestamp - rtoRecord.startTimestamp;
-                rtoRecord.isRecoveryInFaultInterval = true;
-                unavailableFlag = false;
-            }
-
-            if (!isInFault && unavailableFlag && x[3].equals("SUCCESS")) {
-                unavailableFlag = false;
-            }
-
-            if (isInFault && x[0].equals("fault") && x[2].equals("end")) {
-                isInFault = false;
-            }
-
-            if (!unavailableFlag && !isInFault && x[3].equals("FAILURE")) {
-                rtoTestResult.setUnexpectedUnavailableInNormalInterval(true);
-            }
-        });
-
-        rtoTestResult.isValid = true;
+    @Override
+    public void writeResult(TestResult result) throws IOException {
+        MAPPER.writeValue(new File(filePath), result);
     }
 }
@@ -22,11 +22,9 @@ import io.openchaos.checker.result.RecoveryTestResult;
 import io.openchaos.checker.result.TestResult;
 import io.openchaos.model.KVModel;
 import io.openchaos.model.QueueModel;
+import io.openchaos.common.InvokeResult;
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +42,10 @@ public class RecoveryChecker implements Checker {
     private String originFilePath;
     private String filePath;
     private String opt;
+    private final RecoveryTestResult recoveryTestResult = new RecoveryTestResult();
+    private RecoveryRecord recoveryRecord;
+    private boolean unavailableFlag;
+    private boolean failed;
 
     public RecoveryChecker(String outputDir, String fileName, String model) {
         this.outputDir = outputDir;
@@ -56,10 +58,6 @@ public class RecoveryChecker implements Checker {
                 this.opt = "put";
                 break;
         }
-    }
-
-    @Override
-    public TestResult check() {
 
         if (outputDir != null && !outputDir.isEmpty()) {
             originFilePath = outputDir + File.separator + fileName;
@@ -68,61 +66,61 @@ public class RecoveryChecker implements Checker {
             originFilePath = fileName;
             filePath = fileName.replace("history", "recovery-result");
         }
+    }
+
+    @Override
+    public TestResult check() {
 
         if (!new File(originFilePath).exists()) {
             System.err.println("File not exist.");
             System.exit(0);
         }
 
-        RecoveryTestResult recoveryTestResult = new RecoveryTestResult();
-        try {
-            checkInner(recoveryTestResult);
-        } catch (Exception e) {
-            log.error("", e);
-            recoveryTestResult.isValid = false;
-        }
-        try {
-            MAPPER.writeValue(new File(filePath), recoveryTestResult);
-        } catch (Exception e) {
-            log.error("", e);
-        }
-
-        return recoveryTestResult;
+        return new HistoryScanner(originFilePath).subscribe(this).scan().get(0);
     }
 
-    private void checkInner(RecoveryTestResult recoveryTestResult) throws Exception {
-
-        List<String[]> allRecords = Files.lines(Paths.get(originFilePath)).map(x -> x.split("\t")).filter(x -> x[0].equals("fault") || (x[1].equals(opt) && x[2].equals("RESPONSE"))).collect(Collectors.toList());
-
-        RecoveryRecord recoveryRecord = null;
-
-        boolean unavailableFlag = false;
+    @Override
+    public void onRecord(HistoryRecord x) {
+        if (x.isFault() || !x.operation.equals(opt) || !x.isResponse()) {
+            return;
+        }
 
-        for (String[] x : allRecords) {
+        if (!unavailableFlag && (x.result == InvokeResult.FAILURE || x.result == InvokeResult.UNKNOWN)) {
 
-            if (!unavailableFlag && (x[3].equals("FAILURE") || x[3].equals("UNKNOWN"))) {
+            RecoveryRecord lastRecord = recoveryTestResult.getResults().peekLast();
+            if (lastRecord != null && x.timestamp - lastRecord.unavailableEndTimestamp < 2000) {
+                return;
+            }
 
-                RecoveryRecord lastRecord = recoveryTestResult.getResults().peekLast();
-                if (lastRecord != null && Long.parseLong(x[6]) - lastRecord.unavailableEndTimestamp < 2000) {
-                    continue;
-                }
+            recoveryRecord = new RecoveryRecord();
+            recoveryTestResult.getResults().add(recoveryRecord);
 
-                recoveryRecord = new RecoveryRecord();
-                recoveryTestResult.getResults().add(recoveryRecord);
+            recoveryRecord.unavailableStartTimestamp = x.timestamp - x.sendLatency;
+            unavailableFlag = true;
+        }
 
-                recoveryRecord.unavailableStartTimestamp = Long.parseLong(x[6]) - Long.parseLong(x[7]);
-                unavailableFlag = true;
-            }
+        if (unavailableFlag && x.result == InvokeResult.SUCCESS && recoveryRecord.unavailableEndTimestamp == 0) {
 
-            if (unavailableFlag && x[3].equals("SUCCESS") && recoveryRecord.unavailableEndTimestamp == 0) {
+            recoveryRecord.unavailableEndTimestamp = x.timestamp;
+            recoveryRecord.recoveryTime = recoveryRecord.unavailableEndTimestamp - recoveryRecord.unavailableStartTimestamp;
+            unavailableFlag = false;
+        }
+    }
 
-                recoveryRecord.unavailableEndTimestamp = Long.parseLong(x[6]);
-                recoveryRecord.recoveryTime = recoveryRecord.unavailableEndTimestamp - recoveryRecord.unavailableStartTimestamp;
-                unavailableFlag = false;
-            }
+    @Override
+    public void onError(Exception e) {
+        log.error("", e);
+        failed = true;
+    }
 
-        }
+    @Override
+    public TestResult onComplete() {
+        recoveryTestResult.isValid = !failed;
+        return recoveryTestResult;
+    }
 
-        recoveryTestResult.isValid = true;
+    @Override
+    public void writeResult(TestResult result) throws IOException {
+        MAPPER.writeValue(new File(filePath), result);
     }
 }
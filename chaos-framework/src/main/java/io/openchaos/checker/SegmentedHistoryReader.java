@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import io.openchaos.recorder.HistoryFormat;
+import io.openchaos.recorder.HistoryManifest;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read a directory of history segments in manifest order. Each segment is memory-mapped read only and decoded in
+ * place. An open segment is the one being written when the recorder stopped, a truncated record at its end is ignored.
+ */
+public class SegmentedHistoryReader implements HistoryReader {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentedHistoryReader.class);
+
+    private final File directory;
+    private final HistoryFormat format;
+    private final Iterator<HistoryManifest.Segment> segments;
+    private HistoryManifest.Segment segment;
+    private HistoryReader segmentReader;
+
+    public SegmentedHistoryReader(File directory) throws IOException {
+        if (!HistoryManifest.exists(directory)) {
+            throw new IOException("No history manifest in " + directory);
+        }
+        HistoryManifest manifest = HistoryManifest.read(directory);
+        this.directory = directory;
+        this.format = manifest.format;
+        this.segments = manifest.segments.iterator();
+    }
+
+    @Override
+    public HistoryRecord next() throws IOException {
+        while (true) {
+            if (segmentReader == null) {
+                if (!segments.hasNext()) {
+                    return null;
+                }
+                segment = segments.next();
+                segmentReader = openSegment(segment);
+            }
+            HistoryRecord record;
+            try {
+                record = segmentReader.next();
+            } catch (IOException | RuntimeException e) {
+                if (segment.sealed) {
+                    throw e;
+                }
+                log.warn("Ignore truncated record at the end of open segment {}", segment.name, e);
+                record = null;
+            }
+            if (record != null) {
+                return record;
+            }
+            segmentReader.close();
+            segmentReader = null;
+        }
+    }
+
+    private HistoryReader openSegment(HistoryManifest.Segment segment) throws IOException {
+        File file = new File(directory, segment.name);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = segment.sealed ? segment.length : channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (!segment.sealed && format == HistoryFormat.TEXT) {
+                buffer.limit(writtenLength(buffer));
+            }
+            return HistoryReader.open(new ByteBufferInputStream(buffer));
+        }
+    }
+
+    /**
+     * Text history never contains a zero byte, so the written part of a preallocated text segment ends at the first
+     * zero byte, which can be found by binary search. Binary history marks the end with a zero record kind instead.
+     */
+    private static int writtenLength(MappedByteBuffer buffer) {
+        int low = 0;
+        int high = buffer.limit();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.get(middle) == 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segmentReader != null) {
+            segmentReader.close();
+            segmentReader = null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Hash-partition records of string fields into temp files, so a checker can process one partition at a time with
+ * memory bounded by the size of a partition instead of the whole history.
+ * <p>
+ * Records are written first; the first {@link #read(int)} ends the write phase. All files are deleted on close.
+ */
+public class SpillPartitions implements Closeable {
+
+    public static final int DEFAULT_PARTITION_COUNT = 64;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final DataOutputStream[] writers;
+    private boolean writable = true;
+
+    public SpillPartitions(String prefix, int partitionCount) throws IOException {
+        this.directory = Files.createTempDirectory(prefix).toFile();
+        this.directory.deleteOnExit();
+        this.writers = new DataOutputStream[partitionCount];
+    }
+
+    public int partitionCount() {
+        return writers.length;
+    }
+
+    public int partition(String partitionKey) {
+        int hash = partitionKey.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), writers.length);
+    }
+
+    public void write(String partitionKey, String... fields) throws IOException {
+        if (!writable) {
+            throw new IllegalStateException("Spill partitions are being read");
+        }
+        int partition = partition(partitionKey);
+        DataOutputStream writer = writers[partition];
+        if (writer == null) {
+            File file = partitionFile(partition);
+            file.deleteOnExit();
+            writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+            writers[partition] = writer;
+        }
+        writer.writeByte(fields.length);
+        for (String field : fields) {
+            byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+            writer.writeInt(bytes.length);
+            writer.write(bytes);
+        }
+    }
+
+    /**
+     * Read the records of a partition in write order, a partition can be read several times and concurrently
+     */
+    public PartitionReader read(int partition) throws IOException {
+        finishWriting();
+        File file = partitionFile(partition);
+        return new PartitionReader(file.exists() ? new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) : null);
+    }
+
+    private void finishWriting() throws IOException {
+        if (writable) {
+            writable = false;
+            for (DataOutputStream writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+    }
+
+    private File partitionFile(int partition) {
+        return new File(directory, "partition-" + partition);
+    }
+
+    @Override
+    public void close() throws IOException {
+        finishWriting();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    public static class PartitionReader implements Closeable {
+        private final DataInputStream in;
+
+        PartitionReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return fields of next record, or null at the end of partition
+         */
+        public String[] next() throws IOException {
+            if (in == null) {
+                return null;
+            }
+            int count;
+            try {
+                count = in.readUnsignedByte();
+            } catch (EOFException e) {
+                return null;
+            }
+            String[] fields = new String[count];
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                fields[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker;
+
+import io.openchaos.checker.result.ConsumerLagSummary;
+import io.openchaos.checker.result.ThroughputSummary;
+import io.openchaos.common.InvokeResult;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Count attempted, successful, failed and unknown operations in fixed windows since the start of test, together with
+ * the latency percentiles of every window and whether the window overlaps a fault. Responses are also split by being
+ * inside or outside a fault, so the throughput drop during a fault can be read directly from the summary. For queue
+ * histories the backlog of every window tracks how far consumers lag behind producers.
+ */
+class ThroughputTimeSeries {
+
+    private static final String FAULT = "fault";
+    private static final String NORMAL = "normal";
+    private static final String ENQUEUE = "enqueue";
+    private static final String DEQUEUE = "dequeue";
+
+    private final long startTimestamp;
+    private final long windowMs;
+    private final Map<String, OperationSeries> operations = new TreeMap<>();
+    /**
+     * Fault events by window index, eg: start minor-kill
+     */
+    private final Map<Long, List<String>> faultEvents = new TreeMap<>();
+    /**
+     * Start and end timestamp of fault intervals, the end of an unfinished fault is Long.MAX_VALUE
+     */
+    private final List<long[]> faultIntervals = new ArrayList<>();
+    private boolean isInFault;
+    private long lastTimestamp;
+
+    ThroughputTimeSeries(long startTimestamp, long windowMs) {
+        this.startTimestamp = startTimestamp;
+        this.windowMs = windowMs;
+    }
+
+    void onRecord(HistoryRecord record) {
+        lastTimestamp = Math.max(lastTimestamp, record.timestamp);
+        if (record.isFault()) {
+            onFault(record);
+        } else if (record.isRequest()) {
+            operation(record.operation).onRequest(windowIndex(record.timestamp), isInFault);
+        } else if (record.isResponse()) {
+            operation(record.operation).onResponse(windowIndex(record.timestamp), record.result, record.sendLatency, isInFault);
+        }
+    }
+
+    private void onFault(HistoryRecord record) {
+        faultEvents.computeIfAbsent(windowIndex(record.timestamp), index -> new ArrayList<>())
+            .add(record.operation + " " + record.faultName);
+        if (record.isFaultStart() && !isInFault) {
+            isInFault = true;
+            faultIntervals.add(new long[] {record.timestamp, Long.MAX_VALUE});
+        } else if (record.isFaultEnd() && isInFault) {
+            isInFault = false;
+            faultIntervals.get(faultIntervals.size() - 1)[1] = record.timestamp;
+        }
+    }
+
+    private OperationSeries operation(String operation) {
+        return operations.computeIfAbsent(operation, key -> new OperationSeries());
+    }
+
+    private long windowIndex(long timestamp) {
+        return Math.floorDiv(timestamp - startTimestamp, windowMs);
+    }
+
+    private boolean overlapsFault(long windowStart, long windowEnd) {
+        for (long[] interval : faultIntervals) {
+            if (interval[0] < windowEnd && interval[1] > windowStart) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write one row per operation and window, times are milliseconds since the start of test
+     */
+    void writeCsv(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            writer.print("operation,windowStart,windowEnd,attempted,success,failure,unknown,throughput,p50,p90,p99,max,backlog,inFault,faultEvents\n");
+            TreeMap<Long, Long> backlogs = backlogs();
+            for (Map.Entry<String, OperationSeries> entry : operations.entrySet()) {
+                for (Map.Entry<Long, Window> windowEntry : entry.getValue().windows.entrySet()) {
+                    long windowStart = windowEntry.getKey() * windowMs;
+                    long windowEnd = windowStart + windowMs;
+                    Window window = windowEntry.getValue();
+                    Histogram latencies = window.latencies;
+                    List<String> events = faultEvents.get(windowEntry.getKey());
+                    Map.Entry<Long, Long> backlog = backlogs.floorEntry(windowEntry.getKey());
+                    writer.printf("%s,%d,%d,%d,%d,%d,%d,%.2f,%d,%d,%d,%d,%s,%b,%s%n", entry.getKey(), windowStart, windowEnd,
+                        window.attempted, window.success, window.failure, window.unknown, window.success * 1000.0 / windowMs,
+                        percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99), max(latencies),
+                        backlog == null ? "" : String.valueOf(backlog.getValue()),
+                        overlapsFault(startTimestamp + windowStart, startTimestamp + windowEnd),
+                        events == null ? "" : String.join(";", events));
+                }
+            }
+        }
+    }
+
+    /**
+     * Summarize every operation inside and outside of faults up to the end of test
+     */
+    List<ThroughputSummary> summarize(long endTimestamp) {
+        long end = Math.max(endTimestamp, lastTimestamp);
+        long faultDuration = 0;
+        for (long[] interval : faultIntervals) {
+            faultDuration += Math.max(0, Math.min(interval[1], end) - Math.max(interval[0], startTimestamp));
+        }
+        long normalDuration = Math.max(0, end - startTimestamp - faultDuration);
+
+        List<ThroughputSummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, OperationSeries> entry : operations.entrySet()) {
+            summaries.add(entry.getValue().normal.summarize(entry.getKey(), NORMAL, normalDuration));
+            if (!faultIntervals.isEmpty()) {
+                summaries.add(entry.getValue().fault.summarize(entry.getKey(), FAULT, faultDuration));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Summarize the backlog of consumers, null unless the history is of queue model
+     */
+    ConsumerLagSummary summarizeConsumerLag() {
+        TreeMap<Long, Long> backlogs = backlogs();
+        if (backlogs.isEmpty()) {
+            return null;
+        }
+        ConsumerLagSummary summary = new ConsumerLagSummary();
+        summary.maxBacklog = Long.MIN_VALUE;
+        for (Map.Entry<Long, Long> entry : backlogs.entrySet()) {
+            if (entry.getValue() > summary.maxBacklog) {
+                summary.maxBacklog = entry.getValue();
+                summary.maxBacklogWindowStart = entry.getKey() * windowMs;
+            }
+        }
+        summary.finalBacklog = backlogs.lastEntry().getValue();
+        return summary;
+    }
+
+    /**
+     * Successful enqueues minus successful dequeues up to the end of every window with either of them
+     */
+    private TreeMap<Long, Long> backlogs() {
+        TreeMap<Long, Long> backlogs = new TreeMap<>();
+        OperationSeries enqueue = operations.get(ENQUEUE);
+        if (enqueue == null) {
+            return backlogs;
+        }
+        OperationSeries dequeue = operations.get(DEQUEUE);
+        TreeSet<Long> indexes = new TreeSet<>(enqueue.windows.keySet());
+        if (dequeue != null) {
+            indexes.addAll(dequeue.windows.keySet());
+        }
+        long backlog = 0;
+        for (long index : indexes) {
+            Window window = enqueue.windows.get(index);
+            if (window != null) {
+                backlog += window.success;
+            }
+            window = dequeue != null ? dequeue.windows.get(index) : null;
+            if (window != null) {
+                backlog -= window.success;
+            }
+            backlogs.put(index, backlog);
+        }
+        return backlogs;
+    }
+
+    /**
+     * Percentile of the latencies of a window, -1 if there is none
+     */
+    static long percentile(Histogram latencies, double percentile) {
+        return latencies.getTotalCount() == 0 ? -1 : latencies.getValueAtPercentile(percentile);
+    }
+
+    static long max(Histogram latencies) {
+        return latencies.getTotalCount() == 0 ? -1 : latencies.getMaxValue();
+    }
+
+    private static class OperationSeries {
+        final Map<Long, Window> windows = new TreeMap<>();
+        final Totals normal = new Totals();
+        final Totals fault = new Totals();
+
+        void onRequest(long index, boolean isInFault) {
+            window(index).attempted++;
+            (isInFault ? fault : normal).attempted++;
+        }
+
+        void onResponse(long index, InvokeResult result, long sendLatency, boolean isInFault) {
+            Window window = window(index);
+            Totals totals = isInFault ? fault : normal;
+            switch (result) {
+                case SUCCESS:
+                    window.success++;
+                    totals.success++;
+                    break;
+                case FAILURE:
+                    window.failure++;
+                    totals.failure++;
+                    break;
+                default:
+                    window.unknown++;
+                    totals.unknown++;
+            }
+            if (sendLatency >= 0) {
+                LatencyChecker.recordLatency(window.latencies, sendLatency);
+                LatencyChecker.recordLatency(totals.latencies, sendLatency);
+            }
+        }
+
+        Window window(long index) {
+            return windows.computeIfAbsent(index, key -> new Window());
+        }
+    }
+
+    private static class Window {
+        long attempted;
+        long success;
+        long failure;
+        long unknown;
+        /**
+         * Auto-resized with 2 significant digits, so a window only holds the buckets up to its slowest response
+         */
+        final Histogram latencies = new Histogram(2);
+    }
+
+    private static class Totals {
+        long attempted;
+        long success;
+        long failure;
+        long unknown;
+        final Histogram latencies = LatencyChecker.newHistogram();
+
+        ThroughputSummary summarize(String operation, String window, long durationMs) {
+            ThroughputSummary summary = new ThroughputSummary();
+            summary.operation = operation;
+            summary.window = window;
+            summary.durationMs = durationMs;
+            summary.attempted = attempted;
+            summary.success = success;
+            summary.failure = failure;
+            summary.unknown = unknown;
+            summary.throughput = durationMs == 0 ? 0 : success * 1000.0 / durationMs;
+            summary.p50 = percentile(latencies, 50);
+            summary.p99 = percentile(latencies, 99);
+            summary.max = max(latencies);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.checker.result;
+
+/**
+ * Backlog of consumers, the number of successful enqueues minus the number of successful dequeues. Duplicated
+ * deliveries are counted as dequeues too, so the backlog may go below zero.
+ */
+public class ConsumerLagSummary {
+    public long maxBacklog;
+    /**
+     * Start of the window with the max backlog in milliseconds since the start of test
+     */
+    public long maxBacklogWindowStart;
+    /**
+     * Backlog at the end of the last window
+     */
+    public long finalBacklog;
+
+    @Override
+    public String toString() {
+        return String.format("{ consumer lag : maxBacklog = %d at %dms, finalBacklog = %d }", maxBacklog, maxBacklogWindowStart, finalBacklog);
+    }
+}
@@ -22,6 +22,20 @@ public class KVTestResult extends TestResult {
     public long getSuccessCount;
     public long lostValueCount;
     public Set<String> lostValues;
+    public long readInvokeCount;
+    public long readSuccessCount;
+    /**
+     * Successful reads of values put and not deleted which did not find the value
+     */
+    public long readMissingCount;
+    public Set<String> readMissingValues;
+    public long deleteInvokeCount;
+    public long deleteSuccessCount;
+    /**
+     * Values deleted successfully but still got at the end
+     */
+    public long undeletedValueCount;
+    public Set<String> undeletedValues;
 
     public KVTestResult() {
         super("KVTestResult");
@@ -34,6 +48,14 @@ public class KVTestResult extends TestResult {
             "\n\tgetSuccessCount=" + getSuccessCount +
             "\n\tlostValueCount=" + lostValueCount +
             "\n\tlostValues=" + lostValues +
+            "\n\treadInvokeCount=" + readInvokeCount +
+            "\n\treadSuccessCount=" + readSuccessCount +
+            "\n\treadMissingCount=" + readMissingCount +
+            "\n\treadMissingValues=" + readMissingValues +
+            "\n\tdeleteInvokeCount=" + deleteInvokeCount +
+            "\n\tdeleteSuccessCount=" + deleteSuccessCount +
+            "\n\tundeletedValueCount=" + undeletedValueCount +
+            "\n\tundeletedValues=" + undeletedValues +
             "\n\tisValid=" + isValid +
             "\n}";
     }
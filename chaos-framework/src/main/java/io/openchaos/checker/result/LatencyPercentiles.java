@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker.result;
+
+public class LatencyPercentiles {
+    /**
+     * send or endToEnd
+     */
+    public String latency;
+    public String operation;
+    /**
+     * SUCCESS, FAILURE, UNKNOWN or all
+     */
+    public String result;
+    /**
+     * fault, normal or all
+     */
+    public String window;
+    public long count;
+    public long p50;
+    public long p90;
+    public long p99;
+    public long p999;
+    public long max;
+
+    @Override
+    public String toString() {
+        return String.format("{ %s %s %s %s : count = %d, p50 = %dms, p90 = %dms, p99 = %dms, p99.9 = %dms, max = %dms }",
+            latency, operation, result, window, count, p50, p90, p99, p999, max);
+    }
+}
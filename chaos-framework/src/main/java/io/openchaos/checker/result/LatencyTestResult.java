@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker.result;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LatencyTestResult extends TestResult {
+    public List<LatencyPercentiles> latencies = new ArrayList<>();
+    public String histogramLogFile;
+
+    public LatencyTestResult() {
+        super("LatencyTestResult");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("\n" + name + "{ ");
+        for (LatencyPercentiles percentiles : latencies) {
+            stringBuilder.append("\n\t").append(percentiles);
+        }
+        stringBuilder.append("\n\thistogram log = ").append(histogramLogFile);
+        stringBuilder.append("\n\t").append("isValid=").append(isValid);
+        stringBuilder.append("\n}");
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker.result;
+
+/**
+ * Running state of queue check while the test is still recording. Messages enqueued but not dequeued yet are only
+ * unconfirmed, they become lost when the test ends without dequeuing them
+ */
+public class LiveQueueResult extends TestResult {
+    public long timestamp;
+    public long enqueueInvokeCount;
+    public long enqueueSuccessCount;
+    public long dequeueSuccessCount;
+    public long unconfirmedMessageCount;
+    public long duplicateMessageCount;
+    public boolean atMostOnce;
+
+    public LiveQueueResult() {
+        super("LiveQueueResult");
+    }
+
+    @Override
+    public String toString() {
+        return "\n" + name + "{" +
+            "\n\ttimestamp=" + timestamp +
+            "\n\tenqueueInvokeCount=" + enqueueInvokeCount +
+            "\n\tenqueueSuccessCount=" + enqueueSuccessCount +
+            "\n\tdequeueSuccessCount=" + dequeueSuccessCount +
+            "\n\tunconfirmedMessageCount=" + unconfirmedMessageCount +
+            "\n\tduplicateMessageCount=" + duplicateMessageCount +
+            "\n\tatMostOnce=" + atMostOnce +
+            "\n\tisValid=" + isValid +
+            "\n }";
+    }
+}
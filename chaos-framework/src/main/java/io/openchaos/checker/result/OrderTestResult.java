@@ -14,11 +14,23 @@
 
 package io.openchaos.checker.result;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class OrderTestResult extends TestResult {
 
     private boolean isOrder;
     private String wrongShardingKey;
     private String wrongStartValue;
+    /**
+     * All out of order sharding keys with the first value not dequeued in order, in sharding key order. Keys are
+     * "topic/shardingKey" when the queue model has more than one topic
+     */
+    private Map<String, String> violations = new LinkedHashMap<>();
+    /**
+     * Topic -> number of out of order sharding keys of the topic, null when the queue model has only one topic
+     */
+    private Map<String, Integer> topicViolations;
 
     public OrderTestResult() {
         super("OrderTestResult");
@@ -48,6 +60,22 @@ public class OrderTestResult extends TestResult {
         this.wrongStartValue = wrongStartValue;
     }
 
+    public Map<String, String> getViolations() {
+        return violations;
+    }
+
+    public void setViolations(Map<String, String> violations) {
+        this.violations = violations;
+    }
+
+    public Map<String, Integer> getTopicViolations() {
+        return topicViolations;
+    }
+
+    public void setTopicViolations(Map<String, Integer> topicViolations) {
+        this.topicViolations = topicViolations;
+    }
+
     @Override
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
@@ -56,6 +84,14 @@ public class OrderTestResult extends TestResult {
         if (!isOrder) {
             stringBuilder.append("\n\twrong sharding key = ").append(wrongShardingKey);
             stringBuilder.append("\n\twrong start value = ").append(wrongStartValue);
+            stringBuilder.append("\n\twrong sharding key count = ").append(violations.size());
+            if (topicViolations != null) {
+                stringBuilder.append("\n\twrong sharding key count of topics = ").append(topicViolations);
+            }
+            for (Map.Entry<String, String> violation : violations.entrySet()) {
+                stringBuilder.append("\n\t\t [ wrong sharding key = ").append(violation.getKey())
+                    .append(" , wrong start value = ").append(violation.getValue()).append(" ]");
+            }
         }
         stringBuilder.append("\n\t").append("isValid=").append(isValid);
         stringBuilder.append("\n}");
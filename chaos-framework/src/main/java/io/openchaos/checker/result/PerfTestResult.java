@@ -14,9 +14,19 @@
 
 package io.openchaos.checker.result;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PerfTestResult extends TestResult {
 
     String ossUrl;
+    public String timeSeriesFile;
+    public String summaryFile;
+    public List<ThroughputSummary> summaries = new ArrayList<>();
+    /**
+     * Null unless the history is of queue model
+     */
+    public ConsumerLagSummary consumerLag;
 
     public PerfTestResult() {
         super("PerfResult");
@@ -31,9 +41,18 @@ public class PerfTestResult extends TestResult {
     }
 
     @Override public String toString() {
-        return "\nPerfTestResult{" +
-            "\n\tossUrl='" + ossUrl + '\'' +
-            "\n\tisValid=" + isValid +
-            "\n}";
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("\nPerfTestResult{");
+        for (ThroughputSummary summary : summaries) {
+            stringBuilder.append("\n\t").append(summary);
+        }
+        if (consumerLag != null) {
+            stringBuilder.append("\n\t").append(consumerLag);
+        }
+        stringBuilder.append("\n\ttimeSeriesFile='").append(timeSeriesFile).append('\'');
+        stringBuilder.append("\n\tossUrl='").append(ossUrl).append('\'');
+        stringBuilder.append("\n\tisValid=").append(isValid);
+        stringBuilder.append("\n}");
+        return stringBuilder.toString();
     }
 }
@@ -27,6 +27,15 @@ public class QueueTestResult extends TestResult {
     public boolean atMostOnce;
     public boolean atLeastOnce;
     public boolean exactlyOnce;
+    /**
+     * Topic -> accounting of the topic, null when the queue model has only one topic
+     */
+    public Map<String, QueueTopicResult> topics;
+    /**
+     * Why checking the history while it was recorded failed, the result is checked from the history file then. Null
+     * when the live check succeeded or was not used
+     */
+    public String liveCheckFailure;
 
     public QueueTestResult() {
         super("QueueTestResult");
@@ -45,10 +54,22 @@ public class QueueTestResult extends TestResult {
             "\n\tatMostOnce=" + atMostOnce +
             "\n\tatLeastOnce=" + atLeastOnce +
             "\n\texactlyOnce=" + exactlyOnce +
+            (topics == null ? "" : "\n\ttopics=" + formatTopics(topics)) +
+            (liveCheckFailure == null ? "" : "\n\tliveCheckFailure=" + liveCheckFailure) +
             "\n\tisValid=" + isValid +
             "\n }";
     }
 
+    public String formatTopics(Map<String, QueueTopicResult> topics) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("{");
+        for (Map.Entry<String, QueueTopicResult> topic : topics.entrySet()) {
+            stringBuilder.append("\n\t\t [ topic = ").append(topic.getKey()).append(" , ").append(topic.getValue()).append(" ]");
+        }
+        stringBuilder.append("}");
+        return stringBuilder.toString();
+    }
+
     public String formatLostMessages(Map<String, String> lostMessages) {
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("{");
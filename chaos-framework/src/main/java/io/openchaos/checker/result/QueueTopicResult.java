@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker.result;
+
+/**
+ * Accounting of one topic when the queue model has more than one topic. Messages are counted in the topic they are
+ * enqueued to, duplicates in the topic they are dequeued from.
+ */
+public class QueueTopicResult {
+    public long enqueueInvokeCount;
+    public long enqueueSuccessCount;
+    public long dequeueSuccessCount;
+    public long lostMessageCount;
+    public long duplicateMessageCount;
+
+    @Override
+    public String toString() {
+        return String.format("{ enqueueInvokeCount = %d, enqueueSuccessCount = %d, dequeueSuccessCount = %d, lostMessageCount = %d, duplicateMessageCount = %d }",
+            enqueueInvokeCount, enqueueSuccessCount, dequeueSuccessCount, lostMessageCount, duplicateMessageCount);
+    }
+}
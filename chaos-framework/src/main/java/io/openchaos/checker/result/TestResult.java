@@ -19,6 +19,11 @@ public class TestResult {
 
     public String name;
 
+    /**
+     * Time spent by the checker in ms, set before the result file is written
+     */
+    public long checkTime;
+
     public TestResult(String name) {
         this.name = name;
     }
@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.checker.result;
+
+public class ThroughputSummary {
+    public String operation;
+    /**
+     * fault or normal
+     */
+    public String window;
+    public long durationMs;
+    public long attempted;
+    public long success;
+    public long failure;
+    public long unknown;
+    /**
+     * Successful operations per second
+     */
+    public double throughput;
+    public long p50;
+    public long p99;
+    public long max;
+
+    @Override
+    public String toString() {
+        return String.format("{ %s %s : duration = %dms, attempted = %d, success = %d, failure = %d, unknown = %d, throughput = %.2f/s, p50 = %dms, p99 = %dms, max = %dms }",
+            operation, window, durationMs, attempted, success, failure, unknown, throughput, p50, p99, max);
+    }
+}
@@ -31,6 +31,15 @@ public interface Client {
      */
     void nextInvoke();
 
+    /**
+     * Invoke a request scheduled at the given time in open-loop mode, the latency is measured from the scheduled time
+     *
+     * @param scheduledTimestamp scheduled time in milliseconds since epoch
+     */
+    default void nextInvoke(long scheduledTimestamp) {
+        nextInvoke();
+    }
+
     /**
      * Invoke the last request at the end of the test
      */
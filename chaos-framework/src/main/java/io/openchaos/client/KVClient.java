@@ -14,23 +14,30 @@
  
 package io.openchaos.client;
 
-import io.openchaos.recorder.ResponseLogEntry;
-import java.util.List;
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.kv.GetResult;
 import io.openchaos.driver.kv.KVDriver;
-import io.openchaos.generator.Operation;
 import io.openchaos.generator.SequenceGenerator;
 import io.openchaos.recorder.Recorder;
 import io.openchaos.recorder.RequestLogEntry;
+import io.openchaos.recorder.ResponseLogEntry;
+import io.openchaos.workload.KVOperationMix;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class KVClient implements Client {
 
+    /**
+     * ExtraInfo of a successful get which found no entry
+     */
+    public static final String NOT_FOUND = "notFound";
+
     private static final AtomicInteger CLIENT_ID_GENERATOR = new AtomicInteger(0);
-    private static final AtomicInteger PUT_COUNT = new AtomicInteger(0);
     private static final Logger log = LoggerFactory.getLogger(io.openchaos.client.KVClient.class);
 
     private io.openchaos.driver.kv.KVClient client;
@@ -38,12 +45,27 @@ public class KVClient implements Client {
     private final Recorder recorder;
     private final int clientId;
     private final Optional<String> key;
+    private final SequenceGenerator generator = new SequenceGenerator();
+    private final KVOperationMix operationMix;
+    /**
+     * Values put successfully by this client and not deleted, the first liveCount values are valid
+     */
+    private long[] liveValues = new long[16];
+    private int liveCount;
 
     public KVClient(KVDriver driver, Recorder recorder, Optional<String> key) {
+        this(driver, recorder, key, KVOperationMix.create(null));
+    }
+
+    /**
+     * @param operationMix ratio of put, get and delete, gets and deletes go to values put by this client
+     */
+    public KVClient(KVDriver driver, Recorder recorder, Optional<String> key, KVOperationMix operationMix) {
         this.driver = driver;
         this.recorder = recorder;
         this.clientId = CLIENT_ID_GENERATOR.getAndIncrement();
         this.key = key;
+        this.operationMix = operationMix;
     }
 
     @Override public void setup() {
@@ -51,6 +73,9 @@ public class KVClient implements Client {
             throw new IllegalArgumentException("KV driver is null");
         }
         client = driver.createClient();
+        if (!operationMix.isPutOnly()) {
+            client.readPutValues();
+        }
         log.info("KV client start...");
         client.start();
     }
@@ -61,18 +86,77 @@ public class KVClient implements Client {
     }
 
     @Override public void nextInvoke() {
-        Operation op = SequenceGenerator.generateKVOperation();
-        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, op.getInvokeOperation(), op.getValue(), System.currentTimeMillis());
+        nextInvoke(-1);
+    }
+
+    @Override public void nextInvoke(long scheduledTimestamp) {
+        String operation = operationMix.next();
+        //Gets and deletes need a value put before, put instead until there is one
+        if (liveCount == 0) {
+            operation = SequenceGenerator.PUT;
+        }
+        switch (operation) {
+            case SequenceGenerator.GET:
+                get(scheduledTimestamp);
+                break;
+            case SequenceGenerator.DELETE:
+                delete(scheduledTimestamp);
+                break;
+            default:
+                put(scheduledTimestamp);
+        }
+    }
+
+    private void put(long scheduledTimestamp) {
+        long sequence = generator.nextValue();
+        String value = Long.toString(sequence);
+        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, SequenceGenerator.PUT, value, System.currentTimeMillis());
+        requestLogEntry.scheduledTimestamp = scheduledTimestamp;
+        recorder.recordRequest(requestLogEntry);
+        InvokeResult result = client.put(key, value);
+        recorder.recordResponse(new ResponseLogEntry(clientId, SequenceGenerator.PUT, result, value, System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.intendedTimestamp()));
+        if (result == InvokeResult.SUCCESS && !operationMix.isPutOnly()) {
+            if (liveCount == liveValues.length) {
+                liveValues = Arrays.copyOf(liveValues, liveCount * 2);
+            }
+            liveValues[liveCount++] = sequence;
+        }
+    }
+
+    private void get(long scheduledTimestamp) {
+        String value = Long.toString(liveValues[ThreadLocalRandom.current().nextInt(liveCount)]);
+        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, SequenceGenerator.GET, value, System.currentTimeMillis());
+        requestLogEntry.scheduledTimestamp = scheduledTimestamp;
         recorder.recordRequest(requestLogEntry);
-        PUT_COUNT.getAndIncrement();
-        InvokeResult result = client.put(key, op.getValue());
-        recorder.recordResponse(new ResponseLogEntry(clientId, op.getInvokeOperation(), result, op.getValue(), System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp));
+        GetResult result = client.get(key, value);
+        String extraInfo = null;
+        if (result.result == InvokeResult.SUCCESS && !value.equals(result.value)) {
+            extraInfo = result.value == null ? NOT_FOUND : "read " + result.value;
+        }
+        recorder.recordResponse(new ResponseLogEntry(clientId, SequenceGenerator.GET, result.result, value, System.currentTimeMillis(),
+            System.currentTimeMillis() - requestLogEntry.intendedTimestamp(), extraInfo));
+    }
+
+    private void delete(long scheduledTimestamp) {
+        int index = ThreadLocalRandom.current().nextInt(liveCount);
+        long sequence = liveValues[index];
+        String value = Long.toString(sequence);
+        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, SequenceGenerator.DELETE, value, System.currentTimeMillis());
+        requestLogEntry.scheduledTimestamp = scheduledTimestamp;
+        recorder.recordRequest(requestLogEntry);
+        InvokeResult result = client.delete(key, value);
+        recorder.recordResponse(new ResponseLogEntry(clientId, SequenceGenerator.DELETE, result, value, System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.intendedTimestamp()));
+        //A value which may be deleted is not read again
+        if (result != InvokeResult.FAILURE) {
+            liveValues[index] = liveValues[--liveCount];
+        }
     }
 
     @Override public void lastInvoke() {
         RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, "getAll", null, System.currentTimeMillis());
         recorder.recordRequest(requestLogEntry);
-        List<String> results = client.getAll(key, PUT_COUNT.get());
+        //Values are handed out in blocks, so every value put is below the bound rather than below the number of puts
+        List<String> results = client.getAll(key, (int) Math.min(Integer.MAX_VALUE, SequenceGenerator.upperBound()));
         if (results != null && !results.isEmpty()) {
             recorder.recordResponse(new ResponseLogEntry(clientId, "getAll", InvokeResult.SUCCESS, results.toString(), System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp));
         } else {
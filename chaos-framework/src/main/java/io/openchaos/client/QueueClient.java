@@ -17,17 +17,23 @@ package io.openchaos.client;
 import io.openchaos.common.InvokeResult;
 import io.openchaos.common.Message;
 import io.openchaos.driver.queue.ConsumerCallback;
+import io.openchaos.driver.queue.EnqueueResult;
 import io.openchaos.driver.queue.QueueDriver;
 import io.openchaos.driver.queue.QueueProducer;
 import io.openchaos.driver.queue.QueuePullConsumer;
 import io.openchaos.driver.queue.QueuePushConsumer;
 import io.openchaos.recorder.ResponseLogEntry;
 import io.openchaos.generator.SequenceGenerator;
-import io.openchaos.generator.Operation;
 import io.openchaos.recorder.Recorder;
 import io.openchaos.recorder.RequestLogEntry;
+import io.openchaos.workload.PayloadSizes;
+import io.openchaos.workload.ShardingKeySelector;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
@@ -35,116 +41,374 @@ import org.slf4j.LoggerFactory;
 
 public class QueueClient implements Client, ConsumerCallback {
 
+    /**
+     * What a queue client does, producers and consumers are separate clients when their numbers are set apart
+     */
+    public enum Role {
+        /**
+         * Enqueue, and consume with its own consumer. With pull consumer half of invokes are dequeue
+         */
+        PRODUCER_AND_CONSUMER,
+        /**
+         * Enqueue only
+         */
+        PRODUCER,
+        /**
+         * Consume only, every invoke is a dequeue with pull consumer, and push consumer needs no invoke
+         */
+        CONSUMER
+    }
+
     private static final AtomicInteger CLIENT_ID_GENERATOR = new AtomicInteger(0);
     private static final Logger log = LoggerFactory.getLogger(QueueClient.class);
     private static final String SUBSCRIPTION_NAME = "ChaosTest_ConsumerGroup";
+    private static final long DRAIN_TIMEOUT_SECONDS = 120;
+    /**
+     * Drain until no message is dequeued for this long, a single empty dequeue only means one poll timed out
+     */
+    private static final long DRAIN_IDLE_MILLIS = 5_000;
+    /**
+     * Pause after an empty dequeue of the drain, doubled on every empty dequeue in a row, so a driver whose dequeue
+     * returns at once does not spin
+     */
+    private static final long DRAIN_MIN_BACKOFF_MILLIS = 10;
+    private static final long DRAIN_MAX_BACKOFF_MILLIS = 500;
     private QueueProducer producer;
-    private QueuePullConsumer pullConsumer;
-    private QueuePushConsumer pushConsumer;
+    private final List<QueuePullConsumer> pullConsumers = new ArrayList<>();
+    private final List<QueuePushConsumer> pushConsumers = new ArrayList<>();
+    private int nextPullConsumer;
     private final QueueDriver pubSubDriver;
+    /**
+     * Topic to enqueue to
+     */
     private final String chaosTopic;
+    /**
+     * Topics to consume, one consumer for each
+     */
+    private final List<String> consumeTopics;
+    /**
+     * Record the topic of every entry, when the model has more than one topic
+     */
+    private final boolean recordTopic;
     private final Recorder recorder;
     private final int clientId;
-    private final boolean isOrderTest;
     private final boolean isUsePull;
-    private final List<String> shardingKeys;
+    /**
+     * Select the sharding key of every enqueue, null to enqueue without sharding key
+     */
+    private final ShardingKeySelector shardingKeySelector;
     private final AtomicLong msgReceivedCount;
-    private final Random random = new Random();
+    private final SequenceGenerator generator;
+    /**
+     * Enqueue asynchronously with at most maxInFlight requests in flight when it is more than 1
+     */
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    /**
+     * Enqueue this number of values with one batch when it is more than 1
+     */
+    private final int batchSize;
+    private final Role role;
 
     public QueueClient(QueueDriver pubSubDriver, String chaosTopic, Recorder recorder, boolean isOrderTest,
                        boolean isUsePull, List<String> shardingKeys, AtomicLong msgReceivedCount) {
+        this(pubSubDriver, chaosTopic, recorder, isOrderTest, isUsePull, shardingKeys, msgReceivedCount, 1, 1);
+    }
+
+    public QueueClient(QueueDriver pubSubDriver, String chaosTopic, Recorder recorder, boolean isOrderTest,
+                       boolean isUsePull, List<String> shardingKeys, AtomicLong msgReceivedCount, int maxInFlight, int batchSize) {
+        this(pubSubDriver, chaosTopic, recorder, isUsePull, isOrderTest ? ShardingKeySelector.uniform(shardingKeys) : null,
+            null, msgReceivedCount, maxInFlight, batchSize, Role.PRODUCER_AND_CONSUMER, false);
+    }
+
+    /**
+     * Create a client which consumes only, with one consumer for each topic
+     *
+     * @param recordTopic record the topic of every entry, when the model has more than one topic
+     */
+    public QueueClient(QueueDriver pubSubDriver, List<String> topics, Recorder recorder, boolean isUsePull,
+                       AtomicLong msgReceivedCount, boolean recordTopic) {
+        this(pubSubDriver, null, topics, recorder, isUsePull, null, null, msgReceivedCount, 1, 1, Role.CONSUMER, recordTopic);
+    }
+
+    /**
+     * @param shardingKeySelector select the sharding key of every enqueue, null to enqueue without sharding key
+     * @param payloadSizes sizes of padded payloads, null to send the value only
+     * @param recordTopic record the topic of every entry, when the model has more than one topic
+     */
+    public QueueClient(QueueDriver pubSubDriver, String chaosTopic, Recorder recorder, boolean isUsePull,
+                       ShardingKeySelector shardingKeySelector, PayloadSizes payloadSizes, AtomicLong msgReceivedCount,
+                       int maxInFlight, int batchSize, Role role, boolean recordTopic) {
+        this(pubSubDriver, chaosTopic, Collections.singletonList(chaosTopic), recorder, isUsePull, shardingKeySelector,
+            payloadSizes, msgReceivedCount, maxInFlight, batchSize, role, recordTopic);
+    }
+
+    private QueueClient(QueueDriver pubSubDriver, String chaosTopic, List<String> consumeTopics, Recorder recorder,
+                        boolean isUsePull, ShardingKeySelector shardingKeySelector, PayloadSizes payloadSizes,
+                        AtomicLong msgReceivedCount, int maxInFlight, int batchSize, Role role, boolean recordTopic) {
         this.pubSubDriver = pubSubDriver;
         this.chaosTopic = chaosTopic;
+        this.consumeTopics = consumeTopics;
+        this.recordTopic = recordTopic;
         this.recorder = recorder;
         clientId = CLIENT_ID_GENERATOR.getAndIncrement();
-        this.isOrderTest = isOrderTest;
         this.isUsePull = isUsePull;
-        this.shardingKeys = shardingKeys;
+        this.shardingKeySelector = shardingKeySelector;
+        this.generator = new SequenceGenerator(payloadSizes);
         this.msgReceivedCount = msgReceivedCount;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.batchSize = batchSize;
+        this.role = role;
     }
 
     public void setup() {
-        producer = pubSubDriver.createProducer(chaosTopic);
-        producer.start();
-        if (isUsePull) {
-            pullConsumer = pubSubDriver.createPullConsumer(chaosTopic, pubSubDriver.subscriptionName());
-            pullConsumer.start();
-        } else {
-            pushConsumer = pubSubDriver.createPushConsumer(chaosTopic, pubSubDriver.subscriptionName(), this);
-            pushConsumer.start();
+        if (role != Role.CONSUMER) {
+            producer = pubSubDriver.createProducer(chaosTopic);
+            producer.start();
+        }
+        if (role == Role.PRODUCER) {
+            return;
+        }
+        for (String topic : consumeTopics) {
+            if (isUsePull) {
+                QueuePullConsumer pullConsumer = pubSubDriver.createPullConsumer(topic, pubSubDriver.subscriptionName());
+                pullConsumer.start();
+                pullConsumers.add(pullConsumer);
+            } else {
+                QueuePushConsumer pushConsumer = pubSubDriver.createPushConsumer(topic, pubSubDriver.subscriptionName(),
+                    message -> messageReceived(topic, message));
+                pushConsumer.start();
+                pushConsumers.add(pushConsumer);
+            }
         }
     }
 
     public void teardown() {
-        producer.close();
-        if (pullConsumer != null) {
-            pullConsumer.close();
-        }
-        if (pushConsumer != null) {
-            pushConsumer.close();
+        if (producer != null) {
+            producer.close();
         }
+        pullConsumers.forEach(QueuePullConsumer::close);
+        pushConsumers.forEach(QueuePushConsumer::close);
     }
 
     public void nextInvoke() {
-        Operation op = SequenceGenerator.generateQueueOperation(isUsePull);
-        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, op.getInvokeOperation(), op.getValue(), System.currentTimeMillis());
-        if (op.getInvokeOperation().equals("enqueue")) {
-            InvokeResult invokeResult;
-            if (isOrderTest) {
-                String shardingKey = shardingKeys.get(random.nextInt(shardingKeys.size()));
-                requestLogEntry.shardingKey = shardingKey;
-                recorder.recordRequest(requestLogEntry);
-                invokeResult = producer.enqueue(shardingKey, op.getValue().getBytes());
-                recorder.recordResponse(new ResponseLogEntry(clientId, op.getInvokeOperation(),
-                    invokeResult, shardingKey, op.getValue(), System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp, invokeResult.getExtraInfo()));
-            } else {
-                recorder.recordRequest(requestLogEntry);
-                invokeResult = producer.enqueue(op.getValue().getBytes());
-                recorder.recordResponse(new ResponseLogEntry(clientId, op.getInvokeOperation(),
-                    invokeResult, op.getValue(), System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp, invokeResult.getExtraInfo()));
-            }
+        nextInvoke(-1);
+    }
+
+    @Override
+    public void nextInvoke(long scheduledTimestamp) {
+        String operation = role == Role.CONSUMER ? SequenceGenerator.DEQUEUE
+            : generator.nextQueueOperation(isUsePull && role == Role.PRODUCER_AND_CONSUMER);
+        if (operation.equals(SequenceGenerator.DEQUEUE)) {
+            dequeue(scheduledTimestamp);
+            return;
+        }
+        long value = generator.nextValue();
+        if (maxInFlight > 1) {
+            enqueueAsync(value, scheduledTimestamp);
+            return;
+        }
+        if (batchSize > 1) {
+            enqueueBatch(value, scheduledTimestamp);
+            return;
+        }
+        String valueText = Long.toString(value);
+        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, operation, valueText, System.currentTimeMillis());
+        requestLogEntry.scheduledTimestamp = scheduledTimestamp;
+        EnqueueResult enqueueResult;
+        if (shardingKeySelector != null) {
+            String shardingKey = shardingKeySelector.next();
+            requestLogEntry.shardingKey = shardingKey;
+            recordRequest(chaosTopic, requestLogEntry);
+            enqueueResult = producer.enqueue(shardingKey, generator.payload(value));
+            recordResponse(chaosTopic, new ResponseLogEntry(clientId, operation,
+                enqueueResult.result, shardingKey, valueText, System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.intendedTimestamp(), enqueueResult.extraInfo));
         } else {
-            recorder.recordRequest(requestLogEntry);
-            List<Message> dequeueList = pullConsumer.dequeue();
-            if (dequeueList == null || dequeueList.isEmpty()) {
-                recorder.recordResponse(new ResponseLogEntry(clientId, op.getInvokeOperation(),
-                    InvokeResult.FAILURE, null, System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp));
-            } else {
-                for (Message msg : dequeueList) {
-                    msgReceivedCount.incrementAndGet();
-                    recorder.recordResponse(new ResponseLogEntry(clientId, op.getInvokeOperation(),
-                        InvokeResult.SUCCESS, msg.shardingKey, new String(msg.payload), System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp,
-                        msg.extraInfo, msg.receiveTimestamp - msg.sendTimestamp));
-                }
+            recordRequest(chaosTopic, requestLogEntry);
+            enqueueResult = producer.enqueue(generator.payload(value));
+            recordResponse(chaosTopic, new ResponseLogEntry(clientId, operation,
+                enqueueResult.result, valueText, System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.intendedTimestamp(), enqueueResult.extraInfo));
+        }
+    }
+
+    /**
+     * Dequeue with the pull consumers of all topics in turn
+     */
+    private void dequeue(long scheduledTimestamp) {
+        int index = nextPullConsumer;
+        nextPullConsumer = (nextPullConsumer + 1) % pullConsumers.size();
+        String topic = consumeTopics.get(index);
+        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, SequenceGenerator.DEQUEUE, null, System.currentTimeMillis());
+        requestLogEntry.scheduledTimestamp = scheduledTimestamp;
+        recordRequest(topic, requestLogEntry);
+        List<Message> dequeueList = pullConsumers.get(index).dequeue();
+        if (dequeueList == null || dequeueList.isEmpty()) {
+            recordResponse(topic, new ResponseLogEntry(clientId, SequenceGenerator.DEQUEUE,
+                InvokeResult.FAILURE, null, System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.intendedTimestamp()));
+        } else {
+            for (Message msg : dequeueList) {
+                msgReceivedCount.incrementAndGet();
+                recordResponse(topic, new ResponseLogEntry(clientId, SequenceGenerator.DEQUEUE,
+                    InvokeResult.SUCCESS, msg.shardingKey, PayloadSizes.valueOf(msg.payload), System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.intendedTimestamp(),
+                    msg.extraInfo, msg.receiveTimestamp - msg.sendTimestamp));
             }
         }
     }
 
+    /**
+     * Wait for a free slot of the in-flight window, and record the response when the enqueue completes. The driver
+     * may keep the payload until then, so it gets a new array instead of a reusable buffer.
+     */
+    private void enqueueAsync(long value, long scheduledTimestamp) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        String valueText = Long.toString(value);
+        String shardingKey = shardingKeySelector != null ? shardingKeySelector.next() : null;
+        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, SequenceGenerator.ENQUEUE, shardingKey, valueText, System.currentTimeMillis());
+        requestLogEntry.scheduledTimestamp = scheduledTimestamp;
+        recordRequest(chaosTopic, requestLogEntry);
+        CompletableFuture<EnqueueResult> future;
+        try {
+            byte[] payload = generator.newPayload(value);
+            future = shardingKey != null ? producer.enqueueAsync(shardingKey, payload) : producer.enqueueAsync(payload);
+        } catch (Exception e) {
+            log.warn("Client {} enqueue error", clientId, e);
+            future = CompletableFuture.completedFuture(EnqueueResult.of(InvokeResult.UNKNOWN));
+        }
+        future.whenComplete((enqueueResult, throwable) -> {
+            EnqueueResult result = throwable == null ? enqueueResult : EnqueueResult.of(InvokeResult.UNKNOWN);
+            long now = System.currentTimeMillis();
+            recordResponse(chaosTopic, new ResponseLogEntry(clientId, SequenceGenerator.ENQUEUE, result.result, shardingKey, valueText,
+                now, now - requestLogEntry.intendedTimestamp(), result.extraInfo));
+            inFlight.release();
+        });
+    }
+
+    /**
+     * Enqueue value and the following values with one batch, every value has its own request and response
+     */
+    private void enqueueBatch(long value, long scheduledTimestamp) {
+        String shardingKey = shardingKeySelector != null ? shardingKeySelector.next() : null;
+        List<RequestLogEntry> requestLogEntries = new ArrayList<>(batchSize);
+        List<byte[]> payloads = new ArrayList<>(batchSize);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < batchSize; i++) {
+            long batchValue = i == 0 ? value : generator.nextValue();
+            RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, SequenceGenerator.ENQUEUE, shardingKey, Long.toString(batchValue), now);
+            requestLogEntry.scheduledTimestamp = scheduledTimestamp;
+            recordRequest(chaosTopic, requestLogEntry);
+            requestLogEntries.add(requestLogEntry);
+            payloads.add(generator.newPayload(batchValue));
+        }
+        List<EnqueueResult> enqueueResults;
+        try {
+            enqueueResults = shardingKey != null ? producer.enqueueBatch(shardingKey, payloads) : producer.enqueueBatch(payloads);
+        } catch (Exception e) {
+            log.warn("Client {} enqueue batch error", clientId, e);
+            enqueueResults = null;
+        }
+        if (enqueueResults != null && enqueueResults.size() != batchSize) {
+            log.warn("Client {} got {} results of a batch of {}", clientId, enqueueResults.size(), batchSize);
+            enqueueResults = null;
+        }
+        long end = System.currentTimeMillis();
+        for (int i = 0; i < batchSize; i++) {
+            RequestLogEntry requestLogEntry = requestLogEntries.get(i);
+            EnqueueResult enqueueResult = enqueueResults == null ? EnqueueResult.of(InvokeResult.UNKNOWN) : enqueueResults.get(i);
+            recordResponse(chaosTopic, new ResponseLogEntry(clientId, requestLogEntry.operation, enqueueResult.result, shardingKey, requestLogEntry.value,
+                end, end - requestLogEntry.intendedTimestamp(), enqueueResult.extraInfo));
+        }
+    }
+
     public void lastInvoke() {
-        if (isUsePull) {
-            log.info("Client {} invoke drain", clientId);
-            //Drain
-            RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, "dequeue", null, System.currentTimeMillis());
-            recorder.recordRequest(requestLogEntry);
+        if (maxInFlight > 1) {
+            log.info("Client {} wait for in-flight enqueue", clientId);
+            try {
+                if (inFlight.tryAcquire(maxInFlight, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    inFlight.release(maxInFlight);
+                } else {
+                    log.warn("Client {} still has {} enqueue in flight", clientId, maxInFlight - inFlight.availablePermits());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int i = 0; i < pullConsumers.size(); i++) {
+            drain(consumeTopics.get(i), pullConsumers.get(i));
+        }
+    }
+
+    /**
+     * Dequeue until the topic stays empty for a while or the drain takes too long, backing off after empty dequeues.
+     * Empty dequeues are not recorded, only the request left open when the drain ends gets a failed response.
+     */
+    private void drain(String topic, QueuePullConsumer pullConsumer) {
+        log.info("Client {} invoke drain of {}", clientId, topic);
+        RequestLogEntry requestLogEntry = new RequestLogEntry(clientId, "dequeue", null, System.currentTimeMillis());
+        recordRequest(topic, requestLogEntry);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(DRAIN_TIMEOUT_SECONDS);
+        long lastDequeued = System.currentTimeMillis();
+        long backoff = DRAIN_MIN_BACKOFF_MILLIS;
+        while (true) {
+            long now = System.currentTimeMillis();
+            if (now - lastDequeued >= DRAIN_IDLE_MILLIS) {
+                break;
+            }
+            if (now >= deadline) {
+                log.warn("Client {} stops drain of {} after {} s", clientId, topic, DRAIN_TIMEOUT_SECONDS);
+                break;
+            }
             List<Message> dequeueList = pullConsumer.dequeue();
-            while (dequeueList != null && !dequeueList.isEmpty()) {
-                for (Message msg : dequeueList) {
-                    msgReceivedCount.incrementAndGet();
-                    recorder.recordResponse(new ResponseLogEntry(clientId, "dequeue", InvokeResult.SUCCESS, msg.shardingKey, new String(msg.payload),
-                        System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp, msg.extraInfo, msg.receiveTimestamp - msg.sendTimestamp));
+            if (dequeueList == null || dequeueList.isEmpty()) {
+                try {
+                    Thread.sleep(Math.min(backoff, Math.max(1, lastDequeued + DRAIN_IDLE_MILLIS - System.currentTimeMillis())));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
-                requestLogEntry = new RequestLogEntry(clientId, "dequeue", null, System.currentTimeMillis());
-                recorder.recordRequest(requestLogEntry);
-                dequeueList = pullConsumer.dequeue();
+                backoff = Math.min(backoff * 2, DRAIN_MAX_BACKOFF_MILLIS);
+                continue;
             }
-            recorder.recordResponse(new ResponseLogEntry(clientId, "dequeue", InvokeResult.FAILURE, null, System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp));
+            lastDequeued = System.currentTimeMillis();
+            backoff = DRAIN_MIN_BACKOFF_MILLIS;
+            for (Message msg : dequeueList) {
+                msgReceivedCount.incrementAndGet();
+                recordResponse(topic, new ResponseLogEntry(clientId, "dequeue", InvokeResult.SUCCESS, msg.shardingKey, PayloadSizes.valueOf(msg.payload),
+                    System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp, msg.extraInfo, msg.receiveTimestamp - msg.sendTimestamp));
+            }
+            requestLogEntry = new RequestLogEntry(clientId, "dequeue", null, System.currentTimeMillis());
+            recordRequest(topic, requestLogEntry);
         }
+        recordResponse(topic, new ResponseLogEntry(clientId, "dequeue", InvokeResult.FAILURE, null, System.currentTimeMillis(), System.currentTimeMillis() - requestLogEntry.timestamp));
     }
 
     @Override
     public void messageReceived(Message message) {
+        messageReceived(consumeTopics.get(0), message);
+    }
+
+    private void messageReceived(String topic, Message message) {
         msgReceivedCount.incrementAndGet();
-        recorder.recordResponse(new ResponseLogEntry(clientId, "dequeue", InvokeResult.SUCCESS, message.shardingKey, new String(message.payload), System.currentTimeMillis(), 0,
+        recordResponse(topic, new ResponseLogEntry(clientId, "dequeue", InvokeResult.SUCCESS, message.shardingKey, PayloadSizes.valueOf(message.payload), System.currentTimeMillis(), 0,
             message.extraInfo, message.receiveTimestamp - message.sendTimestamp));
     }
+
+    private void recordRequest(String topic, RequestLogEntry requestLogEntry) {
+        if (recordTopic) {
+            requestLogEntry.topic = topic;
+        }
+        recorder.recordRequest(requestLogEntry);
+    }
+
+    private void recordResponse(String topic, ResponseLogEntry responseLogEntry) {
+        if (recordTopic) {
+            responseLogEntry.topic = topic;
+        }
+        recorder.recordResponse(responseLogEntry);
+    }
 }
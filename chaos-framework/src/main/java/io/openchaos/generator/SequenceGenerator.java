@@ -14,28 +14,152 @@
 
 package io.openchaos.generator;
 
-import java.util.Random;
+import io.openchaos.workload.PayloadSizes;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Generate the values of one client. Values are handed out from blocks reserved from a global counter, so they stay
+ * unique across clients while clients only touch the shared counter once per block. An instance must be used by one
+ * thread only.
+ */
 public class SequenceGenerator {
 
-    private static AtomicLong stagger = new AtomicLong(0);
+    public static final String ENQUEUE = "enqueue";
+    public static final String DEQUEUE = "dequeue";
+    public static final String PUT = "put";
+    public static final String GET = "get";
+    public static final String DELETE = "delete";
+
+    static final int BLOCK_SIZE = 1024;
+
+    private static final AtomicLong NEXT_BLOCK = new AtomicLong(0);
+
+    /**
+     * Max digits of a non-negative long
+     */
+    private static final int MAX_DIGITS = 19;
 
-    private static Random random = new Random();
+    private long nextValue;
+    private long blockEnd;
+    /**
+     * Reusable payload buffers indexed by the number of digits
+     */
+    private final byte[][] buffers = new byte[MAX_DIGITS + 1][];
+    /**
+     * Sizes of padded payloads, null to send the value only
+     */
+    private final PayloadSizes payloadSizes;
+    /**
+     * Value and padding of the max payload size, the padding is only written again when the digits of values change
+     */
+    private byte[] paddedBuffer;
+    private int paddedDigits;
+
+    public SequenceGenerator() {
+        this(null);
+    }
+
+    public SequenceGenerator(PayloadSizes payloadSizes) {
+        this.payloadSizes = payloadSizes;
+    }
 
-    public static Operation generateQueueOperation(boolean isUsePull) {
-        if (isUsePull) {
-            if (random.nextDouble() < 0.5) {
-                return new Operation("enqueue", String.valueOf(stagger.getAndIncrement()));
-            } else {
-                return new Operation("dequeue");
-            }
-        } else {
-            return new Operation("enqueue", String.valueOf(stagger.getAndIncrement()));
+    /**
+     * @return the next unique value, values of one generator are increasing
+     */
+    public long nextValue() {
+        if (nextValue == blockEnd) {
+            nextValue = NEXT_BLOCK.getAndIncrement() * BLOCK_SIZE;
+            blockEnd = nextValue + BLOCK_SIZE;
         }
+        return nextValue++;
     }
 
-    public static Operation generateKVOperation() {
-        return new Operation("put", String.valueOf(stagger.getAndIncrement()));
+    /**
+     * @return a bound of all values handed out by every generator so far, values are less than it
+     */
+    public static long upperBound() {
+        return NEXT_BLOCK.get() * BLOCK_SIZE;
+    }
+
+    /**
+     * Decide the next queue operation, half of operations are dequeue when pull consumer is used
+     */
+    public String nextQueueOperation(boolean isUsePull) {
+        if (isUsePull && ThreadLocalRandom.current().nextBoolean()) {
+            return DEQUEUE;
+        }
+        return ENQUEUE;
+    }
+
+    /**
+     * Encode value as decimal digits, padded when payload sizes are configured, into a buffer owned by this
+     * generator. The buffer is overwritten by a later call, so it must only be passed to calls that are done with it
+     * when they return. Clients send whole arrays, so a padded payload shorter than the max size is copied out of the
+     * max-size buffer: only unpadded payloads and fixed-size profiles are allocation-free, uniform and histogram
+     * profiles allocate a new array for every payload below the max size.
+     */
+    public byte[] payload(long value) {
+        int length = digits(value);
+        int size = payloadSizes != null ? payloadSizes.next() : 0;
+        if (size > length) {
+            byte[] padded = padded(value, length);
+            return size == padded.length ? padded : Arrays.copyOf(padded, size);
+        }
+        byte[] buffer = buffers[length];
+        if (buffer == null) {
+            buffer = new byte[length];
+            buffers[length] = buffer;
+        }
+        encode(value, buffer, length);
+        return buffer;
+    }
+
+    /**
+     * Encode value like {@link #payload(long)} into a new array, for calls that may keep the payload after they return
+     */
+    public byte[] newPayload(long value) {
+        int length = digits(value);
+        int size = payloadSizes != null ? payloadSizes.next() : 0;
+        if (size > length) {
+            return Arrays.copyOf(padded(value, length), size);
+        }
+        byte[] payload = new byte[length];
+        encode(value, payload, length);
+        return payload;
+    }
+
+    /**
+     * Value followed by padding up to the max size, the value must be shorter than the max size
+     */
+    private byte[] padded(long value, int length) {
+        if (paddedBuffer == null) {
+            paddedBuffer = new byte[payloadSizes.maxSize()];
+        }
+        encode(value, paddedBuffer, length);
+        if (length != paddedDigits) {
+            payloadSizes.pad(paddedBuffer, length);
+            paddedDigits = length;
+        }
+        return paddedBuffer;
+    }
+
+    private static int digits(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        int digits = 1;
+        for (long bound = 10; digits < MAX_DIGITS && value >= bound; bound *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static void encode(long value, byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
     }
 }
@@ -17,6 +17,7 @@ package io.openchaos.http;
 import com.alibaba.fastjson.JSON;
 import io.openchaos.Arguments;
 import io.openchaos.ChaosControl;
+import io.openchaos.checker.LiveQueueChecker;
 import io.openchaos.recorder.FaultLogEntry;
 import io.openchaos.recorder.Recorder;
 import io.vertx.core.AbstractVerticle;
@@ -51,6 +52,8 @@ public class Agent extends AbstractVerticle {
         router.post("/record").handler(this::handleRecord);
         router.get("/status").handler(this::getStatus);
         router.get("/result").handler(this::getResult);
+        router.get("/recorder").handler(this::getRecorderMetrics);
+        router.get("/live").handler(this::getLiveResult);
 
         vertx.createHttpServer().requestHandler(router::accept).listen(port);
     }
@@ -133,6 +136,26 @@ public class Agent extends AbstractVerticle {
         response.putHeader("content-type", "application/json").end(JSON.toJSONString(ChaosControl.getResultList()));
     }
 
+    private void getRecorderMetrics(RoutingContext routingContext) {
+        HttpServerResponse response = routingContext.response();
+        Recorder recorder = ChaosControl.getRecorder();
+        if (recorder != null) {
+            response.putHeader("content-type", "application/json").end(JSON.toJSONString(recorder.getMetrics()));
+        } else {
+            response.putHeader("content-type", "application/json").end("FAIL");
+        }
+    }
+
+    private void getLiveResult(RoutingContext routingContext) {
+        HttpServerResponse response = routingContext.response();
+        LiveQueueChecker liveQueueChecker = ChaosControl.getLiveQueueChecker();
+        if (liveQueueChecker != null) {
+            response.putHeader("content-type", "application/json").end(JSON.toJSONString(liveQueueChecker.snapshot()));
+        } else {
+            response.putHeader("content-type", "application/json").end("FAIL");
+        }
+    }
+
     public synchronized static void startAgent(int port) {
         if (vertxStatic != null) {
             return;
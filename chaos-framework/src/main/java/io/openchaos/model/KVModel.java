@@ -23,9 +23,11 @@ import io.openchaos.client.KVClient;
 import io.openchaos.client.Client;
 import io.openchaos.driver.ChaosNode;
 import io.openchaos.worker.ClientWorker;
+import io.openchaos.worker.OpenLoopSchedule;
 import io.openchaos.worker.Worker;
 import io.openchaos.driver.kv.KVDriver;
 import io.openchaos.recorder.Recorder;
+import io.openchaos.workload.KVOperationMix;
 import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
@@ -63,9 +65,22 @@ public class KVModel implements Model {
     private KVDriver driver;
     private File driverConfigFile;
     private boolean restart;
+    private final OpenLoopSchedule openLoopSchedule;
+    private final KVOperationMix operationMix;
 
     public KVModel(int concurrency, RateLimiter rateLimiter, Recorder recorder, File driverConfigFile) {
+        this(concurrency, rateLimiter, recorder, driverConfigFile, null, KVOperationMix.create(null));
+    }
+
+    /**
+     * @param openLoopSchedule schedule of requests in open-loop mode, null to pace clients with the rate limiter
+     * @param operationMix ratio of put, get and delete of every client
+     */
+    public KVModel(int concurrency, RateLimiter rateLimiter, Recorder recorder, File driverConfigFile, OpenLoopSchedule openLoopSchedule,
+        KVOperationMix operationMix) {
         this.concurrency = concurrency;
+        this.openLoopSchedule = openLoopSchedule;
+        this.operationMix = operationMix;
         this.clients = new ArrayList<>();
         this.workers = new ArrayList<>();
         this.cluster = new HashMap<>();
@@ -103,10 +118,11 @@ public class KVModel implements Model {
             log.info("KV client setup...");
 
             for (int i = 0; i < concurrency; i++) {
-                Client client = new KVClient(driver, recorder, key);
+                Client client = new KVClient(driver, recorder, key, operationMix);
                 client.setup();
                 clients.add(client);
-                ClientWorker clientWorker = new ClientWorker("kvClient-" + i, client, rateLimiter, log);
+                ClientWorker clientWorker = openLoopSchedule != null ? new ClientWorker("kvClient-" + i, client, openLoopSchedule, log)
+                    : new ClientWorker("kvClient-" + i, client, rateLimiter, log);
                 workers.add(clientWorker);
             }
 
@@ -25,14 +25,20 @@ import io.openchaos.client.QueueClient;
 import io.openchaos.driver.ChaosNode;
 import io.openchaos.driver.queue.QueueDriver;
 import io.openchaos.worker.ClientWorker;
+import io.openchaos.worker.OpenLoopSchedule;
 import io.openchaos.worker.Worker;
 import io.openchaos.common.utils.Utils;
 import io.openchaos.recorder.Recorder;
+import io.openchaos.workload.PayloadSizes;
+import io.openchaos.workload.ShardingKeyConfiguration;
+import io.openchaos.workload.ShardingKeySelector;
+import io.openchaos.workload.WorkloadConfiguration;
 import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -44,6 +50,7 @@ import org.slf4j.LoggerFactory;
 
 public class QueueModel implements Model {
     public static final String MODEL_NAME = "queue";
+    public static final int DEFAULT_PARTITION_COUNT = 8;
     private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
     private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory())
         .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -61,6 +68,9 @@ public class QueueModel implements Model {
     private final Recorder recorder;
     private final File driverConfigFile;
     private final int concurrency;
+    private final int consumerConcurrency;
+    private final int topicCount;
+    private final int partitionCount;
     private final RateLimiter rateLimiter;
     private QueueDriver pubSubDriver;
     private final String chaosTopic;
@@ -69,10 +79,31 @@ public class QueueModel implements Model {
     private final List<String> shardingKeys;
     private boolean restart;
     private final AtomicLong msgReceivedCount = new AtomicLong(0);
+    private final int maxInFlight;
+    private final int batchSize;
+    private final OpenLoopSchedule openLoopSchedule;
+    private final WorkloadConfiguration workload;
 
     public QueueModel(int concurrency, RateLimiter rateLimiter, Recorder recorder, File driverConfigFile,
         boolean isOrderTest, boolean isUsePull, List<String> shardingKeys) {
+        this(concurrency, 0, 1, DEFAULT_PARTITION_COUNT, rateLimiter, recorder, driverConfigFile, isOrderTest, isUsePull, shardingKeys, 1, 1, null, null);
+    }
+
+    /**
+     * @param concurrency number of clients which enqueue
+     * @param consumerConcurrency number of clients which consume only, 0 to consume in every client which enqueues
+     * @param topicCount number of topics, producers are spread across topics and consumers subscribe across them
+     * @param partitionCount number of partitions of every topic
+     * @param openLoopSchedule schedule of requests in open-loop mode, null to pace clients with the rate limiter
+     * @param workload payload sizes and sharding key selection of clients, null for the default workload
+     */
+    public QueueModel(int concurrency, int consumerConcurrency, int topicCount, int partitionCount, RateLimiter rateLimiter, Recorder recorder, File driverConfigFile,
+        boolean isOrderTest, boolean isUsePull, List<String> shardingKeys, int maxInFlight, int batchSize,
+        OpenLoopSchedule openLoopSchedule, WorkloadConfiguration workload) {
         this.concurrency = concurrency;
+        this.consumerConcurrency = consumerConcurrency;
+        this.topicCount = topicCount;
+        this.partitionCount = partitionCount;
         this.recorder = recorder;
         this.driverConfigFile = driverConfigFile;
         this.rateLimiter = rateLimiter;
@@ -84,6 +115,10 @@ public class QueueModel implements Model {
         this.isOrderTest = isOrderTest;
         this.isUsePull = isUsePull;
         this.shardingKeys = shardingKeys;
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+        this.openLoopSchedule = openLoopSchedule;
+        this.workload = workload;
     }
 
     private static QueueDriver createChaosDriver(File driverConfigFile) throws IOException {
@@ -173,33 +208,76 @@ public class QueueModel implements Model {
                 pubSubDriver = createChaosDriver(driverConfigFile);
             }
 
-            String newTopicName = chaosTopic;
+            List<String> topics = new ArrayList<>();
             if(pubSubDriver.useMyTopic()){
-                newTopicName = pubSubDriver.myTopic();
-                log.info("Reuse existed chaos topic : {}", newTopicName);
+                topics.add(pubSubDriver.myTopic());
+                log.info("Reuse existed chaos topic : {}", pubSubDriver.myTopic());
+                if (topicCount > 1) {
+                    log.warn("Driver uses its own topic, topic count {} is ignored", topicCount);
+                }
             } else {
-                log.info("Create chaos topic : {}", chaosTopic);
-                pubSubDriver.createTopic(chaosTopic, 8);
+                for (int i = 0; i < topicCount; i++) {
+                    String topic = topicCount == 1 ? chaosTopic : chaosTopic + "-" + i;
+                    log.info("Create chaos topic : {} with {} partitions", topic, partitionCount);
+                    pubSubDriver.createTopic(topic, partitionCount);
+                    topics.add(topic);
+                }
             }
+            //Entries only carry their topic when there is more than one, so single topic histories stay unchanged
+            boolean recordTopic = topics.size() > 1;
 
             log.info("Clients setup..");
 
+            ShardingKeyConfiguration shardingKeyConfiguration = workload != null ? workload.shardingKey : null;
+            PayloadSizes payloadSizes = workload != null && workload.payloadSize != null ? PayloadSizes.create(workload.payloadSize) : null;
+            //Order test needs every key enqueued by one client only, other tests share all keys when a key distribution is configured
             List<List<String>> shardingKeyLists = Utils.partitionList(shardingKeys, concurrency);
+            ShardingKeySelector sharedSelector = !isOrderTest && shardingKeyConfiguration != null
+                ? ShardingKeySelector.create(shardingKeyConfiguration, shardingKeys) : null;
+            QueueClient.Role producerRole = consumerConcurrency > 0 ? QueueClient.Role.PRODUCER : QueueClient.Role.PRODUCER_AND_CONSUMER;
             for (int i = 0; i < concurrency; i++) {
-                Client client = new QueueClient(pubSubDriver, newTopicName, recorder, isOrderTest, isUsePull, shardingKeyLists.get(i), msgReceivedCount);
+                ShardingKeySelector shardingKeySelector = isOrderTest
+                    ? ShardingKeySelector.create(shardingKeyConfiguration, shardingKeyLists.get(i)) : sharedSelector;
+                Client client = new QueueClient(pubSubDriver, topics.get(i % topics.size()), recorder, isUsePull, shardingKeySelector,
+                    payloadSizes, msgReceivedCount, maxInFlight, batchSize, producerRole, recordTopic);
                 client.setup();
                 clients.add(client);
-                ClientWorker clientWorker = new ClientWorker("queueClient-" + i, client, rateLimiter, log);
+                ClientWorker clientWorker = openLoopSchedule != null ? new ClientWorker("queueClient-" + i, client, openLoopSchedule, log)
+                    : new ClientWorker("queueClient-" + i, client, rateLimiter, log);
                 workers.add(clientWorker);
             }
 
-            log.info("{} clients setup success", concurrency);
+            //Pull consumers dequeue in their own workers as fast as they can, push consumers run in the threads of driver
+            for (int i = 0; i < consumerConcurrency; i++) {
+                Client client = new QueueClient(pubSubDriver, consumeTopics(topics, i), recorder, isUsePull, msgReceivedCount, recordTopic);
+                client.setup();
+                clients.add(client);
+                if (isUsePull) {
+                    workers.add(new ClientWorker("queueConsumer-" + i, client, log));
+                }
+            }
+
+            log.info("{} clients and {} consumer clients setup success", concurrency, consumerConcurrency);
         } catch (Exception e) {
             log.error("Queue model setupClient fail", e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Topics of the consumer client of the index, every topic has at least one consumer client
+     */
+    private List<String> consumeTopics(List<String> topics, int index) {
+        if (consumerConcurrency >= topics.size()) {
+            return Collections.singletonList(topics.get(index % topics.size()));
+        }
+        List<String> consumeTopics = new ArrayList<>();
+        for (int i = index; i < topics.size(); i += consumerConcurrency) {
+            consumeTopics.add(topics.get(i));
+        }
+        return consumeTopics;
+    }
+
     @Override
     public void start() {
         log.info("Start all clients...");
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encode entries in {@link BinaryHistoryFormat}. Each record is assembled in a reusable buffer and written to the
+ * stream with one call
+ */
+public class BinaryHistoryEncoder implements HistoryEncoder {
+
+    private byte[] buffer = new byte[256];
+    private int position;
+    private long lastTimestamp = 0;
+
+    @Override
+    public void writeHeader(OutputStream out) throws IOException {
+        out.write(BinaryHistoryFormat.MAGIC);
+        out.write(BinaryHistoryFormat.VERSION);
+    }
+
+    @Override
+    public void encode(LogEntry logEntry, OutputStream out) throws IOException {
+        position = 0;
+        if (logEntry instanceof RequestLogEntry) {
+            RequestLogEntry entry = (RequestLogEntry) logEntry;
+            writeHead(BinaryHistoryFormat.KIND_REQUEST, entry.operation, BinaryHistoryFormat.RESULT_NONE);
+            writeVarLong(BinaryHistoryFormat.zigzag(entry.clientId));
+            writeTimestamp(entry.timestamp);
+            writeString(entry.value);
+            writeString(entry.shardingKey);
+            writeString(entry.extraInfo);
+            writeVarLong(entry.scheduledTimestamp < 0 ? 0 : BinaryHistoryFormat.zigzag(entry.timestamp - entry.scheduledTimestamp) + 1);
+            writeString(entry.topic);
+        } else if (logEntry instanceof ResponseLogEntry) {
+            ResponseLogEntry entry = (ResponseLogEntry) logEntry;
+            writeHead(BinaryHistoryFormat.KIND_RESPONSE, entry.operation, BinaryHistoryFormat.resultCode(entry.result));
+            writeVarLong(BinaryHistoryFormat.zigzag(entry.clientId));
+            writeTimestamp(entry.timestamp);
+            writeString(entry.value);
+            writeString(entry.shardingKey);
+            writeVarLong(BinaryHistoryFormat.zigzag(entry.sendLatency));
+            writeString(entry.extraInfo);
+            writeVarLong(BinaryHistoryFormat.zigzag(entry.endToEndLatency));
+            writeString(entry.topic);
+        } else if (logEntry instanceof FaultLogEntry) {
+            FaultLogEntry entry = (FaultLogEntry) logEntry;
+            writeHead(BinaryHistoryFormat.KIND_FAULT, entry.operation, BinaryHistoryFormat.RESULT_NONE);
+            writeTimestamp(entry.timestamp);
+            writeString(entry.faultName);
+        } else {
+            throw new IllegalArgumentException("Unknown log entry " + logEntry.getClass().getName());
+        }
+        out.write(buffer, 0, position);
+    }
+
+    private void writeHead(byte kind, String operation, byte result) {
+        byte operationCode = BinaryHistoryFormat.operationCode(operation);
+        ensureCapacity(3);
+        buffer[position++] = kind;
+        buffer[position++] = operationCode;
+        buffer[position++] = result;
+        if (operationCode == BinaryHistoryFormat.OPERATION_CUSTOM) {
+            writeString(operation);
+        }
+    }
+
+    private void writeTimestamp(long timestamp) {
+        writeVarLong(BinaryHistoryFormat.zigzag(timestamp - lastTimestamp));
+        lastTimestamp = timestamp;
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            writeVarLong(length + 1);
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = (byte) value.charAt(i);
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (position + size > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + size));
+        }
+    }
+}
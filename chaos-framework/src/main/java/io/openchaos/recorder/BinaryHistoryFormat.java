@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import io.openchaos.common.InvokeResult;
+
+/**
+ * Layout of the binary history file.
+ * <pre>
+ * file   := MAGIC VERSION record*
+ * record := kind(1) operation(1) result(1) [operationName] body
+ *   operationName  := string, only present when operation is OPERATION_CUSTOM
+ *   request body   := clientId timestampDelta value shardingKey extraInfo scheduledDelay topic
+ *   response body  := clientId timestampDelta value shardingKey sendLatency extraInfo endToEndLatency topic
+ *   fault body     := timestampDelta faultName
+ * string := varint(length + 1) utf8-bytes, a length of 0 means null
+ * </pre>
+ * clientId, latencies and timestamp deltas are zigzag varints. The timestamp delta is relative to the previous record
+ * of the same file (the first record is relative to 0). scheduledDelay is 0 when the request was not scheduled,
+ * otherwise the zigzag varint of timestamp minus scheduled timestamp plus 1. topic is null unless the queue model has
+ * more than one topic.
+ * <p>
+ * Kind 0 is never written, a zero byte where a record is expected marks the end of records in a preallocated segment.
+ */
+public final class BinaryHistoryFormat {
+
+    public static final byte[] MAGIC = {'O', 'C', 'H', 'B'};
+    public static final byte VERSION = 1;
+
+    public static final byte KIND_END = 0;
+    public static final byte KIND_REQUEST = 1;
+    public static final byte KIND_RESPONSE = 2;
+    public static final byte KIND_FAULT = 3;
+
+    public static final byte OPERATION_CUSTOM = 0;
+    /**
+     * Well known operations, indexed by their code
+     */
+    private static final String[] OPERATIONS = {null, "enqueue", "dequeue", "put", "get", "getAll", "delete", "start", "end"};
+
+    public static final byte RESULT_NONE = 0;
+    private static final InvokeResult[] RESULTS = {null, InvokeResult.SUCCESS, InvokeResult.FAILURE, InvokeResult.UNKNOWN};
+
+    private BinaryHistoryFormat() {
+    }
+
+    public static byte operationCode(String operation) {
+        for (int i = 1; i < OPERATIONS.length; i++) {
+            if (OPERATIONS[i].equals(operation)) {
+                return (byte) i;
+            }
+        }
+        return OPERATION_CUSTOM;
+    }
+
+    public static String operation(byte code) {
+        if (code <= OPERATION_CUSTOM || code >= OPERATIONS.length) {
+            throw new IllegalArgumentException("Unknown operation code " + code);
+        }
+        return OPERATIONS[code];
+    }
+
+    public static byte resultCode(InvokeResult result) {
+        return result == null ? RESULT_NONE : (byte) (result.ordinal() + 1);
+    }
+
+    public static InvokeResult result(byte code) {
+        if (code < RESULT_NONE || code >= RESULTS.length) {
+            throw new IllegalArgumentException("Unknown result code " + code);
+        }
+        return RESULTS[code];
+    }
+
+    public static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
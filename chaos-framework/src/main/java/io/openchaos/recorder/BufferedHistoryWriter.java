@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write the history through one synchronized history store
+ */
+public class BufferedHistoryWriter implements HistoryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(BufferedHistoryWriter.class);
+
+    private final HistoryStore store;
+
+    private long writtenCount;
+
+    private long droppedWriteCount;
+
+    public BufferedHistoryWriter(HistoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public synchronized void write(LogEntry logEntry) {
+        try {
+            store.append(logEntry);
+            writtenCount++;
+        } catch (IOException e) {
+            droppedWriteCount++;
+            log.error("Record to history file fail", e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            store.flush();
+        } catch (IOException e) {
+            log.error("Recorder shutdown fail", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            log.error("Recorder shutdown fail", e);
+        }
+    }
+
+    @Override
+    public synchronized RecorderMetrics getMetrics() {
+        RecorderMetrics metrics = new RecorderMetrics();
+        metrics.mode = "sync";
+        metrics.writtenCount = writtenCount;
+        metrics.droppedWriteCount = droppedWriteCount;
+        return metrics;
+    }
+}
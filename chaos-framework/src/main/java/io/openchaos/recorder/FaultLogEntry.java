@@ -14,7 +14,7 @@
 
 package io.openchaos.recorder;
 
-public class FaultLogEntry {
+public class FaultLogEntry implements LogEntry {
 
     public String faultName;
 
@@ -37,4 +37,9 @@ public class FaultLogEntry {
         this.timestamp = timestamp;
         this.extraInfo = extraInfo;
     }
+
+    @Override
+    public String toString() {
+        return "fault\t" + faultName + '\t' + operation + '\t' + timestamp + '\n';
+    }
 }
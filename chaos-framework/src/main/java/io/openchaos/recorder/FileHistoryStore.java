@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Store the whole history in one file through a buffered stream
+ */
+public class FileHistoryStore implements HistoryStore {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final HistoryEncoder encoder;
+
+    public FileHistoryStore(File historyFile, HistoryFormat format) throws IOException {
+        this.out = new BufferedOutputStream(new FileOutputStream(historyFile), WRITE_BUFFER_SIZE);
+        this.encoder = HistoryEncoder.create(format);
+        try {
+            encoder.writeHeader(out);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void append(LogEntry logEntry) throws IOException {
+        encoder.encode(logEntry, out);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
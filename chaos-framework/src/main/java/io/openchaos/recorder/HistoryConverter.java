@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import io.openchaos.checker.HistoryReader;
+import io.openchaos.checker.HistoryRecord;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Convert a history file between text and binary format.
+ * <p>
+ * Usage: HistoryConverter &lt;input&gt; &lt;output&gt; [text|binary], the output is text by default, so a binary history
+ * can be turned back into the human readable one.
+ */
+public class HistoryConverter {
+
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    public static long convert(String inputPath, String outputPath, HistoryFormat format) throws IOException {
+        HistoryEncoder encoder = HistoryEncoder.create(format);
+        long count = 0;
+        try (HistoryReader reader = HistoryReader.open(inputPath);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath), WRITE_BUFFER_SIZE)) {
+            encoder.writeHeader(out);
+            HistoryRecord record;
+            while ((record = reader.next()) != null) {
+                encoder.encode(record.toLogEntry(), out);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: HistoryConverter <input> <output> [text|binary]");
+            System.exit(1);
+        }
+        HistoryFormat format = args.length > 2 ? HistoryFormat.valueOf(args[2].toUpperCase()) : HistoryFormat.TEXT;
+        long count = convert(args[0], args[1], format);
+        System.out.printf("Convert %d records from %s to %s (%s)%n", count, args[0], args[1], format.name().toLowerCase());
+    }
+}
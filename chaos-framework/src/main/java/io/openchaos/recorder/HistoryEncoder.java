@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encode log entries into the bytes of history file. An encoder is used by one writer at a time and may keep state
+ * between entries
+ */
+public interface HistoryEncoder {
+
+    /**
+     * Write the file header, invoked once before the first entry
+     */
+    default void writeHeader(OutputStream out) throws IOException {
+    }
+
+    void encode(LogEntry logEntry, OutputStream out) throws IOException;
+
+    static HistoryEncoder create(HistoryFormat format) {
+        switch (format) {
+            case BINARY:
+                return new BinaryHistoryEncoder();
+            case TEXT:
+            default:
+                return new TextHistoryEncoder();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+/**
+ * Observe the entries of history while they are recorded. Entries are delivered one at a time in history order, from
+ * the thread which appends them to the history store
+ */
+public interface HistoryListener {
+
+    void onEntry(LogEntry logEntry);
+
+    /**
+     * Called once when an entry could not be delivered, no more entries are delivered afterwards
+     *
+     * @param cause what the listener threw
+     */
+    void onFailure(Throwable cause);
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manifest of a segmented history directory, which lists the segments in write order. It is a small text file with
+ * one tab separated item per line:
+ * <pre>
+ * format      text|binary
+ * segmentSize bytes
+ * segment     name length recordCount sealed|open
+ * </pre>
+ * The length of an open segment is unknown (-1), its records end at the first zero byte of the segment.
+ */
+public class HistoryManifest {
+
+    public static final String MANIFEST_FILE = "manifest";
+
+    public HistoryFormat format;
+
+    public long segmentSize;
+
+    public List<Segment> segments = new ArrayList<>();
+
+    public static class Segment {
+        public String name;
+        public long length = -1;
+        public long recordCount;
+        public boolean sealed;
+    }
+
+    public static boolean exists(File directory) {
+        return new File(directory, MANIFEST_FILE).isFile();
+    }
+
+    public static HistoryManifest read(File directory) throws IOException {
+        HistoryManifest manifest = new HistoryManifest();
+        for (String line : Files.readAllLines(new File(directory, MANIFEST_FILE).toPath(), StandardCharsets.UTF_8)) {
+            String[] items = line.split("\t");
+            switch (items[0]) {
+                case "format":
+                    manifest.format = HistoryFormat.valueOf(items[1].toUpperCase());
+                    break;
+                case "segmentSize":
+                    manifest.segmentSize = Long.parseLong(items[1]);
+                    break;
+                case "segment":
+                    Segment segment = new Segment();
+                    segment.name = items[1];
+                    segment.length = Long.parseLong(items[2]);
+                    segment.recordCount = Long.parseLong(items[3]);
+                    segment.sealed = "sealed".equals(items[4]);
+                    manifest.segments.add(segment);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Replace the manifest atomically, so a crash leaves either the old or the new one
+     */
+    public void write(File directory) throws IOException {
+        Path tmp = new File(directory, MANIFEST_FILE + ".tmp").toPath();
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write("format\t" + format.name().toLowerCase() + '\n');
+            writer.write("segmentSize\t" + segmentSize + '\n');
+            for (Segment segment : segments) {
+                writer.write("segment\t" + segment.name + '\t' + segment.length + '\t' + segment.recordCount + '\t'
+                    + (segment.sealed ? "sealed" : "open") + '\n');
+            }
+        }
+        Files.move(tmp, new File(directory, MANIFEST_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+}
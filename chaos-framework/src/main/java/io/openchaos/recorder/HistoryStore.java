@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where the encoded history is stored. A store is used by one writer at a time, the writer is responsible for
+ * concurrency
+ */
+public interface HistoryStore extends Closeable {
+
+    void append(LogEntry logEntry) throws IOException;
+
+    void flush() throws IOException;
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+/**
+ * Write log entries to the history file
+ */
+public interface HistoryWriter {
+
+    /**
+     * Append an entry to the history file. May be invoked concurrently by many client threads
+     */
+    void write(LogEntry logEntry);
+
+    /**
+     * Make all entries written before this invocation visible in the history file
+     */
+    void flush();
+
+    /**
+     * Flush and release the history file. Entries written after close are dropped
+     */
+    void close();
+
+    /**
+     * @return metrics of this writer
+     */
+    RecorderMetrics getMetrics();
+}
@@ -16,5 +16,6 @@ package io.openchaos.recorder;
 
 public enum LogEntryType {
     REQUEST,
-    RESPONSE
+    RESPONSE,
+    FAULT
 }
@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Store the history in a directory of fixed-size memory-mapped segments. Records are appended to the mapped segment
+ * without a system call, and a new segment is started when the record does not fit in the current one, so a record
+ * never spans two segments.
+ * <p>
+ * Every segment is a complete history file with its own header and encoder state, so segments can be read
+ * independently. A full segment is forced, unmapped and truncated to its written length, then sealed in the
+ * {@link HistoryManifest}. After a crash only the last segment is open, and its records end at the zero-filled unused
+ * tail, which is also kept when the JVM does not allow unmapping.
+ */
+public class MappedSegmentHistoryStore implements HistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedSegmentHistoryStore.class);
+
+    private final File directory;
+    private final HistoryFormat format;
+    private final int segmentSize;
+    private final HistoryManifest manifest = new HistoryManifest();
+    private final RecordBuffer recordBuffer = new RecordBuffer();
+
+    private HistoryEncoder encoder;
+    private HistoryManifest.Segment segment;
+    private FileChannel channel;
+    private MappedByteBuffer mappedBuffer;
+
+    public MappedSegmentHistoryStore(File directory, HistoryFormat format, int segmentSize) throws IOException {
+        if (!directory.mkdirs()) {
+            throw new IOException("Create history directory " + directory + " failed");
+        }
+        this.directory = directory;
+        this.format = format;
+        this.segmentSize = segmentSize;
+        manifest.format = format;
+        manifest.segmentSize = segmentSize;
+        rollSegment(0);
+    }
+
+    @Override
+    public void append(LogEntry logEntry) throws IOException {
+        recordBuffer.reset();
+        encoder.encode(logEntry, recordBuffer);
+        if (recordBuffer.size() > mappedBuffer.remaining()) {
+            rollSegment(recordBuffer.size());
+            recordBuffer.reset();
+            encoder.encode(logEntry, recordBuffer);
+        }
+        recordBuffer.writeTo(mappedBuffer);
+        segment.recordCount++;
+    }
+
+    /**
+     * Records are in the page cache as soon as they are appended, so they are already visible to readers and survive a
+     * crash of the process. Nothing is forced here, the writer flushes whenever it goes idle
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Force the records of the open segment to disk so they survive a crash of the machine as well, sealed segments
+     * have been forced already
+     */
+    public void force() {
+        mappedBuffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            sealSegment();
+            manifest.write(directory);
+        }
+    }
+
+    /**
+     * Seal the current segment and map a new one that can hold at least the header and a record of given size
+     */
+    private void rollSegment(int recordSize) throws IOException {
+        if (channel != null) {
+            sealSegment();
+        }
+        encoder = HistoryEncoder.create(format);
+        recordBuffer.reset();
+        encoder.writeHeader(recordBuffer);
+        int mappedSize = Math.max(segmentSize, recordBuffer.size() + recordSize);
+
+        segment = new HistoryManifest.Segment();
+        segment.name = String.format("segment-%06d", manifest.segments.size());
+        manifest.segments.add(segment);
+        //List the open segment before writing to it, so it can be found after a crash
+        manifest.write(directory);
+
+        channel = FileChannel.open(new File(directory, segment.name).toPath(), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+        recordBuffer.writeTo(mappedBuffer);
+        log.info("Record history to segment {}, size is {}", segment.name, mappedSize);
+    }
+
+    private void sealSegment() throws IOException {
+        int length = mappedBuffer.position();
+        mappedBuffer.force();
+        //A file can not be truncated while it is mapped on some platforms
+        if (unmap(mappedBuffer)) {
+            channel.truncate(length);
+        }
+        channel.close();
+        channel = null;
+        mappedBuffer = null;
+        segment.length = length;
+        segment.sealed = true;
+    }
+
+    /**
+     * Release the mapping now instead of when the buffer is garbage collected, the buffer must not be used afterwards
+     *
+     * @return whether the buffer is unmapped
+     */
+    private static boolean unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                //Before Java 9
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+                return true;
+            }
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return true;
+        } catch (Exception e) {
+            log.warn("Unmap history segment failed, keep its unused tail", e);
+            return false;
+        }
+    }
+
+    private static class RecordBuffer extends ByteArrayOutputStream {
+
+        RecordBuffer() {
+            super(256);
+        }
+
+        void writeTo(MappedByteBuffer target) {
+            target.put(buf, 0, count);
+        }
+    }
+}
@@ -14,9 +14,7 @@
 
 package io.openchaos.recorder;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,87 +26,105 @@ public class Recorder {
 
     private static final Logger log = LoggerFactory.getLogger(Recorder.class);
 
-    private BufferedWriter bufferedWriter;
+    private HistoryWriter historyWriter;
 
     private File historyFile;
 
-    private Recorder(File historyFile, BufferedWriter bufferedWriter) {
+    private Recorder(File historyFile, HistoryWriter historyWriter) {
         this.historyFile = historyFile;
-        this.bufferedWriter = bufferedWriter;
+        this.historyWriter = historyWriter;
     }
 
     public static Recorder newRecorder(String historyFileName) {
+        return newRecorder(historyFileName, new RecorderConfig());
+    }
+
+    public static Recorder newRecorder(String historyFileName, RecorderConfig recorderConfig) {
+        return newRecorder(historyFileName, recorderConfig, null);
+    }
+
+    /**
+     * @param historyListener receives every entry after it is stored, may be null
+     */
+    public static Recorder newRecorder(String historyFileName, RecorderConfig recorderConfig,
+        HistoryListener historyListener) {
 
         File historyFile = new File(historyFileName);
         if (historyFile.exists()) {
             log.error("{} file already exist.", historyFileName);
             return null;
         }
-        BufferedWriter bufferedWriter = null;
+        HistoryStore store;
         try {
-            bufferedWriter = new BufferedWriter(new FileWriter(historyFileName));
+            if (recorderConfig.segmentSize > 0) {
+                store = new MappedSegmentHistoryStore(historyFile, recorderConfig.format, recorderConfig.segmentSize);
+            } else {
+                store = new FileHistoryStore(historyFile, recorderConfig.format);
+            }
         } catch (IOException e) {
             log.error("New {} writer failed", historyFileName, e);
+            return null;
+        }
+        if (historyListener != null) {
+            store = new TeeHistoryStore(store, historyListener);
         }
 
-        if (bufferedWriter != null) {
-            return new Recorder(historyFile, bufferedWriter);
+        log.info("Record history in {} format", recorderConfig.format);
+        if (recorderConfig.segmentSize > 0) {
+            log.info("Record history to memory-mapped segments of {} bytes in {}", recorderConfig.segmentSize, historyFileName);
+        }
+
+        if (recorderConfig.async) {
+            log.info("Record history asynchronously, ring buffer size is {}", recorderConfig.bufferSize);
+            return new Recorder(historyFile, new RingBufferHistoryWriter(store, recorderConfig.bufferSize));
         } else {
-            return null;
+            return new Recorder(historyFile, new BufferedHistoryWriter(store));
         }
     }
 
 
     public void recordRequest(RequestLogEntry requestLogEntry) {
-        recordToHistoryFile(requestLogEntry.toString());
+        historyWriter.write(requestLogEntry);
 
-        String logLine = "client" + requestLogEntry.clientId + " request " + requestLogEntry.operation + ", data is " + requestLogEntry.value;
-        log.info(logLine);
+        if (log.isDebugEnabled()) {
+            log.debug("client{} request {}, data is {}", requestLogEntry.clientId, requestLogEntry.operation, requestLogEntry.value);
+        }
     }
 
     public void recordResponse(ResponseLogEntry responseLogEntry) {
-        recordToHistoryFile(responseLogEntry.toString());
+        historyWriter.write(responseLogEntry);
 
-        String logLine = "client" + responseLogEntry.clientId + " " + responseLogEntry.operation + " response " + responseLogEntry.result + ", data is " + responseLogEntry.value;
-        log.info(logLine);
+        if (log.isDebugEnabled()) {
+            log.debug("client{} {} response {}, data is {}", responseLogEntry.clientId, responseLogEntry.operation, responseLogEntry.result, responseLogEntry.value);
+        }
     }
 
     public void recordFault(FaultLogEntry faultLogEntry) {
-        recordToHistoryFile(String.format("fault\t%s\t%s\t%d\n", faultLogEntry.faultName, faultLogEntry.operation, faultLogEntry.timestamp));
+        historyWriter.write(faultLogEntry);
     }
 
-    private synchronized void recordToHistoryFile(String recordLine) {
-        try {
-            bufferedWriter.write(recordLine);
-        } catch (IOException e) {
-            log.error("Record to history file fail", e);
-        }
+    public RecorderMetrics getMetrics() {
+        return historyWriter.getMetrics();
     }
 
     public void flush() {
-        try {
-            bufferedWriter.flush();
-        } catch (IOException e) {
-            log.error("Recorder shutdown fail", e);
-        }
+        historyWriter.flush();
     }
 
     public void close() {
-        try {
-            bufferedWriter.close();
-        } catch (IOException e) {
-            log.error("Recorder shutdown fail", e);
-        }
+        historyWriter.close();
     }
 
     public void delete() {
-        try {
-            bufferedWriter.close();
-            if (historyFile.exists()) {
-                historyFile.delete();
+        historyWriter.close();
+        File[] segments = historyFile.listFiles();
+        if (segments != null) {
+            for (File segment : segments) {
+                segment.delete();
             }
-        } catch (IOException e) {
-            log.error("", e);
+        }
+        if (historyFile.exists()) {
+            historyFile.delete();
         }
     }
 }
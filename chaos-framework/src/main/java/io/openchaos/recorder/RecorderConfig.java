@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+public class RecorderConfig {
+
+    /**
+     * Record through a lock-free ring buffer drained by a background writer thread instead of a synchronized writer
+     */
+    public boolean async = false;
+
+    /**
+     * Capacity of the ring buffer of async recorder, rounded up to a power of 2
+     */
+    public int bufferSize = 64 * 1024;
+
+    /**
+     * Encoding of the history file
+     */
+    public HistoryFormat format = HistoryFormat.TEXT;
+
+    /**
+     * Size in bytes of the memory-mapped segments the history is rolled into, 0 means a single history file
+     */
+    public int segmentSize = 0;
+}
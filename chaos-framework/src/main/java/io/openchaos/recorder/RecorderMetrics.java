@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+public class RecorderMetrics {
+
+    public String mode;
+
+    public long writtenCount;
+
+    public long queueDepth;
+
+    public long maxQueueDepth;
+
+    public long stalledWriteCount;
+
+    public long droppedWriteCount;
+
+    @Override
+    public String toString() {
+        return "RecorderMetrics{" +
+            "mode='" + mode + '\'' +
+            ", writtenCount=" + writtenCount +
+            ", queueDepth=" + queueDepth +
+            ", maxQueueDepth=" + maxQueueDepth +
+            ", stalledWriteCount=" + stalledWriteCount +
+            ", droppedWriteCount=" + droppedWriteCount +
+            '}';
+    }
+}
@@ -14,7 +14,7 @@
  
 package io.openchaos.recorder;
 
-public class RequestLogEntry {
+public class RequestLogEntry implements LogEntry {
     public int clientId;
     public String operation;
     public LogEntryType type = LogEntryType.REQUEST;
@@ -24,6 +24,14 @@ public class RequestLogEntry {
     public String shardingKey;
     public long timestamp;
     public String extraInfo;
+    /**
+     * The time the request was scheduled at in open-loop mode, -1 when requests are not scheduled
+     */
+    public long scheduledTimestamp = -1;
+    /**
+     * Topic of the request when the queue model has more than one topic, null otherwise
+     */
+    public String topic;
 
     //for enqueue
     public RequestLogEntry(int clientId, String operation, String value, long timestamp) {
@@ -61,8 +69,25 @@ public class RequestLogEntry {
         this.extraInfo = extraInfo;
     }
 
+    /**
+     * The time latency is measured from, the scheduled time rather than the actual send time in open-loop mode, so a
+     * request delayed by a stalled client still counts the delay
+     */
+    public long intendedTimestamp() {
+        return scheduledTimestamp >= 0 ? scheduledTimestamp : timestamp;
+    }
+
     @Override
     public String toString() {
-        return String.format("%d\t%s\t%s\t%s\t%s\t%d\t%s\n", clientId, operation, type, value, shardingKey, timestamp, extraInfo);
+        StringBuilder builder = new StringBuilder(64).append(clientId).append('\t').append(operation).append('\t').append(type)
+            .append('\t').append(value).append('\t').append(shardingKey).append('\t').append(timestamp)
+            .append('\t').append(extraInfo);
+        if (scheduledTimestamp >= 0 || topic != null) {
+            builder.append('\t').append(scheduledTimestamp);
+        }
+        if (topic != null) {
+            builder.append('\t').append(topic);
+        }
+        return builder.append('\n').toString();
     }
 }
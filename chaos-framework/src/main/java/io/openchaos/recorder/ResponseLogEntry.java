@@ -16,7 +16,7 @@ package io.openchaos.recorder;
 
 import io.openchaos.common.InvokeResult;
 
-public class ResponseLogEntry {
+public class ResponseLogEntry implements LogEntry {
     public int clientId;
     public String operation;
     public LogEntryType type = LogEntryType.RESPONSE;
@@ -27,6 +27,10 @@ public class ResponseLogEntry {
     public long sendLatency;
     public long endToEndLatency;
     public String extraInfo;
+    /**
+     * Topic of the response when the queue model has more than one topic, null otherwise
+     */
+    public String topic;
 
     public ResponseLogEntry(int clientId, String operation, InvokeResult result, String value, long timestamp,
         long sendLatency) {
@@ -87,6 +91,13 @@ public class ResponseLogEntry {
 
     @Override
     public String toString() {
-        return String.format("%d\t%s\t%s\t%s\t%s\t%s\t%d\t%d\t%s\t%d\n", clientId, operation, type, result, value, shardingKey, timestamp, sendLatency, extraInfo, endToEndLatency);
+        StringBuilder builder = new StringBuilder(96).append(clientId).append('\t').append(operation).append('\t').append(type)
+            .append('\t').append(result).append('\t').append(value).append('\t').append(shardingKey)
+            .append('\t').append(timestamp).append('\t').append(sendLatency).append('\t').append(extraInfo)
+            .append('\t').append(endToEndLatency);
+        if (topic != null) {
+            builder.append('\t').append(topic);
+        }
+        return builder.append('\n').toString();
     }
 }
@@ -0,0 +1,232 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write the history file from a single background thread. Client threads claim a slot of a bounded ring buffer with
+ * one atomic increment and publish the entry into it, the writer thread drains the slots in claim order, so the
+ * history file keeps the same order as a synchronized writer while formatting and I/O leave the client threads.
+ * <p>
+ * When the ring buffer is full, client threads wait for the writer instead of dropping entries, which is counted as a
+ * stalled write. Closing seals the claim sequence, every entry claimed before it is still written and every later write
+ * is counted as dropped.
+ */
+public class RingBufferHistoryWriter implements HistoryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBufferHistoryWriter.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Added to the claim sequence on close, sequences claimed afterwards are not less than it
+     */
+    private static final long SEALED = 1L << 62;
+
+    private final HistoryStore store;
+    private final AtomicReferenceArray<LogEntry> slots;
+    private final int capacity;
+    private final int mask;
+    private final Thread writerThread;
+
+    /**
+     * Next sequence to be claimed by client threads
+     */
+    private final AtomicLong claimSequence = new AtomicLong(0);
+
+    /**
+     * Claim sequence when the writer was closed, all sequences less than it are written
+     */
+    private volatile long endSequence = Long.MAX_VALUE;
+
+    /**
+     * All sequences less than it have been appended to the history store
+     */
+    private volatile long consumedSequence = 0;
+
+    /**
+     * All sequences less than it have been flushed to the history file
+     */
+    private volatile long flushedSequence = 0;
+
+    private volatile long flushRequestSequence = 0;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Set while the writer thread is about to block for the next entry, so client threads know to wake it up
+     */
+    private volatile boolean drainWaiting = false;
+
+    private final AtomicLong stalledWriteCount = new AtomicLong(0);
+    private final AtomicLong droppedWriteCount = new AtomicLong(0);
+    private volatile long maxQueueDepth = 0;
+
+    public RingBufferHistoryWriter(HistoryStore store, int bufferSize) {
+        this.store = store;
+        this.capacity = bufferSize <= 1 ? 2 : Integer.highestOneBit(bufferSize - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.writerThread = new Thread(this::drain, "history-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void write(LogEntry logEntry) {
+        if (closed) {
+            droppedWriteCount.incrementAndGet();
+            return;
+        }
+        long sequence = claimSequence.getAndIncrement();
+        if (sequence >= SEALED) {
+            droppedWriteCount.incrementAndGet();
+            return;
+        }
+        if (sequence - consumedSequence >= capacity) {
+            stalledWriteCount.incrementAndGet();
+            while (sequence - consumedSequence >= capacity) {
+                if (!writerThread.isAlive()) {
+                    droppedWriteCount.incrementAndGet();
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        slots.set((int) sequence & mask, logEntry);
+        if (drainWaiting) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void drain() {
+        long next = 0;
+        while (!closed || next < endSequence) {
+            int index = (int) next & mask;
+            LogEntry logEntry = slots.get(index);
+            if (logEntry == null) {
+                if (next < claimSequence.get()) {
+                    //Claimed but not published yet
+                    Thread.yield();
+                } else {
+                    flushIfRequested(next, true);
+                    awaitEntry(index);
+                }
+                continue;
+            }
+
+            long depth = claimSequence.get() - next;
+            if (depth > maxQueueDepth) {
+                maxQueueDepth = depth;
+            }
+
+            slots.lazySet(index, null);
+            try {
+                store.append(logEntry);
+            } catch (Exception e) {
+                droppedWriteCount.incrementAndGet();
+                log.error("Record to history file fail", e);
+            }
+            next++;
+            consumedSequence = next;
+            flushIfRequested(next, false);
+        }
+        flushIfRequested(next, true);
+    }
+
+    /**
+     * Block until an entry is published into the slot, or the writer is asked to flush or close
+     */
+    private void awaitEntry(int index) {
+        drainWaiting = true;
+        if (slots.get(index) == null && !closed && flushRequestSequence <= flushedSequence) {
+            LockSupport.park(this);
+        }
+        drainWaiting = false;
+    }
+
+    /**
+     * Flush when the writer goes idle, or when a pending {@link #flush()} has been reached
+     */
+    private void flushIfRequested(long next, boolean idle) {
+        if (flushedSequence >= next) {
+            return;
+        }
+        long request = flushRequestSequence;
+        if (!idle && (request <= flushedSequence || next < request)) {
+            return;
+        }
+        try {
+            store.flush();
+        } catch (IOException e) {
+            log.error("Flush history file fail", e);
+        }
+        flushedSequence = next;
+    }
+
+    @Override
+    public void flush() {
+        long target = claimSequence.get();
+        if (flushRequestSequence < target) {
+            flushRequestSequence = target;
+        }
+        LockSupport.unpark(writerThread);
+        while (flushedSequence < target && writerThread.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        endSequence = claimSequence.getAndAdd(SEALED);
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            log.error("Wait for history writer fail", e);
+            Thread.currentThread().interrupt();
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            log.error("Recorder shutdown fail", e);
+        }
+        log.info("History writer closed, {}", getMetrics());
+    }
+
+    @Override
+    public RecorderMetrics getMetrics() {
+        RecorderMetrics metrics = new RecorderMetrics();
+        metrics.mode = "async";
+        long consumed = consumedSequence;
+        metrics.writtenCount = consumed;
+        metrics.queueDepth = Math.max(0, Math.min(claimSequence.get(), endSequence) - consumed);
+        metrics.maxQueueDepth = maxQueueDepth;
+        metrics.stalledWriteCount = stalledWriteCount.get();
+        metrics.droppedWriteCount = droppedWriteCount.get();
+        return metrics;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pass every appended entry to a listener after it is stored. A failing listener never fails the recording, it is told
+ * about the failure and receives no more entries
+ */
+public class TeeHistoryStore implements HistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TeeHistoryStore.class);
+
+    private final HistoryStore store;
+    private final HistoryListener listener;
+    private boolean listenerFailed = false;
+
+    public TeeHistoryStore(HistoryStore store, HistoryListener listener) {
+        this.store = store;
+        this.listener = listener;
+    }
+
+    @Override
+    public void append(LogEntry logEntry) throws IOException {
+        store.append(logEntry);
+        if (listenerFailed) {
+            return;
+        }
+        try {
+            listener.onEntry(logEntry);
+        } catch (Throwable t) {
+            log.error("History listener failed", t);
+            listenerFailed = true;
+            listener.onFailure(t);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        store.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+}
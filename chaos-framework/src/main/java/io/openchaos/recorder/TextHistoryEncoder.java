@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.recorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tab separated text lines, the format parsed by {@link io.openchaos.checker.HistoryRecord#parse(String)}
+ */
+public class TextHistoryEncoder implements HistoryEncoder {
+
+    @Override
+    public void encode(LogEntry logEntry, OutputStream out) throws IOException {
+        out.write(logEntry.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -22,6 +22,8 @@ public class ClientWorker extends Worker {
 
     private RateLimiter rateLimiter;
 
+    private OpenLoopSchedule openLoopSchedule;
+
     private Client client;
 
     public ClientWorker(String name, Client client, RateLimiter rateLimiter, Logger log) {
@@ -30,9 +32,32 @@ public class ClientWorker extends Worker {
         this.rateLimiter = rateLimiter;
     }
 
+    /**
+     * Invoke again as soon as the client returns, for clients that wait on their own such as pull consumers
+     */
+    public ClientWorker(String name, Client client, Logger log) {
+        super(name, log);
+        this.client = client;
+    }
+
+    /**
+     * Invoke at the times of the open-loop schedule instead of acquiring the rate limiter
+     */
+    public ClientWorker(String name, Client client, OpenLoopSchedule openLoopSchedule, Logger log) {
+        super(name, log);
+        this.client = client;
+        this.openLoopSchedule = openLoopSchedule;
+    }
+
     @Override
     public void loop() {
-        rateLimiter.acquire();
+        if (openLoopSchedule != null) {
+            client.nextInvoke(openLoopSchedule.awaitNext());
+            return;
+        }
+        if (rateLimiter != null) {
+            rateLimiter.acquire();
+        }
         client.nextInvoke();
     }
 }
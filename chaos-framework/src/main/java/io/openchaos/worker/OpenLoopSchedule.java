@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.worker;
+
+import io.openchaos.workload.RateShape;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Schedule requests of all clients at fixed intervals for a given rate, no matter how many requests are outstanding.
+ * A client that falls behind its schedule sends at once, and the scheduled time is kept as the start of the latency,
+ * so stalls of the cluster are not hidden by the clients waiting for them (coordinated omission).
+ */
+public class OpenLoopSchedule {
+
+    private final double intervalNanos;
+    private final RateShape rateShape;
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * Time of the next slot relative to the start, only used when the rate varies
+     */
+    private final AtomicLong nextOffsetNanos = new AtomicLong();
+    private volatile boolean started;
+    private long startNanos;
+    private long startMillis;
+
+    public OpenLoopSchedule(double rate) {
+        this(rate, null);
+    }
+
+    /**
+     * @param rateShape variation of the rate over time, null for the constant rate
+     */
+    public OpenLoopSchedule(double rate, RateShape rateShape) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        this.rateShape = rateShape == null || rateShape.isConstant() ? null : rateShape;
+    }
+
+    /**
+     * Take the next slot of the schedule and wait until its time
+     *
+     * @return the scheduled time in milliseconds since epoch
+     */
+    public long awaitNext() {
+        start();
+        long scheduledNanos = startNanos + nextOffsetNanos();
+        long waitNanos;
+        while ((waitNanos = scheduledNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(scheduledNanos - startNanos);
+    }
+
+    private long nextOffsetNanos() {
+        if (rateShape == null) {
+            return (long) (sequence.getAndIncrement() * intervalNanos);
+        }
+        //Each slot is one interval of the rate at its own time after the previous slot
+        return nextOffsetNanos.getAndUpdate(offset ->
+            offset + (long) (intervalNanos / rateShape.multiplier(TimeUnit.NANOSECONDS.toMillis(offset))));
+    }
+
+    private void start() {
+        if (!started) {
+            synchronized (this) {
+                if (!started) {
+                    startMillis = System.currentTimeMillis();
+                    startNanos = System.nanoTime();
+                    started = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.worker;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.openchaos.workload.RateShape;
+import org.slf4j.Logger;
+
+/**
+ * Follow the rate shape by updating the rate of the rate limiter shared by client workers
+ */
+public class RateShapeWorker extends Worker {
+
+    private static final long UPDATE_INTERVAL_MS = 100;
+
+    private final RateLimiter rateLimiter;
+    private final double rate;
+    private final RateShape rateShape;
+    private long startTimestamp = -1;
+
+    public RateShapeWorker(RateLimiter rateLimiter, double rate, RateShape rateShape, Logger log) {
+        super("rateShapeWorker", log);
+        this.rateLimiter = rateLimiter;
+        this.rate = rate;
+        this.rateShape = rateShape;
+    }
+
+    @Override
+    public void loop() throws Exception {
+        long now = System.currentTimeMillis();
+        if (startTimestamp < 0) {
+            startTimestamp = now;
+        }
+        rateLimiter.setRate(rate * rateShape.multiplier(now - startTimestamp));
+        await(UPDATE_INTERVAL_MS);
+    }
+}
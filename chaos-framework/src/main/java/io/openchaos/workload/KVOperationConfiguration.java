@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.workload;
+
+/**
+ * Ratio of KV operations, ratios are relative weights and an operation with ratio 0 is never issued
+ */
+public class KVOperationConfiguration {
+
+    public double putRatio = 1;
+
+    /**
+     * Reads of values put successfully by the same client
+     */
+    public double getRatio;
+
+    /**
+     * Deletes of values put successfully by the same client
+     */
+    public double deleteRatio;
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.workload;
+
+import io.openchaos.generator.SequenceGenerator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Choose the next KV operation by the configured ratio, thread safe
+ */
+public class KVOperationMix {
+
+    private final String[] operations;
+    private final WeightedChoice choice;
+
+    private KVOperationMix(String[] operations, WeightedChoice choice) {
+        this.operations = operations;
+        this.choice = choice;
+    }
+
+    /**
+     * @param configuration null to put only
+     */
+    public static KVOperationMix create(KVOperationConfiguration configuration) {
+        if (configuration == null) {
+            return new KVOperationMix(new String[] {SequenceGenerator.PUT}, null);
+        }
+        if (configuration.putRatio < 0 || configuration.getRatio < 0 || configuration.deleteRatio < 0) {
+            throw new IllegalArgumentException("KV operation ratios should not be negative");
+        }
+        if (!(configuration.putRatio > 0)) {
+            throw new IllegalArgumentException("KV putRatio should be positive, reads and deletes need values put before");
+        }
+        List<String> operations = new ArrayList<>();
+        List<Double> ratios = new ArrayList<>();
+        add(operations, ratios, SequenceGenerator.PUT, configuration.putRatio);
+        add(operations, ratios, SequenceGenerator.GET, configuration.getRatio);
+        add(operations, ratios, SequenceGenerator.DELETE, configuration.deleteRatio);
+        if (operations.size() == 1) {
+            return new KVOperationMix(new String[] {SequenceGenerator.PUT}, null);
+        }
+        double[] weights = new double[ratios.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = ratios.get(i);
+        }
+        return new KVOperationMix(operations.toArray(new String[0]), new WeightedChoice(weights));
+    }
+
+    private static void add(List<String> operations, List<Double> ratios, String operation, double ratio) {
+        if (ratio > 0) {
+            operations.add(operation);
+            ratios.add(ratio);
+        }
+    }
+
+    /**
+     * @return operations issued with a positive ratio
+     */
+    public List<String> operations() {
+        return Arrays.asList(operations);
+    }
+
+    public boolean isPutOnly() {
+        return choice == null;
+    }
+
+    public String next() {
+        return choice == null ? operations[0] : operations[choice.next()];
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+import java.util.Map;
+
+public class PayloadSizeConfiguration {
+
+    /**
+     * fixed, uniform or histogram
+     */
+    public String distribution = PayloadSizes.FIXED;
+
+    /**
+     * Size in bytes of fixed distribution
+     */
+    public int size;
+
+    /**
+     * Inclusive bounds in bytes of uniform distribution
+     */
+    public int minSize;
+
+    public int maxSize;
+
+    /**
+     * Weight of each size in bytes of histogram distribution, eg. {1024: 70, 16384: 25, 65536: 5}
+     */
+    public Map<Integer, Double> histogram;
+}
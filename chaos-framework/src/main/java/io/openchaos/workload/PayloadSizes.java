@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sizes of padded queue payloads, thread safe. A padded payload starts with the unique value, followed by
+ * {@link #SEPARATOR} and padding up to the size, so checkers still identify messages by the value.
+ */
+public class PayloadSizes {
+
+    public static final String FIXED = "fixed";
+    public static final String UNIFORM = "uniform";
+    public static final String HISTOGRAM = "histogram";
+
+    public static final byte SEPARATOR = '#';
+
+    private static final byte[] PADDING_ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".getBytes();
+
+    private final int minSize;
+    private final int maxSize;
+    private final int[] histogramSizes;
+    private final WeightedChoice histogramChoice;
+    /**
+     * Random letters copied into payloads, so brokers can not compress the padding away
+     */
+    private final byte[] padding;
+
+    private PayloadSizes(int minSize, int maxSize, int[] histogramSizes, WeightedChoice histogramChoice) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.histogramSizes = histogramSizes;
+        this.histogramChoice = histogramChoice;
+        padding = new byte[maxSize];
+        Random random = new Random();
+        for (int i = 0; i < padding.length; i++) {
+            padding[i] = PADDING_ALPHABET[random.nextInt(PADDING_ALPHABET.length)];
+        }
+    }
+
+    public static PayloadSizes create(PayloadSizeConfiguration configuration) {
+        switch (configuration.distribution) {
+            case FIXED:
+                checkSize(configuration.size);
+                return new PayloadSizes(configuration.size, configuration.size, null, null);
+            case UNIFORM:
+                checkSize(configuration.minSize);
+                if (configuration.maxSize < configuration.minSize) {
+                    throw new IllegalArgumentException("Payload maxSize should not be less than minSize");
+                }
+                return new PayloadSizes(configuration.minSize, configuration.maxSize, null, null);
+            case HISTOGRAM:
+                if (configuration.histogram == null || configuration.histogram.isEmpty()) {
+                    throw new IllegalArgumentException("Payload histogram should not be empty");
+                }
+                int[] sizes = new int[configuration.histogram.size()];
+                double[] weights = new double[sizes.length];
+                int i = 0;
+                for (Map.Entry<Integer, Double> entry : configuration.histogram.entrySet()) {
+                    checkSize(entry.getKey());
+                    sizes[i] = entry.getKey();
+                    weights[i] = entry.getValue();
+                    i++;
+                }
+                int min = Integer.MAX_VALUE;
+                int max = 0;
+                for (int size : sizes) {
+                    min = Math.min(min, size);
+                    max = Math.max(max, size);
+                }
+                return new PayloadSizes(min, max, sizes, new WeightedChoice(weights));
+            default:
+                throw new IllegalArgumentException("Payload size distribution cannot be recognized: " + configuration.distribution);
+        }
+    }
+
+    private static void checkSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Payload size should be positive: " + size);
+        }
+    }
+
+    /**
+     * @return size of the next payload in bytes
+     */
+    public int next() {
+        if (histogramChoice != null) {
+            return histogramSizes[histogramChoice.next()];
+        }
+        if (minSize == maxSize) {
+            return minSize;
+        }
+        return minSize + ThreadLocalRandom.current().nextInt(maxSize - minSize + 1);
+    }
+
+    /**
+     * @return the largest size {@link #next()} returns
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Fill payload from offset to the end with the separator and padding
+     */
+    public void pad(byte[] payload, int offset) {
+        if (offset < payload.length) {
+            payload[offset] = SEPARATOR;
+            System.arraycopy(padding, 0, payload, offset + 1, payload.length - offset - 1);
+        }
+    }
+
+    /**
+     * @return the value of a payload, which is the part before the separator of a padded payload
+     */
+    public static String valueOf(byte[] payload) {
+        for (int i = 0; i < payload.length; i++) {
+            if (payload[i] == SEPARATOR) {
+                return new String(payload, 0, i);
+            }
+        }
+        return new String(payload);
+    }
+}
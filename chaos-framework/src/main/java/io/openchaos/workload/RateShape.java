@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multiplier of the request rate over the time of the test
+ */
+public class RateShape {
+
+    public static final String CONSTANT = "constant";
+    public static final String BURST = "burst";
+    public static final String DIURNAL = "diurnal";
+
+    private final String shape;
+    private final double burstMultiplier;
+    private final long burstMillis;
+    private final long burstIntervalMillis;
+    private final double amplitude;
+    private final long periodMillis;
+
+    private RateShape(RateShapeConfiguration configuration) {
+        shape = configuration.shape;
+        burstMultiplier = configuration.burstMultiplier;
+        burstMillis = TimeUnit.SECONDS.toMillis(configuration.burstSeconds);
+        burstIntervalMillis = TimeUnit.SECONDS.toMillis(configuration.burstIntervalSeconds);
+        amplitude = configuration.amplitude;
+        periodMillis = TimeUnit.SECONDS.toMillis(configuration.periodSeconds);
+    }
+
+    /**
+     * @param configuration null for the constant rate
+     */
+    public static RateShape create(RateShapeConfiguration configuration) {
+        if (configuration == null) {
+            configuration = new RateShapeConfiguration();
+        }
+        switch (configuration.shape) {
+            case CONSTANT:
+                break;
+            case BURST:
+                if (configuration.burstMultiplier <= 0) {
+                    throw new IllegalArgumentException("burstMultiplier should be positive");
+                }
+                if (configuration.burstSeconds <= 0 || configuration.burstIntervalSeconds < configuration.burstSeconds) {
+                    throw new IllegalArgumentException("burstSeconds should be positive and not more than burstIntervalSeconds");
+                }
+                break;
+            case DIURNAL:
+                if (configuration.amplitude < 0 || configuration.amplitude >= 1) {
+                    throw new IllegalArgumentException("amplitude should be in [0, 1)");
+                }
+                if (configuration.periodSeconds <= 0) {
+                    throw new IllegalArgumentException("periodSeconds should be positive");
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Rate shape cannot be recognized: " + configuration.shape);
+        }
+        return new RateShape(configuration);
+    }
+
+    public boolean isConstant() {
+        return CONSTANT.equals(shape);
+    }
+
+    /**
+     * @param elapsedMillis time since the start of the test
+     * @return multiplier of the rate at that time
+     */
+    public double multiplier(long elapsedMillis) {
+        switch (shape) {
+            case BURST:
+                return elapsedMillis % burstIntervalMillis >= burstIntervalMillis - burstMillis ? burstMultiplier : 1;
+            case DIURNAL:
+                return 1 + amplitude * Math.sin(2 * Math.PI * (elapsedMillis % periodMillis) / periodMillis);
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+public class RateShapeConfiguration {
+
+    /**
+     * constant, burst or diurnal
+     */
+    public String shape = RateShape.CONSTANT;
+
+    /**
+     * Rate of bursts as a multiple of the rate
+     */
+    public double burstMultiplier = 5;
+
+    /**
+     * Every burst interval ends with a burst of this length
+     */
+    public int burstSeconds = 10;
+
+    public int burstIntervalSeconds = 60;
+
+    /**
+     * Diurnal rate swings between rate * (1 - amplitude) and rate * (1 + amplitude) once per period
+     */
+    public double amplitude = 0.5;
+
+    public int periodSeconds = 600;
+}
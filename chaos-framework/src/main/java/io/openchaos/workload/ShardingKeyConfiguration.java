@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+public class ShardingKeyConfiguration {
+
+    /**
+     * uniform, zipfian or hotKey
+     */
+    public String distribution = ShardingKeySelector.UNIFORM;
+
+    /**
+     * Number of sharding keys, 0 means twice the concurrency
+     */
+    public int keyCount;
+
+    /**
+     * Exponent of zipfian distribution, the key of rank i has weight 1 / i^exponent
+     */
+    public double zipfianExponent = 0.99;
+
+    /**
+     * Number of hot keys of hotKey distribution
+     */
+    public int hotKeys = 1;
+
+    /**
+     * Share of messages sent with the hot keys of hotKey distribution
+     */
+    public double hotKeyTraffic = 0.8;
+}
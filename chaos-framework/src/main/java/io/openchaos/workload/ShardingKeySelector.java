@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Select sharding keys of queue messages, thread safe. Keys are ranked by their order in the list.
+ */
+public class ShardingKeySelector {
+
+    public static final String UNIFORM = "uniform";
+    public static final String ZIPFIAN = "zipfian";
+    public static final String HOT_KEY = "hotKey";
+
+    private final List<String> keys;
+    /**
+     * Null for uniform selection
+     */
+    private final WeightedChoice choice;
+
+    private ShardingKeySelector(List<String> keys, WeightedChoice choice) {
+        this.keys = keys;
+        this.choice = choice;
+    }
+
+    public static ShardingKeySelector uniform(List<String> keys) {
+        checkKeys(keys);
+        return new ShardingKeySelector(keys, null);
+    }
+
+    /**
+     * @param configuration null for uniform selection
+     */
+    public static ShardingKeySelector create(ShardingKeyConfiguration configuration, List<String> keys) {
+        if (configuration == null) {
+            return uniform(keys);
+        }
+        checkKeys(keys);
+        double[] weights = new double[keys.size()];
+        switch (configuration.distribution) {
+            case UNIFORM:
+                return uniform(keys);
+            case ZIPFIAN:
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = 1 / Math.pow(i + 1, configuration.zipfianExponent);
+                }
+                break;
+            case HOT_KEY:
+                if (configuration.hotKeyTraffic <= 0 || configuration.hotKeyTraffic >= 1) {
+                    throw new IllegalArgumentException("hotKeyTraffic should be between 0 and 1");
+                }
+                int hotKeys = Math.max(1, Math.min(configuration.hotKeys, keys.size()));
+                if (hotKeys == keys.size()) {
+                    return uniform(keys);
+                }
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = i < hotKeys ? configuration.hotKeyTraffic / hotKeys
+                        : (1 - configuration.hotKeyTraffic) / (keys.size() - hotKeys);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Sharding key distribution cannot be recognized: " + configuration.distribution);
+        }
+        return new ShardingKeySelector(keys, new WeightedChoice(weights));
+    }
+
+    private static void checkKeys(List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("Sharding keys should not be empty");
+        }
+    }
+
+    public String next() {
+        if (choice == null) {
+            return keys.get(ThreadLocalRandom.current().nextInt(keys.size()));
+        }
+        return keys.get(choice.next());
+    }
+}
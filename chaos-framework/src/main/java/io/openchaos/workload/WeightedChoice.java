@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Choose indexes at random in proportion to their weights, thread safe
+ */
+class WeightedChoice {
+
+    private final double[] cumulativeWeights;
+
+    WeightedChoice(double[] weights) {
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("Weights should not be empty");
+        }
+        cumulativeWeights = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (!(weights[i] > 0)) {
+                throw new IllegalArgumentException("Weight should be positive: " + weights[i]);
+            }
+            sum += weights[i];
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    int next() {
+        double point = ThreadLocalRandom.current().nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, point);
+        index = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(index, cumulativeWeights.length - 1);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+/**
+ * Workload profile of the driver configuration, every part is optional and falls back to the default workload
+ */
+public class WorkloadConfiguration {
+
+    /**
+     * Size of queue payloads, the default payload is the decimal value only
+     */
+    public PayloadSizeConfiguration payloadSize;
+
+    /**
+     * Selection of sharding keys of queue messages, the default is uniform selection in order test only
+     */
+    public ShardingKeyConfiguration shardingKey;
+
+    /**
+     * Variation of the request rate over time, the default is the constant rate
+     */
+    public RateShapeConfiguration rateShape;
+
+    /**
+     * Ratio of KV operations, the default is put only
+     */
+    public KVOperationConfiguration kvOperation;
+}
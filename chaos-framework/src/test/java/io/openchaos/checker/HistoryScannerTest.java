@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.checker;
+
+import io.openchaos.checker.result.TestResult;
+import io.openchaos.common.InvokeResult;
+import io.openchaos.recorder.ResponseLogEntry;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryScannerTest {
+
+    private static final int RECORD_COUNT = 200_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(timeout = 60_000)
+    public void testLaneErrorDoesNotBlockScan() throws IOException {
+        File history = writeHistory();
+        CountingSubscriber counting = new CountingSubscriber();
+        FailingSubscriber failing = new FailingSubscriber();
+        List<TestResult> results = new HistoryScanner(history.getPath(), 2).subscribe(failing).subscribe(counting).scan();
+
+        assertEquals("FailingSubscriber", results.get(0).name);
+        assertFalse(results.get(0).isValid);
+        assertTrue(failing.error instanceof Exception);
+        assertEquals(RECORD_COUNT, counting.count);
+        assertEquals(String.valueOf(RECORD_COUNT), results.get(1).name);
+    }
+
+    @Test
+    public void testInlineScan() throws IOException {
+        File history = writeHistory();
+        CountingSubscriber first = new CountingSubscriber();
+        CountingSubscriber second = new CountingSubscriber();
+        new HistoryScanner(history.getPath()).subscribe(first).subscribe(second).scan();
+        assertEquals(RECORD_COUNT, first.count);
+        assertEquals(RECORD_COUNT, second.count);
+    }
+
+    private File writeHistory() throws IOException {
+        File history = folder.newFile();
+        try (OutputStream out = Files.newOutputStream(history.toPath())) {
+            for (int i = 0; i < RECORD_COUNT; i++) {
+                out.write(new ResponseLogEntry(0, "enqueue", InvokeResult.SUCCESS, String.valueOf(i), i, 1).toString()
+                    .getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return history;
+    }
+
+    private static class CountingSubscriber implements HistorySubscriber {
+        private int count;
+
+        @Override
+        public void onRecord(HistoryRecord record) {
+            count++;
+        }
+
+        @Override
+        public void onError(Exception e) {
+        }
+
+        @Override
+        public TestResult onComplete() {
+            return new TestResult(String.valueOf(count));
+        }
+    }
+
+    private static class FailingSubscriber implements HistorySubscriber {
+        private volatile Exception error;
+
+        @Override
+        public void onRecord(HistoryRecord record) {
+            throw new AssertionError("broken checker");
+        }
+
+        @Override
+        public void onError(Exception e) {
+            error = e;
+        }
+
+        @Override
+        public TestResult onComplete() {
+            return error != null ? null : new TestResult("failing");
+        }
+    }
+}
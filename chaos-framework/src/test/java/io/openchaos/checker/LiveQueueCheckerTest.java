@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.checker;
+
+import io.openchaos.checker.result.QueueTestResult;
+import io.openchaos.common.InvokeResult;
+import io.openchaos.recorder.HistoryListener;
+import io.openchaos.recorder.HistoryStore;
+import io.openchaos.recorder.LogEntry;
+import io.openchaos.recorder.RequestLogEntry;
+import io.openchaos.recorder.ResponseLogEntry;
+import io.openchaos.recorder.TeeHistoryStore;
+import io.openchaos.recorder.TextHistoryEncoder;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class LiveQueueCheckerTest {
+
+    private static final String HISTORY = "test-history";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLiveCheck() throws IOException {
+        LiveQueueChecker checker = new LiveQueueChecker(folder.getRoot().getPath(), HISTORY);
+        record(checker, false);
+        QueueTestResult result = (QueueTestResult) new HistoryScanner(new File(folder.getRoot(), HISTORY).getPath())
+            .subscribe(checker).scan().get(0);
+
+        assertEquals(100, result.enqueueSuccessCount);
+        assertEquals(50, result.dequeueSuccessCount);
+        assertEquals(50, result.lostMessageCount);
+        assertNull(result.liveCheckFailure);
+    }
+
+    @Test
+    public void testListenerFailureFallsBackToHistoryFile() throws IOException {
+        LiveQueueChecker checker = new LiveQueueChecker(folder.getRoot().getPath(), HISTORY);
+        record(checker, true);
+        assertFalse(checker.snapshot().isValid);
+        QueueTestResult result = (QueueTestResult) new HistoryScanner(new File(folder.getRoot(), HISTORY).getPath())
+            .subscribe(checker).scan().get(0);
+
+        assertEquals(100, result.enqueueSuccessCount);
+        assertEquals(50, result.dequeueSuccessCount);
+        assertEquals(50, result.lostMessageCount);
+        assertNotNull(result.liveCheckFailure);
+    }
+
+    /**
+     * Record 100 enqueues and dequeue half of them, through a tee which breaks the listener halfway if asked to
+     */
+    private void record(LiveQueueChecker checker, boolean breakListener) throws IOException {
+        try (OutputStream out = Files.newOutputStream(new File(folder.getRoot(), HISTORY).toPath())) {
+            TextHistoryEncoder encoder = new TextHistoryEncoder();
+            HistoryStore fileStore = new HistoryStore() {
+                @Override
+                public void append(LogEntry logEntry) throws IOException {
+                    encoder.encode(logEntry, out);
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            TeeHistoryStore store = new TeeHistoryStore(fileStore, breakListener ? new BreakingListener(checker) : checker);
+            for (int i = 0; i < 100; i++) {
+                store.append(new RequestLogEntry(0, "enqueue", String.valueOf(i), i));
+                store.append(new ResponseLogEntry(0, "enqueue", InvokeResult.SUCCESS, String.valueOf(i), i, 1));
+            }
+            for (int i = 0; i < 50; i++) {
+                store.append(new ResponseLogEntry(1, "dequeue", InvokeResult.SUCCESS, String.valueOf(i), 100 + i, 1));
+            }
+        }
+    }
+
+    /**
+     * Fails on the 150th entry, after the live checker has seen part of the history
+     */
+    private static class BreakingListener implements HistoryListener {
+        private final LiveQueueChecker checker;
+        private int count;
+
+        BreakingListener(LiveQueueChecker checker) {
+            this.checker = checker;
+        }
+
+        @Override
+        public void onEntry(LogEntry logEntry) {
+            if (++count == 150) {
+                throw new OutOfMemoryError("listener broken");
+            }
+            checker.onEntry(logEntry);
+        }
+
+        @Override
+        public void onFailure(Throwable cause) {
+            checker.onFailure(cause);
+        }
+    }
+}
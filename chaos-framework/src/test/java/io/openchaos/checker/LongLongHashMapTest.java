@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.checker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongLongHashMapTest {
+
+    @Test
+    public void testHeapAgainstHashMap() {
+        checkAgainstHashMap(new LongLongHashMap(4, false));
+    }
+
+    @Test
+    public void testOffHeapAgainstHashMap() {
+        checkAgainstHashMap(new LongLongHashMap(4, true));
+    }
+
+    @Test
+    public void testAddTo() {
+        LongLongHashMap map = new LongLongHashMap(16, false);
+        assertEquals(3, map.addTo(7, 3));
+        assertEquals(1, map.addTo(7, -2));
+        assertEquals(-5, map.addTo(-1, -5));
+        assertEquals(1, map.get(7, 0));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testRemoveKeepsProbeSequence() {
+        LongLongHashMap map = new LongLongHashMap(16, true);
+        for (long key = 0; key < 1000; key++) {
+            map.put(key, key * 10);
+        }
+        for (long key = 0; key < 1000; key += 2) {
+            assertTrue(map.remove(key));
+        }
+        assertFalse(map.remove(0));
+        assertEquals(500, map.size());
+        for (long key = 0; key < 1000; key++) {
+            assertEquals(key % 2 == 0 ? -1 : key * 10, map.get(key, -1));
+        }
+        long[] sum = new long[1];
+        map.forEach((key, value) -> sum[0] += value - key * 10);
+        assertEquals(0, sum[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinValueKey() {
+        new LongLongHashMap(16, false).put(Long.MIN_VALUE, 1);
+    }
+
+    private static void checkAgainstHashMap(LongLongHashMap map) {
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(20_000) - 10_000;
+            switch (random.nextInt(3)) {
+                case 0:
+                    long value = random.nextLong();
+                    map.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key) != null, map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    assertEquals((long) expected.getOrDefault(key, 0L), map.get(key, 0L));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        Map<Long, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.checker;
+
+import io.openchaos.checker.result.OrderTestResult;
+import io.openchaos.common.InvokeResult;
+import io.openchaos.recorder.LogEntryType;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OrderCheckerTest {
+
+    private static final List<String> SHARDING_KEYS = Arrays.asList("key-0", "key-1", "key-2");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testInOrder() throws Exception {
+        for (boolean spill : new boolean[] {false, true}) {
+            OrderChecker checker = newChecker(spill);
+            for (int i = 0; i < 300; i++) {
+                checker.onRecord(record("enqueue", "key-" + (i % 3), String.valueOf(i)));
+            }
+            checker.onRecord(record("dequeue", "key-0", "unknown"));
+            for (int i = 0; i < 300; i++) {
+                checker.onRecord(record("dequeue", "key-" + (i % 3), String.valueOf(i)));
+            }
+            OrderTestResult result = (OrderTestResult) checker.onComplete();
+            assertTrue(result.isValid);
+            assertTrue(result.isOrder());
+        }
+    }
+
+    @Test
+    public void testOutOfOrder() throws Exception {
+        for (boolean spill : new boolean[] {false, true}) {
+            OrderChecker checker = newChecker(spill);
+            for (int i = 0; i < 30; i++) {
+                checker.onRecord(record("enqueue", "key-" + (i % 3), String.valueOf(i)));
+            }
+            for (int i = 0; i < 30; i++) {
+                // values 4 and 7 of key-1 are swapped
+                int value = i == 4 ? 7 : i == 7 ? 4 : i;
+                checker.onRecord(record("dequeue", "key-" + (value % 3), String.valueOf(value)));
+            }
+            OrderTestResult result = (OrderTestResult) checker.onComplete();
+            assertTrue(result.isValid);
+            assertFalse(result.isOrder());
+            assertEquals(1, result.getViolations().size());
+            assertEquals("key-1", result.getWrongShardingKey());
+            assertEquals("7", result.getWrongStartValue());
+        }
+    }
+
+    private OrderChecker newChecker(boolean spill) {
+        return new OrderChecker(folder.getRoot().getPath(), "order-history", SHARDING_KEYS, spill);
+    }
+
+    private static HistoryRecord record(String operation, String shardingKey, String value) {
+        HistoryRecord record = new HistoryRecord();
+        record.type = LogEntryType.RESPONSE;
+        record.operation = operation;
+        record.result = InvokeResult.SUCCESS;
+        record.shardingKey = shardingKey;
+        record.value = value;
+        return record;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.checker;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpillPartitionsTest {
+
+    @Test
+    public void testRecordsReadBackInWriteOrder() throws IOException {
+        try (SpillPartitions partitions = new SpillPartitions("spill-test", 8)) {
+            for (int i = 0; i < 1000; i++) {
+                partitions.write("key-" + (i % 10), "value", String.valueOf(i), "");
+            }
+            int total = 0;
+            for (int p = 0; p < partitions.partitionCount(); p++) {
+                List<Integer> values = new ArrayList<>();
+                try (SpillPartitions.PartitionReader reader = partitions.read(p)) {
+                    String[] fields;
+                    while ((fields = reader.next()) != null) {
+                        assertEquals(3, fields.length);
+                        assertEquals("value", fields[0]);
+                        assertEquals("", fields[2]);
+                        values.add(Integer.parseInt(fields[1]));
+                    }
+                }
+                for (int i = 1; i < values.size(); i++) {
+                    assertTrue(values.get(i - 1) < values.get(i));
+                }
+                total += values.size();
+            }
+            assertEquals(1000, total);
+        }
+    }
+
+    @Test
+    public void testSameKeyGoesToSamePartition() throws IOException {
+        try (SpillPartitions partitions = new SpillPartitions("spill-test", SpillPartitions.DEFAULT_PARTITION_COUNT)) {
+            partitions.write("topic/key", "a");
+            partitions.write("topic/key", "b");
+            int partition = partitions.partition("topic/key");
+            assertEquals(partition, partitions.partition(new String("topic/key")));
+            try (SpillPartitions.PartitionReader reader = partitions.read(partition)) {
+                assertArrayEquals(new String[] {"a"}, reader.next());
+                assertArrayEquals(new String[] {"b"}, reader.next());
+                assertNull(reader.next());
+            }
+        }
+    }
+
+    @Test
+    public void testPartitionCanBeReadTwice() throws IOException {
+        try (SpillPartitions partitions = new SpillPartitions("spill-test", 4)) {
+            partitions.write("key", "中文");
+            int partition = partitions.partition("key");
+            for (int i = 0; i < 2; i++) {
+                try (SpillPartitions.PartitionReader reader = partitions.read(partition)) {
+                    assertArrayEquals(new String[] {"中文"}, reader.next());
+                    assertNull(reader.next());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyPartition() throws IOException {
+        try (SpillPartitions partitions = new SpillPartitions("spill-test", 4);
+             SpillPartitions.PartitionReader reader = partitions.read(0)) {
+            assertNull(reader.next());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteAfterRead() throws IOException {
+        try (SpillPartitions partitions = new SpillPartitions("spill-test", 4)) {
+            partitions.write("key", "a");
+            partitions.read(0).close();
+            partitions.write("key", "b");
+        }
+    }
+
+    @Test
+    public void testCloseDeletesFiles() throws Exception {
+        SpillPartitions partitions = new SpillPartitions("spill-test", 4);
+        for (int i = 0; i < 100; i++) {
+            partitions.write(String.valueOf(i), String.valueOf(i));
+        }
+        Field field = SpillPartitions.class.getDeclaredField("directory");
+        field.setAccessible(true);
+        File directory = (File) field.get(partitions);
+        assertTrue(Arrays.asList(directory.list()).size() > 1);
+        partitions.close();
+        assertFalse(directory.exists());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.generator;
+
+import io.openchaos.workload.PayloadSizeConfiguration;
+import io.openchaos.workload.PayloadSizes;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SequenceGeneratorTest {
+
+    @Test
+    public void testUnpaddedPayload() {
+        SequenceGenerator generator = new SequenceGenerator();
+        assertArrayEquals("0".getBytes(StandardCharsets.UTF_8), generator.payload(0));
+        assertArrayEquals("42".getBytes(StandardCharsets.UTF_8), generator.payload(42));
+        assertArrayEquals(String.valueOf(Long.MAX_VALUE).getBytes(StandardCharsets.UTF_8), generator.payload(Long.MAX_VALUE));
+        assertSame(generator.payload(10), generator.payload(99));
+        assertNotSame(generator.newPayload(10), generator.newPayload(10));
+    }
+
+    @Test
+    public void testPaddedPayload() {
+        PayloadSizeConfiguration configuration = new PayloadSizeConfiguration();
+        configuration.distribution = PayloadSizes.UNIFORM;
+        configuration.minSize = 8;
+        configuration.maxSize = 64;
+        SequenceGenerator generator = new SequenceGenerator(PayloadSizes.create(configuration));
+        for (long value = 0; value < 100_000; value += 7) {
+            checkPadded(generator.payload(value), value, 8, 64);
+            checkPadded(generator.newPayload(value), value, 8, 64);
+        }
+    }
+
+    @Test
+    public void testPayloadLongerThanSize() {
+        PayloadSizeConfiguration configuration = new PayloadSizeConfiguration();
+        configuration.size = 3;
+        SequenceGenerator generator = new SequenceGenerator(PayloadSizes.create(configuration));
+        assertEquals("1#", new String(generator.payload(1), StandardCharsets.UTF_8).substring(0, 2));
+        assertArrayEquals("123".getBytes(StandardCharsets.UTF_8), generator.payload(123));
+        assertArrayEquals("123456".getBytes(StandardCharsets.UTF_8), generator.payload(123456));
+        assertEquals(3, generator.payload(7).length);
+        assertEquals("7", PayloadSizes.valueOf(generator.payload(7)));
+    }
+
+    @Test
+    public void testUniqueIncreasingValues() {
+        SequenceGenerator first = new SequenceGenerator();
+        SequenceGenerator second = new SequenceGenerator();
+        Set<Long> values = new HashSet<>();
+        long lastFirst = -1;
+        long lastSecond = -1;
+        for (int i = 0; i < 3 * SequenceGenerator.BLOCK_SIZE; i++) {
+            long a = first.nextValue();
+            long b = second.nextValue();
+            assertTrue(a > lastFirst && b > lastSecond);
+            assertTrue(values.add(a) && values.add(b));
+            lastFirst = a;
+            lastSecond = b;
+        }
+        long upperBound = SequenceGenerator.upperBound();
+        assertTrue(lastFirst < upperBound && lastSecond < upperBound);
+        assertEquals(0, upperBound % SequenceGenerator.BLOCK_SIZE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeValue() {
+        new SequenceGenerator().payload(-1);
+    }
+
+    private static void checkPadded(byte[] payload, long value, int minSize, int maxSize) {
+        String digits = Long.toString(value);
+        assertTrue(payload.length >= Math.max(minSize, digits.length()) && payload.length <= Math.max(maxSize, digits.length()));
+        assertEquals(digits, PayloadSizes.valueOf(payload));
+        if (payload.length > digits.length()) {
+            assertEquals(PayloadSizes.SEPARATOR, payload[digits.length()]);
+            for (int i = digits.length() + 1; i < payload.length; i++) {
+                assertTrue(Character.isLetterOrDigit(payload[i]));
+            }
+        }
+    }
+}
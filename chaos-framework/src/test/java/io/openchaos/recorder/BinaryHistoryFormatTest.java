@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.recorder;
+
+import io.openchaos.checker.HistoryReader;
+import io.openchaos.checker.HistoryRecord;
+import io.openchaos.common.InvokeResult;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BinaryHistoryFormatTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<LogEntry> entries = entries();
+        List<HistoryRecord> records = readAll(encode(new BinaryHistoryEncoder(), entries));
+        assertEquals(entries.size(), records.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertRecord(HistoryRecord.of(entries.get(i)), records.get(i));
+        }
+    }
+
+    @Test
+    public void testEndMarker() throws IOException {
+        byte[] bytes = encode(new BinaryHistoryEncoder(), entries());
+        byte[] preallocated = Arrays.copyOf(bytes, bytes.length + 64);
+        assertEquals(entries().size(), readAll(preallocated).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedVersion() throws IOException {
+        byte[] bytes = encode(new BinaryHistoryEncoder(), entries());
+        bytes[BinaryHistoryFormat.MAGIC.length] = BinaryHistoryFormat.VERSION + 1;
+        readAll(bytes);
+    }
+
+    @Test
+    public void testZigzag() {
+        for (long value : new long[] {0, 1, -1, 63, -64, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(value, BinaryHistoryFormat.unzigzag(BinaryHistoryFormat.zigzag(value)));
+        }
+        assertEquals(1, BinaryHistoryFormat.zigzag(-1));
+        assertEquals(2, BinaryHistoryFormat.zigzag(1));
+    }
+
+    @Test
+    public void testCodes() {
+        for (InvokeResult result : InvokeResult.values()) {
+            assertEquals(result, BinaryHistoryFormat.result(BinaryHistoryFormat.resultCode(result)));
+        }
+        assertNull(BinaryHistoryFormat.result(BinaryHistoryFormat.resultCode(null)));
+        assertEquals("enqueue", BinaryHistoryFormat.operation(BinaryHistoryFormat.operationCode("enqueue")));
+        assertEquals(BinaryHistoryFormat.OPERATION_CUSTOM, BinaryHistoryFormat.operationCode("cas"));
+    }
+
+    /**
+     * Entries with every field set and unset, custom operations, non-ascii strings and timestamps going backwards
+     */
+    static List<LogEntry> entries() {
+        List<LogEntry> entries = new ArrayList<>();
+        long now = 1_700_000_000_000L;
+        RequestLogEntry request = new RequestLogEntry(0, "enqueue", "key-1", "42", now, "extra");
+        request.scheduledTimestamp = now - 3;
+        request.topic = "topic-a";
+        entries.add(request);
+        entries.add(new RequestLogEntry(1, "put", "7", now + 1));
+        entries.add(new RequestLogEntry(2, "cas", null, "8", now - 5, "中文"));
+        ResponseLogEntry response = new ResponseLogEntry(0, "enqueue", InvokeResult.SUCCESS, "key-1", "42", now + 10, 13,
+            "partition=1, offset=2", -1);
+        response.topic = "topic-a";
+        entries.add(response);
+        entries.add(new ResponseLogEntry(3, "dequeue", InvokeResult.SUCCESS, "key-1", "42", now + 20, 30, "msgId=1", 25));
+        entries.add(new ResponseLogEntry(1, "put", InvokeResult.UNKNOWN, "7", now + 2, 2));
+        entries.add(new ResponseLogEntry(2, "cas", InvokeResult.FAILURE, "8", now + 5, 10));
+        entries.add(new FaultLogEntry("minor-kill", "start", now + 30));
+        entries.add(new FaultLogEntry("minor-kill", "end", now + 40));
+        return entries;
+    }
+
+    static byte[] encode(HistoryEncoder encoder, List<LogEntry> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeHeader(out);
+        for (LogEntry entry : entries) {
+            encoder.encode(entry, out);
+        }
+        return out.toByteArray();
+    }
+
+    static List<HistoryRecord> readAll(byte[] bytes) throws IOException {
+        List<HistoryRecord> records = new ArrayList<>();
+        try (HistoryReader reader = HistoryReader.open(new BufferedInputStream(new ByteArrayInputStream(bytes)))) {
+            HistoryRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    static void assertRecord(HistoryRecord expected, HistoryRecord actual) {
+        assertEquals(expected.type, actual.type);
+        assertEquals(expected.timestamp, actual.timestamp);
+        assertEquals(expected.operation, actual.operation);
+        if (expected.isFault()) {
+            assertEquals(expected.faultName, actual.faultName);
+            return;
+        }
+        assertEquals(expected.clientId, actual.clientId);
+        assertEquals(expected.result, actual.result);
+        assertEquals(expected.value, actual.value);
+        assertEquals(expected.shardingKey, actual.shardingKey);
+        assertEquals(expected.extraInfo, actual.extraInfo);
+        assertEquals(expected.topic, actual.topic);
+        if (expected.isRequest()) {
+            assertEquals(expected.scheduledTimestamp, actual.scheduledTimestamp);
+        } else {
+            assertEquals(expected.sendLatency, actual.sendLatency);
+            assertEquals(expected.endToEndLatency, actual.endToEndLatency);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.recorder;
+
+import io.openchaos.checker.HistoryRecord;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HistoryConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTextToBinaryAndBack() throws IOException {
+        List<LogEntry> entries = BinaryHistoryFormatTest.entries();
+        File text = folder.newFile("history-text");
+        try (OutputStream out = new FileOutputStream(text)) {
+            out.write(BinaryHistoryFormatTest.encode(new TextHistoryEncoder(), entries));
+        }
+        File binary = new File(folder.getRoot(), "history-binary");
+        File textAgain = new File(folder.getRoot(), "history-text-again");
+
+        assertEquals(entries.size(), HistoryConverter.convert(text.getPath(), binary.getPath(), HistoryFormat.BINARY));
+        assertEquals(entries.size(), HistoryConverter.convert(binary.getPath(), textAgain.getPath(), HistoryFormat.TEXT));
+
+        byte[] binaryBytes = Files.readAllBytes(binary.toPath());
+        List<HistoryRecord> textRecords = BinaryHistoryFormatTest.readAll(Files.readAllBytes(text.toPath()));
+        List<HistoryRecord> binaryRecords = BinaryHistoryFormatTest.readAll(binaryBytes);
+        assertEquals(textRecords.size(), binaryRecords.size());
+        for (int i = 0; i < textRecords.size(); i++) {
+            BinaryHistoryFormatTest.assertRecord(textRecords.get(i), binaryRecords.get(i));
+        }
+        assertArrayEquals(Files.readAllBytes(text.toPath()), Files.readAllBytes(textAgain.toPath()));
+        assertArrayEquals(BinaryHistoryFormatTest.encode(new BinaryHistoryEncoder(), entries), binaryBytes);
+    }
+}
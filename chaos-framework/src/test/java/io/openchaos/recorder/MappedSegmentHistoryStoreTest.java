@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.recorder;
+
+import io.openchaos.checker.HistoryReader;
+import io.openchaos.checker.HistoryRecord;
+import io.openchaos.common.InvokeResult;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedSegmentHistoryStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSealedSegmentsAreTruncated() throws IOException {
+        File directory = new File(folder.getRoot(), "history");
+        MappedSegmentHistoryStore store = new MappedSegmentHistoryStore(directory, HistoryFormat.BINARY, 4096);
+        for (int i = 0; i < 2000; i++) {
+            store.append(new ResponseLogEntry(i % 4, "enqueue", InvokeResult.SUCCESS, String.valueOf(i), 1700000000000L + i, 3));
+        }
+        store.flush();
+        store.close();
+
+        HistoryManifest manifest = HistoryManifest.read(directory);
+        assertTrue(manifest.segments.size() > 1);
+        long recordCount = 0;
+        for (HistoryManifest.Segment segment : manifest.segments) {
+            assertTrue(segment.sealed);
+            assertEquals(segment.length, new File(directory, segment.name).length());
+            recordCount += segment.recordCount;
+        }
+        assertEquals(2000, recordCount);
+
+        int read = 0;
+        try (HistoryReader reader = HistoryReader.open(directory.getPath())) {
+            HistoryRecord record;
+            while ((record = reader.next()) != null) {
+                assertEquals(String.valueOf(read), record.value);
+                read++;
+            }
+        }
+        assertEquals(2000, read);
+    }
+}
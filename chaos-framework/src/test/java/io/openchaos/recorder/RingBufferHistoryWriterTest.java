@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RingBufferHistoryWriterTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 100_000;
+
+    @Test
+    public void testWriteAll() {
+        CountingStore store = new CountingStore();
+        RingBufferHistoryWriter writer = new RingBufferHistoryWriter(store, 16);
+        for (int i = 0; i < 10_000; i++) {
+            writer.write(new FaultLogEntry("fault", "start", i));
+        }
+        writer.flush();
+        assertEquals(10_000, store.appended.get());
+        writer.close();
+        assertEquals(10_000, writer.getMetrics().writtenCount);
+        assertEquals(0, writer.getMetrics().droppedWriteCount);
+    }
+
+    @Test
+    public void testCloseWhileWriting() throws InterruptedException {
+        CountingStore store = new CountingStore();
+        RingBufferHistoryWriter writer = new RingBufferHistoryWriter(store, 1024);
+        CountDownLatch started = new CountDownLatch(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int j = 0; j < WRITES_PER_THREAD; j++) {
+                    writer.write(new FaultLogEntry("fault", "start", j));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        started.await();
+        writer.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        RecorderMetrics metrics = writer.getMetrics();
+        assertEquals(store.appended.get(), metrics.writtenCount);
+        assertEquals((long) THREADS * WRITES_PER_THREAD, store.appended.get() + metrics.droppedWriteCount);
+        assertEquals(1, store.closed.get());
+    }
+
+    private static class CountingStore implements HistoryStore {
+        private final AtomicLong appended = new AtomicLong();
+        private final AtomicLong closed = new AtomicLong();
+
+        @Override
+        public void append(LogEntry logEntry) {
+            appended.incrementAndGet();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}
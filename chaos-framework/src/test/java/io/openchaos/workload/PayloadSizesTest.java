@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PayloadSizesTest {
+
+    @Test
+    public void testFixed() {
+        PayloadSizes sizes = PayloadSizes.create(fixed(128));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(128, sizes.next());
+        }
+        assertEquals(128, sizes.maxSize());
+    }
+
+    @Test
+    public void testUniform() {
+        PayloadSizeConfiguration configuration = new PayloadSizeConfiguration();
+        configuration.distribution = PayloadSizes.UNIFORM;
+        configuration.minSize = 10;
+        configuration.maxSize = 13;
+        PayloadSizes sizes = PayloadSizes.create(configuration);
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            int size = sizes.next();
+            assertTrue(size >= 10 && size <= 13);
+            seen.add(size);
+        }
+        assertEquals(4, seen.size());
+        assertEquals(13, sizes.maxSize());
+    }
+
+    @Test
+    public void testHistogram() {
+        PayloadSizeConfiguration configuration = new PayloadSizeConfiguration();
+        configuration.distribution = PayloadSizes.HISTOGRAM;
+        configuration.histogram = new LinkedHashMap<>();
+        configuration.histogram.put(16, 90.0);
+        configuration.histogram.put(1024, 10.0);
+        PayloadSizes sizes = PayloadSizes.create(configuration);
+        int large = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int size = sizes.next();
+            assertTrue(size == 16 || size == 1024);
+            if (size == 1024) {
+                large++;
+            }
+        }
+        assertTrue(large > 700 && large < 1300);
+        assertEquals(1024, sizes.maxSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveSize() {
+        PayloadSizes.create(fixed(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxSizeLessThanMinSize() {
+        PayloadSizeConfiguration configuration = new PayloadSizeConfiguration();
+        configuration.distribution = PayloadSizes.UNIFORM;
+        configuration.minSize = 10;
+        configuration.maxSize = 9;
+        PayloadSizes.create(configuration);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDistribution() {
+        PayloadSizeConfiguration configuration = fixed(10);
+        configuration.distribution = "normal";
+        PayloadSizes.create(configuration);
+    }
+
+    @Test
+    public void testPadAndValueOf() {
+        PayloadSizes sizes = PayloadSizes.create(fixed(32));
+        byte[] payload = new byte[32];
+        System.arraycopy("12345".getBytes(StandardCharsets.UTF_8), 0, payload, 0, 5);
+        sizes.pad(payload, 5);
+        assertEquals(PayloadSizes.SEPARATOR, payload[5]);
+        for (int i = 6; i < payload.length; i++) {
+            assertTrue(Character.isLetterOrDigit(payload[i]));
+        }
+        assertEquals("12345", PayloadSizes.valueOf(payload));
+    }
+
+    @Test
+    public void testValueOfUnpadded() {
+        byte[] payload = "12345".getBytes(StandardCharsets.UTF_8);
+        PayloadSizes.create(fixed(5)).pad(payload, 5);
+        assertEquals("12345", PayloadSizes.valueOf(payload));
+    }
+
+    private static PayloadSizeConfiguration fixed(int size) {
+        PayloadSizeConfiguration configuration = new PayloadSizeConfiguration();
+        configuration.distribution = PayloadSizes.FIXED;
+        configuration.size = size;
+        return configuration;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardingKeySelectorTest {
+
+    private static final int DRAWS = 100_000;
+    private static final List<String> KEYS = Arrays.asList("key-0", "key-1", "key-2", "key-3");
+
+    @Test
+    public void testUniform() {
+        Map<String, Integer> counts = draw(ShardingKeySelector.uniform(KEYS));
+        assertEquals(KEYS.size(), counts.size());
+        for (String key : KEYS) {
+            assertEquals(0.25, counts.get(key) / (double) DRAWS, 0.01);
+        }
+    }
+
+    @Test
+    public void testNullConfigurationIsUniform() {
+        Map<String, Integer> counts = draw(ShardingKeySelector.create(null, KEYS));
+        for (String key : KEYS) {
+            assertEquals(0.25, counts.get(key) / (double) DRAWS, 0.01);
+        }
+    }
+
+    @Test
+    public void testZipfian() {
+        ShardingKeyConfiguration configuration = new ShardingKeyConfiguration();
+        configuration.distribution = ShardingKeySelector.ZIPFIAN;
+        configuration.zipfianExponent = 1;
+        Map<String, Integer> counts = draw(ShardingKeySelector.create(configuration, KEYS));
+        // weights 1, 1/2, 1/3, 1/4
+        double sum = 1 + 1 / 2.0 + 1 / 3.0 + 1 / 4.0;
+        for (int i = 0; i < KEYS.size(); i++) {
+            assertEquals(1 / (i + 1.0) / sum, counts.get(KEYS.get(i)) / (double) DRAWS, 0.01);
+        }
+    }
+
+    @Test
+    public void testHotKey() {
+        ShardingKeyConfiguration configuration = new ShardingKeyConfiguration();
+        configuration.distribution = ShardingKeySelector.HOT_KEY;
+        configuration.hotKeys = 1;
+        configuration.hotKeyTraffic = 0.7;
+        Map<String, Integer> counts = draw(ShardingKeySelector.create(configuration, KEYS));
+        assertEquals(0.7, counts.get("key-0") / (double) DRAWS, 0.01);
+        for (int i = 1; i < KEYS.size(); i++) {
+            assertEquals(0.1, counts.get(KEYS.get(i)) / (double) DRAWS, 0.01);
+        }
+    }
+
+    @Test
+    public void testAllKeysHot() {
+        ShardingKeyConfiguration configuration = new ShardingKeyConfiguration();
+        configuration.distribution = ShardingKeySelector.HOT_KEY;
+        configuration.hotKeys = KEYS.size() + 1;
+        Map<String, Integer> counts = draw(ShardingKeySelector.create(configuration, KEYS));
+        for (String key : KEYS) {
+            assertEquals(0.25, counts.get(key) / (double) DRAWS, 0.01);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHotKeyTraffic() {
+        ShardingKeyConfiguration configuration = new ShardingKeyConfiguration();
+        configuration.distribution = ShardingKeySelector.HOT_KEY;
+        configuration.hotKeyTraffic = 1;
+        ShardingKeySelector.create(configuration, KEYS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyKeys() {
+        ShardingKeySelector.uniform(Collections.emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDistribution() {
+        ShardingKeyConfiguration configuration = new ShardingKeyConfiguration();
+        configuration.distribution = "gaussian";
+        ShardingKeySelector.create(configuration, KEYS);
+    }
+
+    private static Map<String, Integer> draw(ShardingKeySelector selector) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < DRAWS; i++) {
+            String key = selector.next();
+            assertTrue(KEYS.contains(key));
+            counts.merge(key, 1, Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openchaos.workload;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WeightedChoiceTest {
+
+    private static final int DRAWS = 100_000;
+
+    @Test
+    public void testChoicesFollowWeights() {
+        WeightedChoice choice = new WeightedChoice(new double[] {1, 2, 7});
+        int[] counts = new int[3];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[choice.next()]++;
+        }
+        assertEquals(0.1, counts[0] / (double) DRAWS, 0.01);
+        assertEquals(0.2, counts[1] / (double) DRAWS, 0.01);
+        assertEquals(0.7, counts[2] / (double) DRAWS, 0.01);
+    }
+
+    @Test
+    public void testSingleWeight() {
+        WeightedChoice choice = new WeightedChoice(new double[] {0.5});
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, choice.next());
+        }
+    }
+
+    @Test
+    public void testIndexInRange() {
+        WeightedChoice choice = new WeightedChoice(new double[] {1e-9, 1e-9, 1e9});
+        for (int i = 0; i < DRAWS; i++) {
+            int index = choice.next();
+            assertTrue(index >= 0 && index < 3);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyWeights() {
+        new WeightedChoice(new double[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroWeight() {
+        new WeightedChoice(new double[] {1, 0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNaNWeight() {
+        new WeightedChoice(new double[] {1, Double.NaN});
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.driver.kv;
+
+import io.openchaos.common.InvokeResult;
+
+/**
+ * Result of reading one entry from a KV cluster
+ */
+public class GetResult {
+    public final InvokeResult result;
+    /**
+     * Value read, null if the read failed or the entry does not exist
+     */
+    public final String value;
+
+    private GetResult(InvokeResult result, String value) {
+        this.result = result;
+        this.value = value;
+    }
+
+    public static GetResult found(String value) {
+        return new GetResult(InvokeResult.SUCCESS, value);
+    }
+
+    public static GetResult notFound() {
+        return new GetResult(InvokeResult.SUCCESS, null);
+    }
+
+    public static GetResult of(InvokeResult result) {
+        return new GetResult(result, null);
+    }
+}
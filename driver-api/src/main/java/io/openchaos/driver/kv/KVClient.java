@@ -18,11 +18,37 @@ import java.util.List;
 import io.openchaos.common.InvokeResult;
 import java.util.Optional;
 
+/**
+ * Client of a kv store. Every value put is stored in an entry of its own, addressed by the key together with the
+ * value, or for an append-only log by the position it was appended at, so get and delete take the value as well as
+ * the key.
+ */
 public interface KVClient extends ChaosClient {
 
     InvokeResult put(Optional<String> key, String value);
 
+    /**
+     * Read the entry written by put with the same key and value
+     *
+     * @return result of get with the value read, the value is null if the entry does not exist
+     */
+    GetResult get(Optional<String> key, String value);
+
+    /**
+     * Delete the entry written by put with the same key and value
+     *
+     * @return result of delete, FAILURE if the entry does not exist so a lost entry is not taken as deleted
+     */
+    InvokeResult delete(Optional<String> key, String value);
+
     List<String> getAll(Optional<String> key, int putInvokeCount);
 
     List<String> getAll(Optional<String> key);
+
+    /**
+     * Called before start when gets or deletes of the values put by this client are mixed into the workload. A client
+     * which has to remember where every value is stored to read it back only needs to do so after this call.
+     */
+    default void readPutValues() {
+    }
 }
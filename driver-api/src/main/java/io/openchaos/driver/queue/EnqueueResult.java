@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openchaos.driver.queue;
+
+import io.openchaos.common.InvokeResult;
+
+/**
+ * Result of enqueuing one value to a messaging cluster. Every enqueue gets its own result, so the extra info of
+ * concurrent enqueues never mixes up.
+ */
+public class EnqueueResult {
+    public final InvokeResult result;
+    /**
+     * Where the value is stored, such as message id or partition and offset, null if the driver has none
+     */
+    public final String extraInfo;
+
+    private EnqueueResult(InvokeResult result, String extraInfo) {
+        this.result = result;
+        this.extraInfo = extraInfo;
+    }
+
+    public static EnqueueResult of(InvokeResult result) {
+        return new EnqueueResult(result, null);
+    }
+
+    public static EnqueueResult of(InvokeResult result, String extraInfo) {
+        return new EnqueueResult(result, extraInfo);
+    }
+}
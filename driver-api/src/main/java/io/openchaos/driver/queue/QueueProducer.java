@@ -14,18 +14,21 @@
 
 package io.openchaos.driver.queue;
 
-import io.openchaos.common.InvokeResult;
 import io.openchaos.driver.ChaosClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface QueueProducer extends ChaosClient {
 
     /**
-     * Enqueue a value to messaging cluster
+     * Enqueue a value to messaging cluster. The caller may reuse payload once this method returns, so the driver must
+     * not keep a reference to it afterwards.
      *
      * @param payload
      * @return result of enqueue
      */
-    InvokeResult enqueue(byte[] payload);
+    EnqueueResult enqueue(byte[] payload);
 
     /**
      * Enqueue a value with sharding key to messaging cluster
@@ -33,8 +36,56 @@ public interface QueueProducer extends ChaosClient {
      * @param payload
      * @return result of enqueue
      */
-    InvokeResult enqueue(String shardingKey, byte[] payload);
+    EnqueueResult enqueue(String shardingKey, byte[] payload);
 
+    /**
+     * Enqueue a value to messaging cluster without waiting for the result, so one client can keep many requests in
+     * flight. Drivers without an asynchronous client fall back to a synchronous enqueue.
+     *
+     * @param payload
+     * @return future completed with the result of enqueue
+     */
+    default CompletableFuture<EnqueueResult> enqueueAsync(byte[] payload) {
+        return CompletableFuture.completedFuture(enqueue(payload));
+    }
 
+    /**
+     * Enqueue a value with sharding key to messaging cluster without waiting for the result
+     *
+     * @param payload
+     * @return future completed with the result of enqueue
+     */
+    default CompletableFuture<EnqueueResult> enqueueAsync(String shardingKey, byte[] payload) {
+        return CompletableFuture.completedFuture(enqueue(shardingKey, payload));
+    }
 
+    /**
+     * Enqueue a batch of values to messaging cluster with the batching of the client. Drivers without batching fall
+     * back to enqueuing the values one by one. When a batch is enqueued as a whole, every value gets the same result,
+     * and the extra info of the result describes the whole batch.
+     *
+     * @param payloads
+     * @return result of enqueue of each value, in the order of payloads
+     */
+    default List<EnqueueResult> enqueueBatch(List<byte[]> payloads) {
+        List<EnqueueResult> results = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            results.add(enqueue(payload));
+        }
+        return results;
+    }
+
+    /**
+     * Enqueue a batch of values with the same sharding key to messaging cluster
+     *
+     * @param payloads
+     * @return result of enqueue of each value, in the order of payloads
+     */
+    default List<EnqueueResult> enqueueBatch(String shardingKey, List<byte[]> payloads) {
+        List<EnqueueResult> results = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            results.add(enqueue(shardingKey, payload));
+        }
+        return results;
+    }
 }
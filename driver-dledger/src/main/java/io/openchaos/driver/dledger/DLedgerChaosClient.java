@@ -17,6 +17,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.kv.GetResult;
 import io.openchaos.driver.kv.KVClient;
 import io.openmessaging.storage.dledger.ShutdownAbleThread;
 import io.openmessaging.storage.dledger.client.DLedgerClientRpcNettyService;
@@ -30,7 +31,9 @@ import io.openmessaging.storage.dledger.protocol.GetEntriesResponse;
 import io.openmessaging.storage.dledger.protocol.MetadataRequest;
 import io.openmessaging.storage.dledger.protocol.MetadataResponse;
 import io.openmessaging.storage.dledger.utils.DLedgerUtils;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -49,12 +52,19 @@ public class DLedgerChaosClient implements KVClient {
         .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     private static final Logger LOG = LoggerFactory.getLogger(KVClient.class);
     private final Map<String, String> peerMap = new ConcurrentHashMap<>();
+    /**
+     * Entries are read by index, so the index of every value appended by this client is kept for get, only when the
+     * workload gets the values put
+     */
+    private final Map<String, Long> valueIndexes = new ConcurrentHashMap<>();
+    private volatile boolean indexValues;
     private final String group;
     private volatile String leaderId;
     private DLedgerClientRpcService dLedgerClientRpcService;
     private static final int CLIENT_TIMEOUT_CODE = 1001;
     private static final int CLIENT_CONNECT_REFUSE_CODE = 1002;
     private static final int CLIENT_SENDREQ_FAIL_CODE = 1003;
+    private static final int GET_ALL_MAX_IN_FLIGHT = 32;
 
     private MetadataUpdater metadataUpdater = new MetadataUpdater("MetadataUpdater", LOG);
 
@@ -70,6 +80,9 @@ public class DLedgerChaosClient implements KVClient {
         AppendEntryResponse response = append(value.getBytes());
         switch (response.getCode()) {
             case 200:
+                if (indexValues) {
+                    valueIndexes.put(value, response.getIndex());
+                }
                 return InvokeResult.SUCCESS;
             case 502: //Wait quorum ack timeout
             case 1001: //Client append timeout
@@ -79,16 +92,61 @@ public class DLedgerChaosClient implements KVClient {
         }
     }
 
+    @Override
+    public GetResult get(Optional<String> key, String value) {
+        Long index = valueIndexes.get(value);
+        if (index == null) {
+            LOG.warn("Value {} is not appended by this client", value);
+            return GetResult.of(InvokeResult.FAILURE);
+        }
+        GetEntriesResponse response = get(index);
+        if (response.getCode() != DLedgerResponseCode.SUCCESS.getCode()) {
+            return GetResult.of(InvokeResult.FAILURE);
+        }
+        if (response.getEntries() == null || response.getEntries().isEmpty()) {
+            return GetResult.notFound();
+        }
+        return GetResult.found(new String(response.getEntries().get(0).getBody()));
+    }
+
+    /**
+     * DLedger is an append-only log, so entries can not be deleted
+     */
+    @Override
+    public InvokeResult delete(Optional<String> key, String value) {
+        return InvokeResult.FAILURE;
+    }
+
     @Override
     public List<String> getAll(Optional<String> key, int putInvokeCount) {
         return getAll(key);
     }
 
+    /**
+     * Read entries from index 0 until the first index without entry. A get returns one entry, so a window of gets is
+     * kept in flight to the leader and the responses are consumed in index order.
+     */
     @Override public List<String> getAll(Optional<String> key) {
         List<String> result = new ArrayList<>();
-        int index = 0;
+        Deque<CompletableFuture<GetEntriesResponse>> inFlight = new ArrayDeque<>();
+        long nextIndex = 0;
+        long index = 0;
         while (true) {
-            GetEntriesResponse response = get(index);
+            while (inFlight.size() < GET_ALL_MAX_IN_FLIGHT) {
+                inFlight.add(getAsync(nextIndex++));
+            }
+            GetEntriesResponse response;
+            try {
+                response = inFlight.poll().get();
+            } catch (Exception e) {
+                needFreshMetadata();
+                LOG.error("", e);
+                response = null;
+            }
+            //Fall back to the synchronous get, which retries on the new leader
+            if (response == null || response.getCode() != DLedgerResponseCode.SUCCESS.getCode()) {
+                response = get(index);
+            }
             if (response.getEntries() != null && response.getEntries().size() > 0) {
                 for (DLedgerEntry entry : response.getEntries()) {
                     result.add(new String(entry.getBody()));
@@ -98,9 +156,35 @@ public class DLedgerChaosClient implements KVClient {
             }
             index++;
         }
+        inFlight.forEach(future -> future.cancel(false));
         return result;
     }
 
+    private CompletableFuture<GetEntriesResponse> getAsync(long index) {
+        try {
+            waitOnUpdatingMetadata(1500, false);
+            if (leaderId == null) {
+                GetEntriesResponse response = new GetEntriesResponse();
+                response.setCode(DLedgerResponseCode.METADATA_ERROR.getCode());
+                return CompletableFuture.completedFuture(response);
+            }
+            GetEntriesRequest request = new GetEntriesRequest();
+            request.setGroup(group);
+            request.setRemoteId(leaderId);
+            request.setBeginIndex(index);
+            return dLedgerClientRpcService.get(request);
+        } catch (Exception e) {
+            CompletableFuture<GetEntriesResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    @Override
+    public void readPutValues() {
+        indexValues = true;
+    }
+
     @Override public void start() {
         this.dLedgerClientRpcService.startup();
         this.metadataUpdater.start();
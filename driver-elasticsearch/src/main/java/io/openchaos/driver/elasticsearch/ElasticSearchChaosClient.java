@@ -7,6 +7,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.kv.GetResult;
 import io.openchaos.driver.kv.KVClient;
 import io.openchaos.driver.elasticsearch.core.Document;
 import org.apache.http.HttpEntity;
@@ -16,12 +17,17 @@ import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.util.EntityUtils;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class ElasticSearchChaosClient implements KVClient {
     private static final Logger log = LoggerFactory.getLogger(ElasticSearchChaosClient.class);
@@ -29,6 +35,8 @@ public class ElasticSearchChaosClient implements KVClient {
     private final String endpoint = "openchaos";
     private static final ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     private final String KEY = "openchaosTest";
+    private static final int GET_ALL_BATCH_SIZE = 1000;
+    private static final int GET_ALL_MAX_IN_FLIGHT = 8;
 
     public ElasticSearchChaosClient(RestClient client) {
         esClient = client;
@@ -64,12 +72,94 @@ public class ElasticSearchChaosClient implements KVClient {
         return InvokeResult.FAILURE;
     }
 
+    @Override
+    public GetResult get(Optional<String> key, String value) {
+        try {
+            Request request = new Request("GET", "/" + endpoint + "/_doc/" + KEY + value);
+            request.addParameter("ignore", "404");
+            Response response = esClient.performRequest(request);
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                return GetResult.notFound();
+            }
+            if (statusCode != HttpStatus.SC_OK) {
+                log.error("Method failed: " + response.getStatusLine());
+                return GetResult.of(InvokeResult.FAILURE);
+            }
+            JSONObject source = JSON.parseObject(EntityUtils.toString(response.getEntity())).getJSONObject("_source");
+            return source == null ? GetResult.notFound() : GetResult.found(source.getString("value"));
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return GetResult.of(InvokeResult.FAILURE);
+        }
+    }
+
+    @Override
+    public InvokeResult delete(Optional<String> key, String value) {
+        try {
+            Request request = new Request("DELETE", "/" + endpoint + "/_doc/" + KEY + value);
+            request.addParameter("ignore", "404");
+            Response response = esClient.performRequest(request);
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
+                return InvokeResult.SUCCESS;
+            }
+            log.error("Method failed: " + response.getStatusLine());
+        } catch (IOException e) {
+            log.error(e.getMessage());
+        }
+        return InvokeResult.FAILURE;
+    }
+
+    /**
+     * Read documents by id with _mget batches, at most GET_ALL_MAX_IN_FLIGHT batches are in flight
+     *
+     * @return values in id order, null if any batch fails
+     */
     @Override
     public List<String> getAll(Optional<String> key, int putInvokeCount) {
+        int batchCount = (putInvokeCount + GET_ALL_BATCH_SIZE - 1) / GET_ALL_BATCH_SIZE;
+        AtomicReferenceArray<List<String>> batches = new AtomicReferenceArray<>(batchCount);
+        Semaphore inFlight = new Semaphore(GET_ALL_MAX_IN_FLIGHT);
+        CountDownLatch done = new CountDownLatch(batchCount);
+        AtomicBoolean failed = new AtomicBoolean();
+        try {
+            for (int i = 0; i < batchCount; i++) {
+                inFlight.acquire();
+                int batch = i;
+                esClient.performRequestAsync(mgetRequest(batch * GET_ALL_BATCH_SIZE,
+                    Math.min(putInvokeCount, (batch + 1) * GET_ALL_BATCH_SIZE)), new ResponseListener() {
+                        @Override
+                        public void onSuccess(Response response) {
+                            try {
+                                batches.set(batch, deserializeDocs(response.getEntity()));
+                            } catch (IOException e) {
+                                onFailure(e);
+                                return;
+                            }
+                            inFlight.release();
+                            done.countDown();
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            log.error("Mget failed", e);
+                            failed.set(true);
+                            inFlight.release();
+                            done.countDown();
+                        }
+                    });
+            }
+            done.await();
+        } catch (InterruptedException e) {
+            log.error("Mget interrupted", e);
+            return null;
+        }
+        if (failed.get()) {
+            return null;
+        }
         List<String> values = new ArrayList<>();
-        for (int i = 0; i < putInvokeCount; ++i) {
-            Document document = fullTextMatch(key, i);
-            values.add(document.getValue());
+        for (int i = 0; i < batchCount; i++) {
+            values.addAll(batches.get(i));
         }
         return values;
     }
@@ -86,46 +176,32 @@ public class ElasticSearchChaosClient implements KVClient {
         return objectMapper.writeValueAsString(document);
     }
 
-    private List<Document> deserialize(HttpEntity entity) throws IOException {
-        String responseBody = EntityUtils.toString(entity);
-        JSONObject resultObject = JSON.parseObject(responseBody);
-        JSONObject hitsObject = JSON.parseObject(resultObject.get("hits").toString());
-        JSONArray jsonArray = JSON.parseArray(hitsObject.get("hits").toString());
-
-        List<Document> documents = new ArrayList<>();
-        for (Object object : jsonArray) {
-            JSONObject jsonObject1 = JSON.parseObject(object.toString());
-            JSONObject jsonObject2 = JSON.parseObject(jsonObject1.get("_source").toString());
-            Document document = new Document(String.valueOf(jsonObject2.get("key")), String.valueOf(jsonObject2.get("value")));
-            documents.add(document);
+    private Request mgetRequest(int begin, int end) {
+        List<String> ids = new ArrayList<>();
+        for (int i = begin; i < end; i++) {
+            ids.add(KEY + i);
         }
-        return documents;
+        Map<String, Object> jsonMap = new HashMap<>();
+        jsonMap.put("ids", ids);
+
+        Request request = new Request("POST", "/" + endpoint + "/_mget");
+        request.setEntity(new NStringEntity(new JSONObject(jsonMap).toString(), ContentType.APPLICATION_JSON));
+        return request;
     }
 
     /**
-     *    Full text match.
+     * @return values of the found documents of a _mget response
      */
-    private Document fullTextMatch(Optional<String> key, int i) {
-        Map<String, Object> jsonMap = new HashMap<>();
-
-        Map<String, Object> matchMap = new HashMap<>();
-        Map<String, String> fieldsMap = new HashMap<>();
-        fieldsMap.put("value", String.valueOf(i));
-        matchMap.put("match", fieldsMap);
-        jsonMap.put("query", matchMap);
-
-        JSONObject jsonObject = new JSONObject(jsonMap);
-        String jsonString = jsonObject.toString();
-
-        Request request = new Request("GET", "/" + endpoint + "/_search");
-        request.addParameter("pretty", "true");
-        request.setEntity(new NStringEntity(jsonString, ContentType.APPLICATION_JSON));
-        try {
-            Response response = esClient.performRequest(request);
-            return deserialize(response.getEntity()).get(0);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private List<String> deserializeDocs(HttpEntity entity) throws IOException {
+        JSONArray docs = JSON.parseObject(EntityUtils.toString(entity)).getJSONArray("docs");
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < docs.size(); i++) {
+            JSONObject doc = docs.getJSONObject(i);
+            if (doc.getBooleanValue("found")) {
+                values.add(doc.getJSONObject("_source").getString("value"));
+            }
         }
+        return values;
     }
 
     public void setEsClient(RestClient esClient) {
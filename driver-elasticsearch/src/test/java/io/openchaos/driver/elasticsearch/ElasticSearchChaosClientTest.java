@@ -1,10 +1,14 @@
 package io.openchaos.driver.elasticsearch;
 
+import io.openchaos.common.InvokeResult;
 import io.openchaos.driver.elasticsearch.core.Document;
+import io.openchaos.driver.kv.GetResult;
 import io.openchaos.driver.elasticsearch.core.ElasticSearchFactory;
 import junit.framework.TestCase;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.elasticsearch.client.Response;
 import org.elasticsearch.client.RestClient;
 import org.mockito.Mockito;
@@ -38,6 +42,50 @@ public class ElasticSearchChaosClientTest extends TestCase {
         esClient.put(Optional.empty(), "");
     }
 
+    public void testGet() throws IOException {
+        ElasticSearchChaosClient chaosClient = new ElasticSearchChaosClient(respondWith(HttpStatus.SC_OK,
+            "{\"_id\":\"openchaosTest1\",\"found\":true,\"_source\":{\"key\":\"Optional.empty\",\"value\":\"1\"}}"));
+        GetResult result = chaosClient.get(Optional.empty(), "1");
+        assertEquals(InvokeResult.SUCCESS, result.result);
+        assertEquals("1", result.value);
+    }
+
+    public void testGetNotFound() throws IOException {
+        ElasticSearchChaosClient chaosClient = new ElasticSearchChaosClient(respondWith(HttpStatus.SC_NOT_FOUND,
+            "{\"_id\":\"openchaosTest1\",\"found\":false}"));
+        GetResult result = chaosClient.get(Optional.empty(), "1");
+        assertEquals(InvokeResult.SUCCESS, result.result);
+        assertNull(result.value);
+    }
+
+    public void testGetFailure() throws IOException {
+        ElasticSearchChaosClient chaosClient = new ElasticSearchChaosClient(respondWith(HttpStatus.SC_SERVICE_UNAVAILABLE, "{}"));
+        GetResult result = chaosClient.get(Optional.empty(), "1");
+        assertEquals(InvokeResult.FAILURE, result.result);
+        assertNull(result.value);
+    }
+
+    public void testDelete() throws IOException {
+        ElasticSearchChaosClient chaosClient = new ElasticSearchChaosClient(respondWith(HttpStatus.SC_OK, "{\"result\":\"deleted\"}"));
+        assertEquals(InvokeResult.SUCCESS, chaosClient.delete(Optional.empty(), "1"));
+    }
+
+    public void testDeleteNotFound() throws IOException {
+        ElasticSearchChaosClient chaosClient = new ElasticSearchChaosClient(respondWith(HttpStatus.SC_NOT_FOUND, "{\"result\":\"not_found\"}"));
+        assertEquals(InvokeResult.FAILURE, chaosClient.delete(Optional.empty(), "1"));
+    }
+
+    private static RestClient respondWith(int statusCode, String body) throws IOException {
+        RestClient restClient = Mockito.mock(RestClient.class);
+        Response response = Mockito.mock(Response.class);
+        StatusLine status = Mockito.mock(StatusLine.class);
+        Mockito.when(restClient.performRequest(Mockito.any())).thenReturn(response);
+        Mockito.when(response.getStatusLine()).thenReturn(status);
+        Mockito.when(status.getStatusCode()).thenReturn(statusCode);
+        Mockito.when(response.getEntity()).thenReturn(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return restClient;
+    }
+
     public void testGetAll() {
         assertNotNull(esClient.getAll(Optional.empty(), 10));
     }
@@ -20,20 +20,27 @@ import io.etcd.jetcd.ByteSequence;
 import io.etcd.jetcd.Client;
 import io.etcd.jetcd.KV;
 import io.etcd.jetcd.KeyValue;
+import io.etcd.jetcd.kv.DeleteResponse;
 import io.etcd.jetcd.kv.GetResponse;
 import io.etcd.jetcd.kv.PutResponse;
+import io.etcd.jetcd.options.GetOption;
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.kv.GetResult;
 import io.openchaos.driver.kv.KVClient;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Slf4j
 public class EtcdChaosClient implements KVClient {
 
+    private static final int GET_ALL_PAGE_SIZE = 1000;
+
     private final Client client;
 
     public EtcdChaosClient(Client client) {
@@ -68,27 +75,83 @@ public class EtcdChaosClient implements KVClient {
         return InvokeResult.SUCCESS;
     }
 
+    @Override
+    public GetResult get(Optional<String> key, String value) {
+        try {
+            GetResponse response = client.getKVClient().get(ByteSequence.from(key.get() + value, Charsets.UTF_8)).get();
+            if (response.getKvs().isEmpty()) {
+                return GetResult.notFound();
+            }
+            return GetResult.found(response.getKvs().get(0).getValue().toString(Charsets.UTF_8));
+        } catch (InterruptedException | ExecutionException e) {
+            log.error("Etcd get failed.", e);
+            return GetResult.of(InvokeResult.FAILURE);
+        }
+    }
+
+    @Override
+    public InvokeResult delete(Optional<String> key, String value) {
+        try {
+            DeleteResponse response = client.getKVClient().delete(ByteSequence.from(key.get() + value, Charsets.UTF_8)).get();
+            if (response.getDeleted() == 0) {
+                log.warn("Etcd delete found no key.");
+                return InvokeResult.FAILURE;
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            log.error("Etcd delete failed.", e);
+            return InvokeResult.FAILURE;
+        }
+        return InvokeResult.SUCCESS;
+    }
+
+    /**
+     * Read every entry of the key with paged range gets. Values are decimal, so the range of the key is split by the
+     * first digit of the value and the ten ranges are paged in parallel.
+     */
     @Override
     public List<String> getAll(Optional<String> key, int putInvokeCount) {
-        List<String> results = new LinkedList<>();
+        List<String> results = new ArrayList<>();
         KV kv = client.getKVClient();
+        List<List<String>> rangeResults = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (char digit = '0'; digit <= '9'; digit++) {
+            List<String> rangeResult = new ArrayList<>();
+            rangeResults.add(rangeResult);
+            futures.add(getRange(kv, ByteSequence.from(key.get() + digit, Charsets.UTF_8),
+                ByteSequence.from(key.get() + (char) (digit + 1), Charsets.UTF_8), rangeResult));
+        }
 
         try {
-            for (int i = 0; i < putInvokeCount; i++) {
-                GetResponse response = kv.get(ByteSequence.from(key.get() + i, Charsets.UTF_8)).get();
-                if (response.getKvs().isEmpty()) {
-                    continue;
-                }
-                for (KeyValue keyValue : response.getKvs()) {
-                    results.add(keyValue.getValue().toString(Charsets.UTF_8));
-                }
-            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+            rangeResults.forEach(results::addAll);
         } catch (InterruptedException | ExecutionException e) {
             log.error("Get etcd key failed.", e);
         }
         return results;
     }
 
+    /**
+     * Get the keys in [begin, end) page by page, every page starts right after the last key of the previous one
+     */
+    private CompletableFuture<Void> getRange(KV kv, ByteSequence begin, ByteSequence end, List<String> results) {
+        GetOption option = GetOption.newBuilder()
+            .withRange(end)
+            .withLimit(GET_ALL_PAGE_SIZE)
+            .withSortField(GetOption.SortTarget.KEY)
+            .withSortOrder(GetOption.SortOrder.ASCEND)
+            .build();
+        return kv.get(begin, option).thenCompose(response -> {
+            for (KeyValue keyValue : response.getKvs()) {
+                results.add(keyValue.getValue().toString(Charsets.UTF_8));
+            }
+            if (!response.isMore() || response.getKvs().isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            byte[] lastKey = response.getKvs().get(response.getKvs().size() - 1).getKey().getBytes();
+            return getRange(kv, ByteSequence.from(Arrays.copyOf(lastKey, lastKey.length + 1)), end, results);
+        });
+    }
+
     @Override
     public List<String> getAll(Optional<String> key) {
         return getAll(key, 1);
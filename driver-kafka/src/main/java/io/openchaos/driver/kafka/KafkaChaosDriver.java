@@ -31,7 +31,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import org.apache.kafka.clients.admin.AdminClient;
@@ -116,7 +115,7 @@ public class KafkaChaosDriver implements QueueDriver {
     @Override
     public QueueProducer createProducer(String topic) {
         KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProperties);
-        return new KafkaChaosProducer(producer, topic);
+        return new KafkaChaosProducer(producer, topic, kafkaClientConfig.maxInFlightRecords);
     }
 
     @Override
@@ -124,17 +123,15 @@ public class KafkaChaosDriver implements QueueDriver {
                                                   ConsumerCallback consumerCallback) {
         consumerProperties.put(ConsumerConfig.GROUP_ID_CONFIG, subscriptionName);
         KafkaConsumer<String, byte[]> kafkaConsumer = new KafkaConsumer<>(consumerProperties);
-        kafkaConsumer.subscribe(Arrays.asList(topic));
-        return new KafkaChaosPushConsumer(kafkaConsumer, consumerCallback);
+        return new KafkaChaosPushConsumer(kafkaConsumer, topic, consumerCallback, kafkaClientConfig.asyncCommit,
+            kafkaClientConfig.commitIntervalMs, kafkaClientConfig.consumerWorkerThreads);
     }
 
     @Override
     public QueuePullConsumer createPullConsumer(String topic, String subscriptionName) {
-        throw new UnsupportedOperationException("Unsupport create a pull consumer currently");
-//        consumerProperties.put(ConsumerConfig.GROUP_ID_CONFIG, subscriptionName);
-//        KafkaConsumer<String, byte[]> kafkaConsumer = new KafkaConsumer<>(consumerProperties);
-//        kafkaConsumer.subscribe(Arrays.asList(topic));
-//        return new KafkaChaosPullConsumer(kafkaConsumer);
+        consumerProperties.put(ConsumerConfig.GROUP_ID_CONFIG, subscriptionName);
+        KafkaConsumer<String, byte[]> kafkaConsumer = new KafkaConsumer<>(consumerProperties);
+        return new KafkaChaosPullConsumer(kafkaConsumer, topic, kafkaClientConfig.pollTimeoutMs);
     }
 
     @Override
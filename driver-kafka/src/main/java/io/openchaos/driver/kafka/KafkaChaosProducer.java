@@ -15,8 +15,12 @@
 package io.openchaos.driver.kafka;
 
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.queue.EnqueueResult;
 import io.openchaos.driver.queue.QueueProducer;
-import java.util.concurrent.ExecutionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.errors.TimeoutException;
@@ -28,45 +32,118 @@ public class KafkaChaosProducer implements QueueProducer {
     private static final Logger log = LoggerFactory.getLogger(KafkaChaosProducer.class);
     private String chaosTopic;
     private KafkaProducer<String, byte[]> kafkaProducer;
+    /**
+     * Records sent and not acknowledged yet, null if only bounded by buffer.memory of the producer
+     */
+    private final Semaphore inFlightRecords;
 
     public KafkaChaosProducer(KafkaProducer<String, byte[]> kafkaProducer, String chaosTopic) {
+        this(kafkaProducer, chaosTopic, 0);
+    }
+
+    /**
+     * @param maxInFlightRecords max records sent and not acknowledged, 0 for no bound other than buffer.memory
+     */
+    public KafkaChaosProducer(KafkaProducer<String, byte[]> kafkaProducer, String chaosTopic, int maxInFlightRecords) {
         this.kafkaProducer = kafkaProducer;
         this.chaosTopic = chaosTopic;
+        this.inFlightRecords = maxInFlightRecords > 0 ? new Semaphore(maxInFlightRecords) : null;
     }
 
     @Override
-    public InvokeResult enqueue(byte[] payload) {
-        try {
-            kafkaProducer.send(new ProducerRecord<>(chaosTopic, payload)).get();
-        } catch (ExecutionException e) {
-            if (e.getCause() instanceof TimeoutException) {
-                log.warn("enqueue timeout...", e);
-                return InvokeResult.UNKNOWN;
-            }
-            return InvokeResult.FAILURE;
-        } catch (Exception e) {
-            log.warn("enqueue error", e);
-            return InvokeResult.FAILURE;
-        }
+    public EnqueueResult enqueue(byte[] payload) {
+        return send(new ProducerRecord<>(chaosTopic, payload)).join();
+    }
+
+    @Override
+    public EnqueueResult enqueue(String shardingKey, byte[] payload) {
+        return send(new ProducerRecord<>(chaosTopic, shardingKey, payload)).join();
+    }
+
+    @Override
+    public CompletableFuture<EnqueueResult> enqueueAsync(byte[] payload) {
+        return send(new ProducerRecord<>(chaosTopic, payload));
+    }
+
+    @Override
+    public CompletableFuture<EnqueueResult> enqueueAsync(String shardingKey, byte[] payload) {
+        return send(new ProducerRecord<>(chaosTopic, shardingKey, payload));
+    }
 
-        return InvokeResult.SUCCESS;
+    @Override
+    public List<EnqueueResult> enqueueBatch(List<byte[]> payloads) {
+        List<CompletableFuture<EnqueueResult>> futures = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            futures.add(send(new ProducerRecord<>(chaosTopic, payload)));
+        }
+        return join(futures);
     }
 
     @Override
-    public InvokeResult enqueue(String shardingKey, byte[] payload) {
+    public List<EnqueueResult> enqueueBatch(String shardingKey, List<byte[]> payloads) {
+        List<CompletableFuture<EnqueueResult>> futures = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            futures.add(send(new ProducerRecord<>(chaosTopic, shardingKey, payload)));
+        }
+        return join(futures);
+    }
+
+    /**
+     * Send the accumulated records of the batch at once instead of waiting for linger, and wait for every record
+     */
+    private List<EnqueueResult> join(List<CompletableFuture<EnqueueResult>> futures) {
         try {
-            kafkaProducer.send(new ProducerRecord<>(chaosTopic, shardingKey, payload)).get();
-        } catch (ExecutionException e) {
-            if (e.getCause() instanceof TimeoutException) {
-                log.warn("enqueue timeout...", e);
-                return InvokeResult.UNKNOWN;
+            kafkaProducer.flush();
+        } catch (Exception e) {
+            log.warn("flush error", e);
+        }
+        List<EnqueueResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<EnqueueResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Send through the callback of the producer, so records are batched by linger.ms and batch.size. The result
+     * carries the partition and offset of the record.
+     */
+    private CompletableFuture<EnqueueResult> send(ProducerRecord<String, byte[]> record) {
+        CompletableFuture<EnqueueResult> future = new CompletableFuture<>();
+        if (inFlightRecords != null) {
+            try {
+                inFlightRecords.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.complete(EnqueueResult.of(InvokeResult.FAILURE));
+                return future;
             }
-            return InvokeResult.FAILURE;
+        }
+        try {
+            kafkaProducer.send(record, (metadata, exception) -> {
+                if (inFlightRecords != null) {
+                    inFlightRecords.release();
+                }
+                if (exception == null) {
+                    future.complete(EnqueueResult.of(InvokeResult.SUCCESS,
+                        String.format("partition=%d, offset=%d", metadata.partition(), metadata.offset())));
+                } else if (exception instanceof TimeoutException) {
+                    log.warn("enqueue timeout...", exception);
+                    future.complete(EnqueueResult.of(InvokeResult.UNKNOWN));
+                } else {
+                    log.warn("enqueue error", exception);
+                    future.complete(EnqueueResult.of(InvokeResult.FAILURE));
+                }
+            });
         } catch (Exception e) {
+            //The callback is not invoked when send throws
+            if (inFlightRecords != null) {
+                inFlightRecords.release();
+            }
             log.warn("enqueue error", e);
-            return InvokeResult.FAILURE;
+            future.complete(EnqueueResult.of(InvokeResult.FAILURE));
         }
-        return InvokeResult.SUCCESS;
+        return future;
     }
 
     @Override
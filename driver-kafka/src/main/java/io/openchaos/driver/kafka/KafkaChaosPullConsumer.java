@@ -16,58 +16,92 @@ package io.openchaos.driver.kafka;
 
 import io.openchaos.common.Message;
 import io.openchaos.driver.queue.QueuePullConsumer;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * There may be issues during operation, KafkaChaosPushConsumer is recommended
+ * Polls on the caller thread and returns every polled batch as a whole. Offsets of the returned records are committed
+ * asynchronously once per batch, and synchronously when partitions are revoked or the consumer is closed.
  */
-@Deprecated
 public class KafkaChaosPullConsumer implements QueuePullConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaChaosPullConsumer.class);
-    private KafkaConsumer kafkaConsumer;
-    private final ExecutorService executor;
 
-    public KafkaChaosPullConsumer(KafkaConsumer kafkaConsumer) {
+    private final KafkaConsumer<String, byte[]> kafkaConsumer;
+
+    private final Duration pollTimeout;
+
+    /**
+     * Next offset to consume of every partition whose records have been returned
+     */
+    private final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+
+    public KafkaChaosPullConsumer(KafkaConsumer<String, byte[]> kafkaConsumer, String topic, long pollTimeoutMs) {
         this.kafkaConsumer = kafkaConsumer;
-        this.executor = Executors.newSingleThreadExecutor();
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMs);
+        this.kafkaConsumer.subscribe(Collections.singletonList(topic), new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                commitSync();
+                offsets.keySet().removeAll(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            }
+        });
     }
 
     @Override
     public List<Message> dequeue() {
+        ConsumerRecords<String, byte[]> records;
+        try {
+            records = kafkaConsumer.poll(pollTimeout);
+        } catch (Exception e) {
+            log.error("dequeue error", e);
+            return null;
+        }
+        if (records.isEmpty()) {
+            return null;
+        }
 
-        List<Message> res = null;
-
-        Future<List<Message>> consumerTask = executor.submit(new Callable<List<Message>>() {
-            @Override public List<Message> call() throws Exception {
-                ConsumerRecords<String, byte[]> records = kafkaConsumer.poll(500);
-                if (!records.isEmpty()) {
-                    List<Message> messageList = new ArrayList<>();
-                    for (ConsumerRecord<String, byte[]> record : records) {
-                        messageList.add(new Message(record.key(), record.value()));
-                    }
-                    return messageList;
-                } else {
-                    return null;
-                }
+        long receiveTimestamp = System.currentTimeMillis();
+        List<Message> messageList = new ArrayList<>(records.count());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            messageList.add(new Message(record.key(), record.value(), record.timestamp(), receiveTimestamp,
+                String.format("partition=%d, offset=%d", record.partition(), record.offset())));
+            offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+        }
+        kafkaConsumer.commitAsync(new HashMap<>(offsets), (committed, e) -> {
+            if (e != null) {
+                log.warn("Commit offsets {} failed", committed, e);
             }
         });
+        return messageList;
+    }
+
+    private void commitSync() {
+        if (offsets.isEmpty()) {
+            return;
+        }
         try {
-            res = consumerTask.get();
+            kafkaConsumer.commitSync(offsets);
         } catch (Exception e) {
-            log.error("dequeue error", e);
+            log.error("Commit offsets {} failed", offsets, e);
         }
-        return res;
     }
 
     @Override
@@ -77,15 +111,7 @@ public class KafkaChaosPullConsumer implements QueuePullConsumer {
 
     @Override
     public void close() {
-        try {
-            executor.submit(() -> {
-                if (kafkaConsumer != null) {
-                    kafkaConsumer.close();
-                }
-            }).get();
-        } catch (Exception e) {
-            log.error("Close KafkaChaosPullConsumer error", e);
-        }
-        executor.shutdown();
+        commitSync();
+        kafkaConsumer.close();
     }
 }
@@ -17,11 +17,18 @@ package io.openchaos.driver.kafka;
 import io.openchaos.common.Message;
 import io.openchaos.driver.queue.ConsumerCallback;
 import io.openchaos.driver.queue.QueuePushConsumer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -30,39 +37,74 @@ import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-
+/**
+ * Polls on a dedicated thread and commits offsets once every polled batch has been handled. Records are handled on
+ * the polling thread, or spread over worker threads by partition so that records of a partition stay in order.
+ */
 public class KafkaChaosPushConsumer implements QueuePushConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaChaosPushConsumer.class);
 
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
     private final KafkaConsumer<String, byte[]> consumer;
 
+    private final ConsumerCallback callback;
+
+    private final boolean asyncCommit;
+
+    private final long commitIntervalMs;
+
     private final ExecutorService executor;
 
+    private final ExecutorService[] workers;
+
     private final Future<?> consumerTask;
 
+    /**
+     * Next offset to consume of every partition whose records have been handled, only accessed by the polling thread
+     */
+    private final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+
+    private long lastSyncCommitTimestamp = System.currentTimeMillis();
+
     private volatile boolean closing = false;
 
-    public KafkaChaosPushConsumer(KafkaConsumer<String, byte[]> consumer, ConsumerCallback callback) {
+    public KafkaChaosPushConsumer(KafkaConsumer<String, byte[]> consumer, String topic, ConsumerCallback callback,
+        boolean asyncCommit, long commitIntervalMs, int workerThreads) {
         this.consumer = consumer;
+        this.callback = callback;
+        this.asyncCommit = asyncCommit;
+        this.commitIntervalMs = commitIntervalMs;
+        if (workerThreads > 0) {
+            this.workers = new ExecutorService[workerThreads];
+            for (int i = 0; i < workerThreads; i++) {
+                this.workers[i] = Executors.newSingleThreadExecutor();
+            }
+        } else {
+            this.workers = null;
+        }
+        this.consumer.subscribe(Collections.singletonList(topic), new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                //Called inside poll, every polled batch has been handled already
+                commitSync();
+                offsets.keySet().removeAll(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            }
+        });
         this.executor = Executors.newSingleThreadExecutor();
         this.consumerTask = this.executor.submit(() -> {
             while (!closing) {
                 try {
-                    ConsumerRecords<String, byte[]> records = consumer.poll(500);
-
-                    Map<TopicPartition, OffsetAndMetadata> offsetMap = new HashMap<>();
-                    for (ConsumerRecord<String, byte[]> record : records) {
-                        callback.messageReceived(new Message(record.key(), record.value(), record.timestamp(), System.currentTimeMillis(), record.topic()));
-
-                        offsetMap.put(new TopicPartition(record.topic(), record.partition()),
-                            new OffsetAndMetadata(record.offset()));
+                    ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                    if (!records.isEmpty()) {
+                        handle(records);
+                        commit();
                     }
-
-                    if (!offsetMap.isEmpty()) {
-                        consumer.commitSync(offsetMap);
-                    }
-
                 } catch (Exception e) {
                     log.error("exception occur while consuming message", e);
                 }
@@ -70,6 +112,64 @@ public class KafkaChaosPushConsumer implements QueuePushConsumer {
         });
     }
 
+    private void handle(ConsumerRecords<String, byte[]> records) throws InterruptedException {
+        if (workers == null) {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                messageReceived(record);
+            }
+        } else {
+            List<Future<?>> futures = new ArrayList<>();
+            for (TopicPartition partition : records.partitions()) {
+                List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(partition);
+                ExecutorService worker = workers[(partition.hashCode() & Integer.MAX_VALUE) % workers.length];
+                futures.add(worker.submit(() -> partitionRecords.forEach(this::messageReceived)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.error("exception occur while handling message", e.getCause());
+                }
+            }
+        }
+
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(partition);
+            long lastOffset = partitionRecords.get(partitionRecords.size() - 1).offset();
+            offsets.put(partition, new OffsetAndMetadata(lastOffset + 1));
+        }
+    }
+
+    private void messageReceived(ConsumerRecord<String, byte[]> record) {
+        callback.messageReceived(new Message(record.key(), record.value(), record.timestamp(), System.currentTimeMillis(), record.topic()));
+    }
+
+    private void commit() {
+        if (offsets.isEmpty()) {
+            return;
+        }
+        if (!asyncCommit || System.currentTimeMillis() - lastSyncCommitTimestamp >= commitIntervalMs) {
+            commitSync();
+            return;
+        }
+        consumer.commitAsync(new HashMap<>(offsets), (committed, e) -> {
+            if (e != null) {
+                log.warn("Commit offsets {} failed", committed, e);
+            }
+        });
+    }
+
+    private void commitSync() {
+        if (offsets.isEmpty()) {
+            return;
+        }
+        lastSyncCommitTimestamp = System.currentTimeMillis();
+        try {
+            consumer.commitSync(offsets);
+        } catch (Exception e) {
+            log.error("Commit offsets {} failed", offsets, e);
+        }
+    }
 
     @Override
     public void start() {
@@ -81,14 +181,18 @@ public class KafkaChaosPushConsumer implements QueuePushConsumer {
         closing = true;
         try {
             executor.submit(() -> {
-                if (consumer != null) {
-                    consumer.close();
-                }
+                commitSync();
+                consumer.close();
             }).get();
             consumerTask.get();
         } catch (Exception e) {
             log.error("Close KafkaChaosPushConsumer failed", e);
         }
         executor.shutdown();
+        if (workers != null) {
+            for (ExecutorService worker : workers) {
+                worker.shutdown();
+            }
+        }
     }
 }
@@ -23,5 +23,29 @@ public class KafkaClientConfig {
 
     public String producerConfig;
 
+    /**
+     * Max records of every producer sent and not acknowledged yet, 0 for no bound other than buffer.memory
+     */
+    public int maxInFlightRecords;
+
     public String consumerConfig;
+
+    /**
+     * Max time in milliseconds of every poll of pull consumers
+     */
+    public long pollTimeoutMs = 100;
+
+    /**
+     * Commit offsets of push consumers asynchronously, with a synchronous commit every commitIntervalMs, on rebalance
+     * and on close. Offsets are committed synchronously after every poll otherwise
+     */
+    public boolean asyncCommit;
+
+    public long commitIntervalMs = 5000;
+
+    /**
+     * Worker threads of every push consumer handling polled records, records of a partition are always handled by the
+     * same worker in order. 0 to handle records on the polling thread
+     */
+    public int consumerWorkerThreads;
 }
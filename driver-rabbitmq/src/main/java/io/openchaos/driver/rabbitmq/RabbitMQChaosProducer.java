@@ -18,6 +18,7 @@ import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.queue.EnqueueResult;
 import io.openchaos.driver.queue.QueueProducer;
 import io.openchaos.driver.rabbitmq.core.DefaultRabbitMQProducer;
 import org.apache.commons.pool2.ObjectPool;
@@ -25,12 +26,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 public class RabbitMQChaosProducer implements QueueProducer {
     private static final Logger log = LoggerFactory.getLogger(RabbitMQChaosProducer.class);
     String queueName = "openchaos_client_1";
     private DefaultRabbitMQProducer producer;
+    private static final long CONFIRM_TIMEOUT_SECONDS = 30;
 
     public RabbitMQChaosProducer(ConnectionFactory factory, String queueName, Connection connection, ObjectPool<Channel> channelPool) {
         if (notNull(queueName)) {
@@ -55,26 +61,91 @@ public class RabbitMQChaosProducer implements QueueProducer {
     }
 
     @Override
-    public InvokeResult enqueue(byte[] payload) {
+    public EnqueueResult enqueue(byte[] payload) {
         try {
             producer.sendMessage(queueName, payload);
         } catch (IOException e) {
             log.warn("Enqueue fail");
-            return InvokeResult.FAILURE;
+            return EnqueueResult.of(InvokeResult.FAILURE);
         } catch (TimeoutException e) {
             log.warn("Enqueue timeout");
-            return InvokeResult.FAILURE;
+            return EnqueueResult.of(InvokeResult.FAILURE);
         } catch (Exception e) {
-            return InvokeResult.FAILURE;
+            return EnqueueResult.of(InvokeResult.FAILURE);
         }
-        return InvokeResult.SUCCESS.setExtraInfoAndReturnSelf(new String(payload));
+        return EnqueueResult.of(InvokeResult.SUCCESS, extraInfo(payload));
     }
 
     @Override
-    public InvokeResult enqueue(String shardingKey, byte[] payload) {
+    public EnqueueResult enqueue(String shardingKey, byte[] payload) {
         return enqueue(payload);
     }
 
+    /**
+     * Publish with publisher confirms, a nack is a failure and a channel closed before confirm is unknown
+     */
+    @Override
+    public CompletableFuture<EnqueueResult> enqueueAsync(byte[] payload) {
+        try {
+            return producer.sendMessageAsync(queueName, payload).handle((ack, e) -> {
+                if (e != null) {
+                    log.warn("Enqueue unknown", e);
+                    return EnqueueResult.of(InvokeResult.UNKNOWN);
+                }
+                if (!ack) {
+                    log.warn("Enqueue fail, nack by broker");
+                    return EnqueueResult.of(InvokeResult.FAILURE);
+                }
+                return EnqueueResult.of(InvokeResult.SUCCESS, extraInfo(payload));
+            });
+        } catch (Exception e) {
+            log.warn("Enqueue fail", e);
+            return CompletableFuture.completedFuture(EnqueueResult.of(InvokeResult.FAILURE));
+        }
+    }
+
+    @Override
+    public CompletableFuture<EnqueueResult> enqueueAsync(String shardingKey, byte[] payload) {
+        return enqueueAsync(payload);
+    }
+
+    /**
+     * Publish the whole batch before waiting for the confirms, which the broker may ack together
+     */
+    @Override
+    public List<EnqueueResult> enqueueBatch(List<byte[]> payloads) {
+        List<CompletableFuture<EnqueueResult>> futures = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            futures.add(enqueueAsync(payload));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CONFIRM_TIMEOUT_SECONDS);
+        List<EnqueueResult> results = new ArrayList<>(payloads.size());
+        for (CompletableFuture<EnqueueResult> future : futures) {
+            try {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(EnqueueResult.of(InvokeResult.UNKNOWN));
+            } catch (Exception e) {
+                log.warn("Enqueue unknown, confirm timeout");
+                results.add(EnqueueResult.of(InvokeResult.UNKNOWN));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<EnqueueResult> enqueueBatch(String shardingKey, List<byte[]> payloads) {
+        return enqueueBatch(payloads);
+    }
+
+    /**
+     * Payloads may be padded to large sizes, so only the metadata of the message is recorded
+     */
+    private String extraInfo(byte[] payload) {
+        return String.format("queue=%s, size=%d", queueName, payload.length);
+    }
+
     private boolean notNull(String s) {
         return s != null && !s.equals("");
     }
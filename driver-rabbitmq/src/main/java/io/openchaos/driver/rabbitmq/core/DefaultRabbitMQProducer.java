@@ -22,6 +22,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeoutException;
 
 public class DefaultRabbitMQProducer {
@@ -30,6 +33,8 @@ public class DefaultRabbitMQProducer {
     private ObjectPool<Channel> channelPool;
     private Connection connection;
     private Channel channel;
+    private Channel confirmChannel;
+    private PublisherConfirms confirms;
 
     public DefaultRabbitMQProducer() {
 
@@ -68,7 +73,45 @@ public class DefaultRabbitMQProducer {
 
     }
 
+    /**
+     * Publish a message on a channel in confirm mode without waiting for the broker. The future is completed with
+     * true when the broker acks the message, false when it nacks the message, and exceptionally when the channel is
+     * shut down before the confirm arrives, so the message may or may not be enqueued.
+     */
+    public synchronized CompletableFuture<Boolean> sendMessageAsync(String queueName, byte[] message) throws Exception {
+        if (channel == null || !channel.isOpen()) {
+            channel = channelPool.borrowObject();
+        }
+        if (confirmChannel != channel) {
+            if (confirms != null) {
+                confirms.failAll(new IOException("Channel of unconfirmed messages is closed"));
+            }
+            PublisherConfirms channelConfirms = new PublisherConfirms();
+            channel.confirmSelect();
+            channel.addConfirmListener((deliveryTag, multiple) -> channelConfirms.confirm(deliveryTag, multiple, true),
+                (deliveryTag, multiple) -> channelConfirms.confirm(deliveryTag, multiple, false));
+            channel.addShutdownListener(channelConfirms::failAll);
+            confirmChannel = channel;
+            confirms = channelConfirms;
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        long sequenceNumber = channel.getNextPublishSeqNo();
+        confirms.outstanding.put(sequenceNumber, future);
+        try {
+            channel.basicPublish("", queueName, null, message);
+        } catch (Exception e) {
+            confirms.outstanding.remove(sequenceNumber);
+            throw e;
+        }
+        return future;
+    }
+
     public void shutdown() {
+        synchronized (this) {
+            if (confirms != null) {
+                confirms.failAll(new IOException("Producer is shutdown"));
+            }
+        }
         try {
             if (channel != null && channel.isOpen()) {
                 channel.close();
@@ -97,5 +140,29 @@ public class DefaultRabbitMQProducer {
     public Connection getConnection() {
         return connection;
     }
-}
 
+    /**
+     * Unconfirmed messages of one channel by publish sequence number
+     */
+    private static class PublisherConfirms {
+        final ConcurrentNavigableMap<Long, CompletableFuture<Boolean>> outstanding = new ConcurrentSkipListMap<>();
+
+        void confirm(long deliveryTag, boolean multiple, boolean ack) {
+            if (multiple) {
+                ConcurrentNavigableMap<Long, CompletableFuture<Boolean>> confirmed = outstanding.headMap(deliveryTag, true);
+                confirmed.values().forEach(future -> future.complete(ack));
+                confirmed.clear();
+            } else {
+                CompletableFuture<Boolean> future = outstanding.remove(deliveryTag);
+                if (future != null) {
+                    future.complete(ack);
+                }
+            }
+        }
+
+        void failAll(Throwable cause) {
+            outstanding.values().forEach(future -> future.completeExceptionally(cause));
+            outstanding.clear();
+        }
+    }
+}
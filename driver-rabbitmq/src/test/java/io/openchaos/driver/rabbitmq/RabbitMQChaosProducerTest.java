@@ -36,6 +36,6 @@ public class RabbitMQChaosProducerTest {
     @Test
     public void enqueue() {
 
-        assertEquals(InvokeResult.SUCCESS, mqChaosProducer.enqueue("hello RabbitMQ".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(InvokeResult.SUCCESS, mqChaosProducer.enqueue("hello RabbitMQ".getBytes(StandardCharsets.UTF_8)).result);
     }
 }
\ No newline at end of file
@@ -14,15 +14,19 @@
 
 package io.openchaos.driver.redis;
 
+import io.lettuce.core.KeyValue;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisFuture;
 import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.masterreplica.StatefulRedisMasterReplicaConnection;
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.kv.GetResult;
 import io.openchaos.driver.kv.KVClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
@@ -32,6 +36,8 @@ import java.util.concurrent.TimeoutException;
 public class RedisChaosClient implements KVClient {
 
     private static final Logger log = LoggerFactory.getLogger(RedisClient.class);
+    private static final int GET_ALL_BATCH_SIZE = 1000;
+    private static final int GET_ALL_MAX_IN_FLIGHT = 16;
     private final RedisClient redisClient;
     private final StatefulRedisMasterReplicaConnection<String, String> connection;
     private static RedisAsyncCommands<String, String> asyncCommands;
@@ -82,20 +88,80 @@ public class RedisChaosClient implements KVClient {
         return InvokeResult.SUCCESS;
     }
 
+    @Override
+    public GetResult get(Optional<String> key, String value) {
+        try {
+            RedisFuture<String> redisFuture = asyncCommands.get(key + value);
+            String result = redisFuture.get();
+            return result == null ? GetResult.notFound() : GetResult.found(result);
+        } catch (InterruptedException e) {
+            log.warn("get error", e);
+            return GetResult.of(InvokeResult.FAILURE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                log.warn("get timeout...", e);
+                return GetResult.of(InvokeResult.UNKNOWN);
+            }
+            return GetResult.of(InvokeResult.FAILURE);
+        }
+    }
+
+    @Override
+    public InvokeResult delete(Optional<String> key, String value) {
+        try {
+            RedisFuture<Long> redisFuture = asyncCommands.del(key + value);
+            Long result = redisFuture.get();
+            if (result == null || result == 0) {
+                log.warn("delete error, key not found");
+                return InvokeResult.FAILURE;
+            }
+        } catch (InterruptedException e) {
+            log.warn("delete error", e);
+            return InvokeResult.FAILURE;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                log.warn("delete timeout...", e);
+                return InvokeResult.UNKNOWN;
+            }
+            return InvokeResult.FAILURE;
+        }
+        return InvokeResult.SUCCESS;
+    }
+
     @Override
     public List<String> getAll(Optional<String> key, int putInvokeCount) {
         List<String> values = new ArrayList<>();
+        //Commands are pipelined on the connection, so a window of MGET batches is kept in flight
+        Deque<RedisFuture<List<KeyValue<String, String>>>> inFlight = new ArrayDeque<>();
         try {
-            for (int i = 0; i < putInvokeCount ; i++) {
-                RedisFuture<String> redisFuture = asyncCommands.get(String.valueOf(key) + i);
-                values.add(redisFuture.get(1, TimeUnit.MINUTES));
+            for (int begin = 0; begin < putInvokeCount; begin += GET_ALL_BATCH_SIZE) {
+                if (inFlight.size() == GET_ALL_MAX_IN_FLIGHT) {
+                    collect(inFlight.poll(), values);
+                }
+                String[] keys = new String[Math.min(GET_ALL_BATCH_SIZE, putInvokeCount - begin)];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = String.valueOf(key) + (begin + i);
+                }
+                inFlight.add(asyncCommands.mget(keys));
+            }
+            while (!inFlight.isEmpty()) {
+                collect(inFlight.poll(), values);
             }
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            e.printStackTrace();
+            log.error("getAll error", e);
         }
         return values;
     }
 
+    private void collect(RedisFuture<List<KeyValue<String, String>>> redisFuture, List<String> values)
+        throws InterruptedException, ExecutionException, TimeoutException {
+        for (KeyValue<String, String> keyValue : redisFuture.get(1, TimeUnit.MINUTES)) {
+            if (keyValue.hasValue()) {
+                values.add(keyValue.getValue());
+            }
+        }
+    }
+
     @Override
     public List<String> getAll(Optional<String> key) {
         return null;
@@ -15,13 +15,19 @@
 package io.openchaos.driver.rocketmq;
 
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.queue.EnqueueResult;
 import io.openchaos.driver.queue.QueueProducer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.apache.rocketmq.client.exception.MQBrokerException;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
 import org.apache.rocketmq.client.producer.MessageQueueSelector;
+import org.apache.rocketmq.client.producer.SendCallback;
 import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
 import org.apache.rocketmq.common.message.Message;
 import org.apache.rocketmq.common.message.MessageQueue;
 import org.apache.rocketmq.remoting.exception.RemotingConnectException;
@@ -33,8 +39,23 @@ import org.slf4j.LoggerFactory;
 public class RocketMQChaosProducer implements QueueProducer {
 
     private static final Logger log = LoggerFactory.getLogger(RocketMQChaosProducer.class);
+    /**
+     * Messages with the same sharding key go to the same queue
+     */
+    private static final MessageQueueSelector SHARDING_KEY_SELECTOR = new MessageQueueSelector() {
+        @Override
+        public MessageQueue select(List<MessageQueue> mqs, Message msg, Object arg) {
+            return mqs.get(Math.floorMod(arg.hashCode(), mqs.size()));
+        }
+    };
     private final DefaultMQProducer defaultMQProducer;
     private String chaosTopic;
+    /**
+     * Publish queues of chaosTopic for batches with sharding key. They are fetched again after a failed batch, and as
+     * often as the client polls the name server for routes, so batches reach queues of newly added brokers too.
+     */
+    private volatile List<MessageQueue> publishQueues;
+    private volatile long publishQueuesFetchTime;
 
     public RocketMQChaosProducer(final DefaultMQProducer defaultMQProducer, String chaosTopic) {
         this.defaultMQProducer = defaultMQProducer;
@@ -42,59 +63,142 @@ public class RocketMQChaosProducer implements QueueProducer {
     }
 
     @Override
-    public InvokeResult enqueue(byte[] payload) {
+    public EnqueueResult enqueue(byte[] payload) {
         Message message = new Message(chaosTopic, payload);
         SendResult sendResult = null;
         try {
             sendResult = defaultMQProducer.send(message);
-        } catch (RemotingException e) {
-            if (e instanceof RemotingConnectException || e instanceof RemotingSendRequestException) {
-                log.warn("Enqueue fail", e);
-                return InvokeResult.FAILURE;
-            } else {
-                log.warn("Enqueue unknown", e);
-                return InvokeResult.UNKNOWN;
-            }
-        } catch (IllegalStateException | MQClientException | InterruptedException | MQBrokerException e) {
-            log.warn("Enqueue fail", e);
-            return InvokeResult.FAILURE;
         } catch (Exception e) {
-            log.warn("Enqueue unknown", e);
-            return InvokeResult.UNKNOWN;
+            return toEnqueueResult(e);
         }
-        return InvokeResult.SUCCESS.setExtraInfoAndReturnSelf(sendResult.toString());
+        return toEnqueueResult(sendResult);
     }
 
     @Override
-    public InvokeResult enqueue(String shardingKey, byte[] payload) {
+    public EnqueueResult enqueue(String shardingKey, byte[] payload) {
         Message message = new Message(chaosTopic, payload);
         message.setKeys(shardingKey);
         SendResult sendResult = null;
         try {
-            sendResult = defaultMQProducer.send(message, new MessageQueueSelector() {
-                @Override
-                public MessageQueue select(List<MessageQueue> mqs, Message msg, Object arg) {
-                    String key = (String) arg;
-                    int index = Math.abs(key.hashCode()) % mqs.size();
-                    return mqs.get(index);
-                }
-            }, shardingKey);
-        } catch (RemotingException e) {
+            sendResult = defaultMQProducer.send(message, SHARDING_KEY_SELECTOR, shardingKey);
+        } catch (Exception e) {
+            return toEnqueueResult(e);
+        }
+        return toEnqueueResult(sendResult);
+    }
+
+    @Override
+    public CompletableFuture<EnqueueResult> enqueueAsync(byte[] payload) {
+        Message message = new Message(chaosTopic, payload);
+        CompletableFuture<EnqueueResult> future = new CompletableFuture<>();
+        try {
+            defaultMQProducer.send(message, new FutureSendCallback(future));
+        } catch (Exception e) {
+            future.complete(toEnqueueResult(e));
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<EnqueueResult> enqueueAsync(String shardingKey, byte[] payload) {
+        Message message = new Message(chaosTopic, payload);
+        message.setKeys(shardingKey);
+        CompletableFuture<EnqueueResult> future = new CompletableFuture<>();
+        try {
+            defaultMQProducer.send(message, SHARDING_KEY_SELECTOR, shardingKey, new FutureSendCallback(future));
+        } catch (Exception e) {
+            future.complete(toEnqueueResult(e));
+        }
+        return future;
+    }
+
+    /**
+     * A batch of messages is stored as a whole, so every message gets the result of the batch
+     */
+    @Override
+    public List<EnqueueResult> enqueueBatch(List<byte[]> payloads) {
+        EnqueueResult result;
+        try {
+            SendResult sendResult = defaultMQProducer.send(toMessages(null, payloads));
+            result = toEnqueueResult(sendResult);
+        } catch (Exception e) {
+            result = toEnqueueResult(e);
+        }
+        return Collections.nCopies(payloads.size(), result);
+    }
+
+    @Override
+    public List<EnqueueResult> enqueueBatch(String shardingKey, List<byte[]> payloads) {
+        EnqueueResult result;
+        try {
+            List<Message> messages = toMessages(shardingKey, payloads);
+            SendResult sendResult = defaultMQProducer.send(messages, SHARDING_KEY_SELECTOR.select(publishQueues(), messages.get(0), shardingKey));
+            result = toEnqueueResult(sendResult);
+        } catch (Exception e) {
+            publishQueues = null;
+            result = toEnqueueResult(e);
+        }
+        return Collections.nCopies(payloads.size(), result);
+    }
+
+    private List<MessageQueue> publishQueues() throws MQClientException {
+        List<MessageQueue> queues = publishQueues;
+        long now = System.currentTimeMillis();
+        if (queues == null || now - publishQueuesFetchTime >= defaultMQProducer.getPollNameServerInterval()) {
+            queues = defaultMQProducer.fetchPublishMessageQueues(chaosTopic);
+            publishQueues = queues;
+            publishQueuesFetchTime = now;
+        }
+        return queues;
+    }
+
+    private List<Message> toMessages(String shardingKey, List<byte[]> payloads) {
+        List<Message> messages = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            Message message = new Message(chaosTopic, payload);
+            if (shardingKey != null) {
+                message.setKeys(shardingKey);
+            }
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    /**
+     * Messages not stored with SEND_OK reached the broker, but flushing or replicating them timed out, so they may be
+     * lost on failover
+     */
+    private static EnqueueResult toEnqueueResult(SendResult sendResult) {
+        MessageQueue messageQueue = sendResult.getMessageQueue();
+        String extraInfo = String.format("status=%s, broker=%s, queueId=%d, queueOffset=%d, msgId=%s",
+            sendResult.getSendStatus(), messageQueue.getBrokerName(), messageQueue.getQueueId(),
+            sendResult.getQueueOffset(), sendResult.getMsgId());
+        if (sendResult.getSendStatus() == SendStatus.SEND_OK) {
+            return EnqueueResult.of(InvokeResult.SUCCESS, extraInfo);
+        }
+        log.warn("Enqueue unknown, {}", extraInfo);
+        return EnqueueResult.of(InvokeResult.UNKNOWN, extraInfo);
+    }
+
+    /**
+     * Connecting and sending failures are definite, other remoting failures such as timeout are unknown
+     */
+    private static EnqueueResult toEnqueueResult(Throwable e) {
+        if (e instanceof RemotingException) {
             if (e instanceof RemotingConnectException || e instanceof RemotingSendRequestException) {
                 log.warn("Enqueue fail", e);
-                return InvokeResult.FAILURE;
+                return EnqueueResult.of(InvokeResult.FAILURE);
             } else {
                 log.warn("Enqueue unknown", e);
-                return InvokeResult.UNKNOWN;
+                return EnqueueResult.of(InvokeResult.UNKNOWN);
             }
-        } catch (IllegalStateException | MQClientException | InterruptedException | MQBrokerException e) {
+        } else if (e instanceof IllegalStateException || e instanceof MQClientException || e instanceof InterruptedException || e instanceof MQBrokerException) {
             log.warn("Enqueue fail", e);
-            return InvokeResult.FAILURE;
-        } catch (Exception e) {
+            return EnqueueResult.of(InvokeResult.FAILURE);
+        } else {
             log.warn("Enqueue unknown", e);
-            return InvokeResult.UNKNOWN;
+            return EnqueueResult.of(InvokeResult.UNKNOWN);
         }
-        return InvokeResult.SUCCESS.setExtraInfoAndReturnSelf(sendResult.toString());
     }
 
     @Override
@@ -113,4 +217,22 @@ public class RocketMQChaosProducer implements QueueProducer {
             defaultMQProducer.shutdown();
         }
     }
+
+    private static class FutureSendCallback implements SendCallback {
+        private final CompletableFuture<EnqueueResult> future;
+
+        FutureSendCallback(CompletableFuture<EnqueueResult> future) {
+            this.future = future;
+        }
+
+        @Override
+        public void onSuccess(SendResult sendResult) {
+            future.complete(toEnqueueResult(sendResult));
+        }
+
+        @Override
+        public void onException(Throwable e) {
+            future.complete(toEnqueueResult(e));
+        }
+    }
 }
@@ -151,14 +151,7 @@ public class RocketMQDriver implements QueueDriver {
     public QueuePushConsumer createPushConsumer(String topic, String subscriptionName,
         ConsumerCallback consumerCallback) {
 
-        // To avoid bench-tool encounter subscription relationship conflict when specifying multiple topics, let's add topic name as subscription name prefix.
-        String subPrefix;
-        if(topic.contains("%")){
-            subPrefix = topic.split("%")[1];
-        } else {
-            subPrefix = topic;
-        }
-        String fullSubName = String.format("%s_%s",subPrefix, subscriptionName);
+        String fullSubName = fullSubscriptionName(topic, subscriptionName);
 
         DefaultMQPushConsumer defaultMQPushConsumer;
         if (isAclEnabled()) {
@@ -189,7 +182,7 @@ public class RocketMQDriver implements QueueDriver {
 
     @Override
     public QueuePullConsumer createPullConsumer(String topic, String subscriptionName) {
-        DefaultLitePullConsumer defaultLitePullConsumer = new DefaultLitePullConsumer(subscriptionName);
+        DefaultLitePullConsumer defaultLitePullConsumer = new DefaultLitePullConsumer(fullSubscriptionName(topic, subscriptionName));
         defaultLitePullConsumer.setNamesrvAddr(getNameserver());
         defaultLitePullConsumer.setInstanceName("ConsumerInstance" + getRandomString());
         defaultLitePullConsumer.setPollTimeoutMillis(100);
@@ -202,6 +195,20 @@ public class RocketMQDriver implements QueueDriver {
         return new RocketMQChaosPullConsumer(defaultLitePullConsumer);
     }
 
+    /**
+     * To avoid bench-tool encounter subscription relationship conflict when specifying multiple topics, let's add topic
+     * name as subscription name prefix. Consumers of one group must subscribe to the same topics.
+     */
+    private static String fullSubscriptionName(String topic, String subscriptionName) {
+        String subPrefix;
+        if (topic.contains("%")) {
+            subPrefix = topic.split("%")[1];
+        } else {
+            subPrefix = topic;
+        }
+        return String.format("%s_%s", subPrefix, subscriptionName);
+    }
+
     @Override
     public String getMetaNode() {
         return getNameserver();
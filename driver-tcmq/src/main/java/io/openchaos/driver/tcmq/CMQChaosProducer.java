@@ -19,11 +19,14 @@ import com.qcloud.cmq.Queue;
 import com.qcloud.cmq.Topic;
 import com.qcloud.cmq.entity.CmqResponse;
 import io.openchaos.common.InvokeResult;
+import io.openchaos.driver.queue.EnqueueResult;
 import io.openchaos.driver.queue.QueueProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class CMQChaosProducer implements QueueProducer {
@@ -51,7 +54,7 @@ public class CMQChaosProducer implements QueueProducer {
     }
 
     @Override
-    public InvokeResult enqueue(byte[] payload) {
+    public EnqueueResult enqueue(byte[] payload) {
         String msg = new String(payload);
 
         if(CMQDriver.isQueueResType(resourceType)){
@@ -65,10 +68,10 @@ public class CMQChaosProducer implements QueueProducer {
                 }
             } catch (Exception e) {
                 log.warn("Enqueue fail", e);
-                return InvokeResult.FAILURE;
+                return EnqueueResult.of(InvokeResult.FAILURE);
             }
             String extraInfo = String.format("msgId:%s, reqId:%s", cmqResponse.getMsgId(), cmqResponse.getRequestId());
-            return InvokeResult.SUCCESS.setExtraInfoAndReturnSelf(extraInfo);
+            return EnqueueResult.of(InvokeResult.SUCCESS, extraInfo);
         } else {
             String msgId="";
 
@@ -84,18 +87,47 @@ public class CMQChaosProducer implements QueueProducer {
                 }
             } catch (Exception e) {
                 log.warn("Enqueue fail", e);
-                return InvokeResult.FAILURE;
+                return EnqueueResult.of(InvokeResult.FAILURE);
             }
 
-            return InvokeResult.SUCCESS.setExtraInfoAndReturnSelf(msgId);
+            return EnqueueResult.of(InvokeResult.SUCCESS, msgId);
         }
 
     }
 
+    /**
+     * Send the batch with one request, every message gets the result of the batch
+     */
     @Override
-    public InvokeResult enqueue(String shardingKey, byte[] payload) {
+    public List<EnqueueResult> enqueueBatch(List<byte[]> payloads) {
+        List<String> msgList = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            msgList.add(new String(payload, StandardCharsets.UTF_8));
+        }
+        List<String> msgIds;
+        try {
+            if (CMQDriver.isQueueResType(resourceType)) {
+                if (delaySeconds <= 0) {
+                    msgIds = queue.batchSendMessage(msgList);
+                } else {
+                    msgIds = queue.batchSendMessage(msgList, delaySeconds);
+                }
+            } else if (isTagSubType(subscriptionType)) {
+                msgIds = topic.batchPublishMessage(msgList, vTagList == null || vTagList.isEmpty() ? null : vTagList, null);
+            } else {
+                msgIds = topic.batchPublishMessage(msgList, null, routingKey);
+            }
+        } catch (Exception e) {
+            log.warn("Enqueue fail", e);
+            return Collections.nCopies(payloads.size(), EnqueueResult.of(InvokeResult.FAILURE));
+        }
+        return Collections.nCopies(payloads.size(), EnqueueResult.of(InvokeResult.SUCCESS, String.valueOf(msgIds)));
+    }
+
+    @Override
+    public EnqueueResult enqueue(String shardingKey, byte[] payload) {
         // Not supported
-        return InvokeResult.FAILURE;
+        return EnqueueResult.of(InvokeResult.FAILURE);
     }
 
     @Override